@@ -0,0 +1,107 @@
+package com.example.springbootecommerceapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfiguration {
+
+    public static final String EMAIL_EXECUTOR = "emailExecutor";
+
+    /*
+    Email sends run here instead of on the shared application executor. The queue is
+    bounded and a full queue makes the submitting thread send the email itself, which slows
+    down the burst instead of piling up sends. Pending emails are drained on shutdown.
+    Sends wait on the SMTP server rather than the CPU, so the pool is sized for the number of
+    connections the server accepts, not the cores, and idle threads are released.
+    Queue depth, active and completed counts are published as executor.* metrics with
+    name=emailExecutor by the actuator task executor metrics.
+    With virtual-threads on a JVM that has them (Java 21+), every send gets its own virtual
+    thread instead and max-size bounds how many run at once. There is no pool or queue to
+    publish metrics for then.
+     */
+    @Bean(name = EMAIL_EXECUTOR)
+    public Executor emailExecutor(
+            @Value("${ecommerce.email.executor.core-size:8}") int coreSize,
+            @Value("${ecommerce.email.executor.max-size:8}") int maxSize,
+            @Value("${ecommerce.email.executor.queue-capacity:100}") int queueCapacity,
+            @Value("${ecommerce.email.executor.keep-alive:60s}") Duration keepAlive,
+            @Value("${ecommerce.email.executor.await-termination:30s}") Duration awaitTermination,
+            @Value("${ecommerce.email.executor.virtual-threads:false}") boolean virtualThreads
+    ) {
+        ThreadFactory virtualThreadFactory = virtualThreads ? virtualThreadFactory() : null;
+
+        if (virtualThreadFactory != null) {
+            return new VirtualThreadEmailExecutor(virtualThreadFactory, maxSize, awaitTermination);
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds((int) keepAlive.toSeconds());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("email-");
+        executor.setRejectedExecutionHandler(EmailExecutorRejectionHandler.INSTANCE);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(awaitTermination.toMillis());
+
+        return executor;
+    }
+
+    /*
+    Declaring emailExecutor makes Spring Boot back off from its default executor, which
+    also serves MVC async requests such as the product export. Keep it under its usual names.
+     */
+    @Lazy
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+    })
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // caller runs, but unlike CallerRunsPolicy a task submitted after shutdown fails instead of being dropped
+    private enum EmailExecutorRejectionHandler implements RejectedExecutionHandler {
+        INSTANCE;
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Email executor is shut down");
+            }
+            task.run();
+        }
+    }
+
+    /*
+    Thread.ofVirtual() only exists from Java 21 on, older runtimes get null and keep the
+    platform pool.
+     */
+    static ThreadFactory virtualThreadFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = ofVirtual.invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "email-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
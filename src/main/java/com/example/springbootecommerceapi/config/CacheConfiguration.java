@@ -0,0 +1,55 @@
+package com.example.springbootecommerceapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    public static final String PRODUCTS = "products";
+    public static final String USER_DETAILS = "userDetails";
+    public static final String IDEMPOTENCY_KEYS = "idempotencyKeys";
+
+    /*
+    Evictions are deferred until the surrounding transaction commits, so a reader
+    cannot put the pre-commit row back into the cache. The time to live bounds how
+    stale a cached product (and its stock) can get.
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${ecommerce.cache.products.maximum-size:10000}") long productsMaximumSize,
+            @Value("${ecommerce.cache.products.time-to-live:30s}") Duration productsTimeToLive,
+            @Value("${ecommerce.cache.user-details.maximum-size:10000}") long userDetailsMaximumSize,
+            @Value("${ecommerce.cache.user-details.time-to-live:5m}") Duration userDetailsTimeToLive,
+            @Value("${ecommerce.cache.idempotency-keys.maximum-size:10000}") long idempotencyKeysMaximumSize,
+            @Value("${ecommerce.cache.idempotency-keys.time-to-live:10m}") Duration idempotencyKeysTimeToLive
+    ) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.newBuilder()
+                .maximumSize(productsMaximumSize)
+                .expireAfterWrite(productsTimeToLive)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USER_DETAILS, Caffeine.newBuilder()
+                .maximumSize(userDetailsMaximumSize)
+                .expireAfterWrite(userDetailsTimeToLive)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(IDEMPOTENCY_KEYS, Caffeine.newBuilder()
+                .maximumSize(idempotencyKeysMaximumSize)
+                .expireAfterWrite(idempotencyKeysTimeToLive)
+                .recordStats()
+                .build());
+
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.springbootecommerceapi.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class HibernateCacheConfiguration {
+
+    public static final String PRODUCT_REGION = "product";
+    public static final String USER_REGION = "user";
+    public static final String PRODUCT_QUERY_REGION = "productQueries";
+    public static final String USER_QUERY_REGION = "userQueries";
+
+    /*
+    Second level cache regions, each with its own size and time to live. Every region is created
+    here and Hibernate refuses to start on a region that is missing, so a typo in a region name
+    cannot silently fall back to an unbounded cache. The update timestamps region never expires,
+    Hibernate uses it to tell whether a cached query result is still valid.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${ecommerce.cache.regions.product.maximum-size:10000}") long productMaximumSize,
+            @Value("${ecommerce.cache.regions.product.time-to-live:10m}") Duration productTimeToLive,
+            @Value("${ecommerce.cache.regions.user.maximum-size:10000}") long userMaximumSize,
+            @Value("${ecommerce.cache.regions.user.time-to-live:10m}") Duration userTimeToLive,
+            @Value("${ecommerce.cache.regions.product-queries.maximum-size:10000}") long productQueriesMaximumSize,
+            @Value("${ecommerce.cache.regions.product-queries.time-to-live:5m}") Duration productQueriesTimeToLive,
+            @Value("${ecommerce.cache.regions.user-queries.maximum-size:10000}") long userQueriesMaximumSize,
+            @Value("${ecommerce.cache.regions.user-queries.time-to-live:5m}") Duration userQueriesTimeToLive
+    ) {
+        // a manager of its own, the provider default is shared by every application context in the jvm
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("ecommerce-hibernate-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+
+        cacheManager.createCache(PRODUCT_REGION, region(productMaximumSize, productTimeToLive));
+        cacheManager.createCache(USER_REGION, region(userMaximumSize, userTimeToLive));
+        cacheManager.createCache(PRODUCT_QUERY_REGION, region(productQueriesMaximumSize, productQueriesTimeToLive));
+        cacheManager.createCache(USER_QUERY_REGION, region(userQueriesMaximumSize, userQueriesTimeToLive));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(productQueriesMaximumSize, productQueriesTimeToLive));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, Duration timeToLive) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(
+                new javax.cache.expiry.Duration(TimeUnit.MILLISECONDS, timeToLive.toMillis())));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
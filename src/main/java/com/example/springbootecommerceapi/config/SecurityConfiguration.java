@@ -7,41 +7,55 @@ import com.example.springbootecommerceapi.model.Role;
 import com.example.springbootecommerceapi.model.UserBuilder;
 import com.example.springbootecommerceapi.repository.ProductRepository;
 import com.example.springbootecommerceapi.repository.UserRepository;
-import com.example.springbootecommerceapi.service.JpaUserDetailsService;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
 import java.util.List;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfiguration {
 
-
-    private final JpaUserDetailsService jpaUserDetailsService;
-
-    @Autowired
-    public SecurityConfiguration(JpaUserDetailsService jpaUserDetailsService) {
-        this.jpaUserDetailsService = jpaUserDetailsService;
-    }
+    // HS256 needs a key at least as long as its hash
+    private static final int MIN_TOKEN_KEY_BYTES = 32;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, Environment environment) throws Exception {
+        // on its own port actuator is out of reach of the reverse proxy, the scraper needs no token there
+        String scrapeAccess = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT
+                ? "permitAll"
+                : "hasRole('ADMIN')";
+
+        // stateless, every request carries a signed access token, so no session or csrf token is needed
         http
-                .csrf().csrfTokenRepository(new CookieCsrfTokenRepository())
-                .ignoringAntMatchers("/h2-console/**")
+                .csrf().disable()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
                 .authorizeRequests()
                 .antMatchers("/api/ecommerce/v1/authentication/**", "/h2-console/**").permitAll()
+                .antMatchers("/api/ecommerce/v1/products/export").hasAnyRole("EMPLOYEE", "ADMIN")
                 .antMatchers(HttpMethod.GET, "/api/ecommerce/v1/products/**").permitAll()
                 .antMatchers("/api/ecommerce/v1/products/**").hasAnyRole("EMPLOYEE", "ADMIN")
 //                .antMatchers(HttpMethod.POST, "/api/ecommerce/v1/products").hasAnyRole("EMPLOYEE", "ADMIN")
@@ -51,16 +65,39 @@ public class SecurityConfiguration {
                 .antMatchers("/api/ecommerce/v1/orders/**").hasRole("CUSTOMER")
                 .antMatchers("/api/ecommerce/v1/employees/**").hasAnyRole("EMPLOYEE", "ADMIN")
                 .antMatchers("/api/ecommerce/v1/admins/**").hasAnyRole("ADMIN")
+                .antMatchers("/actuator/health").permitAll()
+                .antMatchers("/actuator/prometheus").access(scrapeAccess)
+                .antMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
                 .and()
-                .userDetailsService(jpaUserDetailsService)
                 .headers().frameOptions().sameOrigin()
                 .and()
-                .formLogin();
+                .oauth2ResourceServer()
+                .jwt()
+                .jwtAuthenticationConverter(new TokenAuthenticationConverter());
 
         return http.build();
     }
 
+    @Bean
+    public JwtEncoder jwtEncoder(@Value("${ecommerce.security.token.secret}") String secret) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(tokenKey(secret)));
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(@Value("${ecommerce.security.token.secret}") String secret) {
+        return NimbusJwtDecoder.withSecretKey(tokenKey(secret))
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManager(
+            AuthenticationConfiguration authenticationConfiguration
+    ) throws Exception {
+        return authenticationConfiguration.getAuthenticationManager();
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -136,4 +173,21 @@ public class SecurityConfiguration {
         };
     }
 
+    // a shorter key makes every token forgeable by brute force, the application refuses to start with one
+    private SecretKey tokenKey(String secret) {
+        byte[] key;
+
+        try {
+            key = Base64.getDecoder().decode(secret);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("ecommerce.security.token.secret is not base64 encoded", e);
+        }
+
+        if (key.length < MIN_TOKEN_KEY_BYTES) {
+            throw new IllegalStateException("ecommerce.security.token.secret must be at least 256 bits long");
+        }
+
+        return new SecretKeySpec(key, "HmacSHA256");
+    }
+
 }
@@ -0,0 +1,102 @@
+package com.example.springbootecommerceapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+Times every public service method into ecommerce.service.invocations, tagged with service,
+method, outcome and exception. Timers are looked up once per method and exception type, so
+a call only costs two clock reads, a map lookup and the histogram update.
+ */
+public class ServiceMetricsInterceptor implements MethodInterceptor {
+
+    public static final String METRIC = "ecommerce.service.invocations";
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final Map<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+    // resolved on first call, the interceptor is created before the registry is configured
+    private volatile MeterRegistry meterRegistry;
+
+    public ServiceMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+
+        try {
+            Object result = invocation.proceed();
+            timers(invocation).success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timers(invocation).failure(e).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private MethodTimers timers(MethodInvocation invocation) {
+        MethodTimers methodTimers = timers.get(invocation.getMethod());
+
+        if (methodTimers == null) {
+            Class<?> targetClass = invocation.getThis() == null
+                    ? invocation.getMethod().getDeclaringClass()
+                    : AopUtils.getTargetClass(invocation.getThis());
+            methodTimers = timers.computeIfAbsent(invocation.getMethod(), method ->
+                    new MethodTimers(registry(), targetClass.getSimpleName(), method.getName()));
+        }
+
+        return methodTimers;
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry registry = meterRegistry;
+
+        if (registry == null) {
+            registry = meterRegistryProvider.getObject();
+            meterRegistry = registry;
+        }
+
+        return registry;
+    }
+
+    private static final class MethodTimers {
+
+        private final MeterRegistry meterRegistry;
+        private final String service;
+        private final String method;
+        private final Timer success;
+        private final Map<Class<?>, Timer> failures = new ConcurrentHashMap<>();
+
+        private MethodTimers(MeterRegistry meterRegistry, String service, String method) {
+            this.meterRegistry = meterRegistry;
+            this.service = service;
+            this.method = method;
+            this.success = timer("success", "none");
+        }
+
+        private Timer failure(Throwable exception) {
+            return failures.computeIfAbsent(exception.getClass(), type -> timer("error", type.getSimpleName()));
+        }
+
+        private Timer timer(String outcome, String exception) {
+            return Timer.builder(METRIC)
+                    .description("Service method invocations")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.springbootecommerceapi.config;
+
+import com.example.springbootecommerceapi.service.TokenService;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import java.util.List;
+
+/*
+Builds the principal from the claims of an already verified access token, no user lookup.
+The principal is a UserDetails so controllers keep reading the email through "username".
+ */
+public class TokenAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        if (!TokenService.ACCESS.equals(jwt.getClaimAsString(TokenService.TOKEN_USE))) {
+            throw new InvalidBearerTokenException("Not an access token");
+        }
+
+        List<String> roles = jwt.getClaimAsStringList(TokenService.ROLES);
+        List<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .toList();
+
+        UserDetails principal = User.withUsername(jwt.getSubject())
+                .password("")
+                .authorities(authorities)
+                .build();
+
+        return new UsernamePasswordAuthenticationToken(principal, jwt, authorities);
+    }
+}
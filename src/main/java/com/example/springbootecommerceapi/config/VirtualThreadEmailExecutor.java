@@ -0,0 +1,66 @@
+package com.example.springbootecommerceapi.config;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/*
+Starts a new thread per task, meant for virtual threads, with at most maxConcurrent tasks
+running. Like the platform pool, a task submitted while all permits are taken runs on the
+submitting thread, and running tasks are waited for on shutdown.
+ */
+class VirtualThreadEmailExecutor implements Executor, DisposableBean {
+
+    private final ThreadFactory threadFactory;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final Duration awaitTermination;
+    private volatile boolean shutdown;
+
+    VirtualThreadEmailExecutor(ThreadFactory threadFactory, int maxConcurrent, Duration awaitTermination) {
+        this.threadFactory = threadFactory;
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.awaitTermination = awaitTermination;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Email executor is shut down");
+        }
+
+        if (!permits.tryAcquire()) {
+            task.run();
+            return;
+        }
+
+        try {
+            threadFactory.newThread(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            }).start();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        shutdown = true;
+
+        // every permit back means no task is running anymore
+        if (permits.tryAcquire(maxConcurrent, awaitTermination.toMillis(), TimeUnit.MILLISECONDS)) {
+            permits.release(maxConcurrent);
+        }
+    }
+}
@@ -5,7 +5,11 @@ import com.example.springbootecommerceapi.entity.UserEntity;
 import com.example.springbootecommerceapi.model.ForgottenPassword;
 import com.example.springbootecommerceapi.model.KnownPassword;
 import com.example.springbootecommerceapi.model.EmailDTO;
+import com.example.springbootecommerceapi.model.LoginRequest;
+import com.example.springbootecommerceapi.model.RefreshTokenRequest;
+import com.example.springbootecommerceapi.model.TokenResponse;
 import com.example.springbootecommerceapi.service.AuthenticationService;
+import com.example.springbootecommerceapi.service.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,10 +25,22 @@ import javax.validation.Valid;
 public class AuthenticationController {
 
     private final AuthenticationService authenticationService;
+    private final TokenService tokenService;
 
     @Autowired
-    public AuthenticationController(AuthenticationService authenticationService) {
+    public AuthenticationController(AuthenticationService authenticationService, TokenService tokenService) {
         this.authenticationService = authenticationService;
+        this.tokenService = tokenService;
+    }
+
+    @PostMapping("/login")
+    public ResponseEntity<TokenResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
+        return ResponseEntity.status(HttpStatus.OK).body(tokenService.login(loginRequest));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponse> refresh(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return ResponseEntity.status(HttpStatus.OK).body(tokenService.refresh(refreshTokenRequest.getRefreshToken()));
     }
 
     @PostMapping("/register-customer")
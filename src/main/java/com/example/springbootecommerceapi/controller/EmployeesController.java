@@ -1,13 +1,20 @@
 package com.example.springbootecommerceapi.controller;
 
+import com.example.springbootecommerceapi.model.OrderTransitionDTO;
 import com.example.springbootecommerceapi.service.EmployeesService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequestMapping("api/ecommerce/v1/employees")
@@ -36,4 +43,28 @@ public class EmployeesController {
         employeesService.deliverOrder(orderNumber);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
+
+    @PatchMapping(value = "/ship-orders", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<OrderTransitionDTO>> shipOrders(
+            @RequestBody @NotEmpty List<@NotNull @Positive Long> orderNumbers
+    ) {
+        return ResponseEntity.ok(employeesService.shipOrders(orderNumbers));
+    }
+
+    @PatchMapping(value = "/ship-orders", consumes = "text/csv")
+    public ResponseEntity<List<OrderTransitionDTO>> shipOrders(InputStream orderNumbers) throws IOException {
+        return ResponseEntity.ok(employeesService.shipOrders(orderNumbers));
+    }
+
+    @PatchMapping(value = "/deliver-orders", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<OrderTransitionDTO>> deliverOrders(
+            @RequestBody @NotEmpty List<@NotNull @Positive Long> orderNumbers
+    ) {
+        return ResponseEntity.ok(employeesService.deliverOrders(orderNumbers));
+    }
+
+    @PatchMapping(value = "/deliver-orders", consumes = "text/csv")
+    public ResponseEntity<List<OrderTransitionDTO>> deliverOrders(InputStream orderNumbers) throws IOException {
+        return ResponseEntity.ok(employeesService.deliverOrders(orderNumbers));
+    }
 }
@@ -1,10 +1,14 @@
 package com.example.springbootecommerceapi.controller;
 
-import com.example.springbootecommerceapi.entity.OrderEntity;
-import com.example.springbootecommerceapi.entity.OrderItemEntity;
+import com.example.springbootecommerceapi.model.OrderCreatedDTO;
 import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.model.OrderDetailsDTO;
+import com.example.springbootecommerceapi.model.OrderPage;
+import com.example.springbootecommerceapi.model.OrderStatus;
+import com.example.springbootecommerceapi.service.OrderIdempotencyService;
 import com.example.springbootecommerceapi.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -13,6 +17,8 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,36 +27,44 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIdempotencyService orderIdempotencyService;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderIdempotencyService orderIdempotencyService) {
         this.orderService = orderService;
+        this.orderIdempotencyService = orderIdempotencyService;
     }
 
     @PostMapping("")
-    public ResponseEntity<Void> createOrder(
+    public ResponseEntity<OrderCreatedDTO> createOrder(
             @Valid @RequestBody List<OrderDTO> orderItems,
-            @AuthenticationPrincipal(expression = "username") String userEmail
+            @AuthenticationPrincipal(expression = "username") String userEmail,
+            @Size(min = 1, max = 255) @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey
     ) {
-        orderService.createOrder(orderItems, userEmail);
-        return ResponseEntity.status(HttpStatus.CREATED).build();
+        OrderCreatedDTO order = orderIdempotencyService.createOrder(orderItems, userEmail, idempotencyKey);
+        return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
 
     @GetMapping("")
-    public ResponseEntity<List<OrderEntity>> getAllOrders(
-            @AuthenticationPrincipal(expression = "username") String userEmail
+    public ResponseEntity<OrderPage> getAllOrders(
+            @AuthenticationPrincipal(expression = "username") String userEmail,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @Positive @RequestParam(required = false) Integer size
     ) {
-        List<OrderEntity> orders = orderService.getAllOrdersFromCustomer(userEmail);
+        OrderPage orders = orderService.getCustomerOrders(userEmail, status, from, to, cursor, size);
         return ResponseEntity.ok(orders);
     }
 
     @GetMapping("/{orderNumber}")
-    public ResponseEntity<List<OrderItemEntity>> getOrderItems(
+    public ResponseEntity<OrderDetailsDTO> getOrderItems(
             @Positive @PathVariable long orderNumber,
             @AuthenticationPrincipal(expression = "username") String userEmail
     ) {
-        List<OrderItemEntity> orderItemEntities = orderService.getOrderItems(orderNumber, userEmail);
-        return ResponseEntity.ok(orderItemEntities);
+        OrderDetailsDTO orderDetails = orderService.getOrderDetails(orderNumber, userEmail);
+        return ResponseEntity.ok(orderDetails);
     }
 
     @PatchMapping("/{orderNumber}/cancel")
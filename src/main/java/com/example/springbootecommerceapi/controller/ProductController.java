@@ -1,16 +1,34 @@
 package com.example.springbootecommerceapi.controller;
 
 import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.ProductFilter;
+import com.example.springbootecommerceapi.model.ProductImportReport;
+import com.example.springbootecommerceapi.model.ProductPage;
+import com.example.springbootecommerceapi.model.ProductPatch;
+import com.example.springbootecommerceapi.model.ProductPatchReport;
+import com.example.springbootecommerceapi.model.ProductSearchHit;
+import com.example.springbootecommerceapi.model.ProductSort;
+import com.example.springbootecommerceapi.model.ProductSuggestion;
 import com.example.springbootecommerceapi.model.UpdateProduct;
+import com.example.springbootecommerceapi.service.ProductImportService;
 import com.example.springbootecommerceapi.service.ProductService;
+import com.example.springbootecommerceapi.service.ProductSuggestionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -19,18 +37,72 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSuggestionService productSuggestionService;
+    private final ProductImportService productImportService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(
+            ProductService productService,
+            ProductSuggestionService productSuggestionService,
+            ProductImportService productImportService
+    ) {
         this.productService = productService;
+        this.productSuggestionService = productSuggestionService;
+        this.productImportService = productImportService;
     }
 
     @GetMapping("")
-    public ResponseEntity<List<ProductEntity>> getAllProducts() {
-        List<ProductEntity> products = productService.getAllProducts();
+    public ResponseEntity<ProductPage> getAllProducts(
+            @PositiveOrZero @RequestParam(required = false) Float minPrice,
+            @PositiveOrZero @RequestParam(required = false) Float maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @Size(min = 1, max = 255) @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) ProductSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @Positive @RequestParam(required = false) Integer size
+    ) {
+        ProductFilter filter = new ProductFilter(minPrice, maxPrice, inStock, namePrefix);
+        ProductPage products = productService.getProducts(filter, sort, direction, cursor, size);
         return ResponseEntity.status(200).body(products);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchHit>> searchProducts(
+            @NotBlank @Size(max = 256) @RequestParam String q,
+            @Positive @RequestParam(required = false) Integer size
+    ) {
+        List<ProductSearchHit> hits = productService.searchProducts(q, size);
+        return ResponseEntity.status(HttpStatus.OK).body(hits);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @NotBlank @Size(max = 256) @RequestParam String prefix,
+            @Positive @RequestParam(required = false) Integer size
+    ) {
+        List<ProductSuggestion> suggestions = productSuggestionService.suggestProducts(prefix, size);
+        return ResponseEntity.status(HttpStatus.OK).body(suggestions);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productService::exportProducts;
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportReport> importProducts(InputStream products) throws IOException {
+        return ResponseEntity.ok(productImportService.importCsv(products));
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ProductImportReport> importProductsNdjson(InputStream products) throws IOException {
+        return ResponseEntity.ok(productImportService.importNdjson(products));
+    }
+
     @GetMapping("/{productNumber}")
     public ResponseEntity<ProductEntity> getProduct(@Positive @PathVariable long productNumber) {
         ProductEntity product = productService.getProduct(productNumber);
@@ -49,6 +121,11 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    @PatchMapping("")
+    public ResponseEntity<ProductPatchReport> updateProducts(@RequestBody List<@Valid ProductPatch> patches) {
+        return ResponseEntity.ok(productService.updateProducts(patches));
+    }
+
     @PatchMapping("/{productNumber}")
     public ResponseEntity<Void> updateProduct(@Valid @RequestBody UpdateProduct updateProduct,
                                               @PathVariable long productNumber) {
@@ -19,7 +19,7 @@ public class ActivationTokenEntity {
     @SequenceGenerator(
             name = "activationTokenSequence",
             sequenceName = "activationTokenSequence",
-            allocationSize = 1
+            allocationSize = 20
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -0,0 +1,216 @@
+package com.example.springbootecommerceapi.entity;
+
+import com.example.springbootecommerceapi.model.EmailStatus;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(
+        name = "emailOutbox",
+        indexes = @Index(
+                name = "emailOutboxStatusNextAttemptIndex",
+                columnList = "status, nextAttemptAt"
+        )
+)
+public class EmailOutboxEntity {
+
+    public static final int LAST_ERROR_LENGTH = 1000;
+
+    @Id
+    @Column(
+            name = "outboxNumber"
+    )
+    @SequenceGenerator(
+            name = "emailOutboxSequence",
+            sequenceName = "emailOutboxSequence",
+            allocationSize = 50
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "emailOutboxSequence"
+    )
+    private Long outboxNumber;
+    @Column(
+            nullable = false
+    )
+    private String recipient;
+    @Column(
+            nullable = false
+    )
+    private String sender;
+    @Column(
+            nullable = false
+    )
+    private String subject;
+    @Column(
+            nullable = false
+    )
+    private String template;
+    // template model as json
+    @Column(
+            nullable = false,
+            length = 4000
+    )
+    private String model;
+    @Column(
+            nullable = false
+    )
+    @Enumerated(
+            EnumType.STRING
+    )
+    private EmailStatus status;
+    @Column(
+            nullable = false
+    )
+    private int attempts;
+    @Column(
+            name = "nextAttemptAt",
+            nullable = false
+    )
+    private LocalDateTime nextAttemptAt;
+    @Column(
+            nullable = false
+    )
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+    @Column(
+            length = LAST_ERROR_LENGTH
+    )
+    private String lastError;
+
+    public EmailOutboxEntity() {
+    }
+
+    public EmailOutboxEntity(String recipient, String sender, String subject, String template, String model) {
+        this.recipient = recipient;
+        this.sender = sender;
+        this.subject = subject;
+        this.template = template;
+        this.model = model;
+        this.status = EmailStatus.PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = createdAt;
+    }
+
+    public Long getOutboxNumber() {
+        return outboxNumber;
+    }
+
+    public void setOutboxNumber(Long outboxNumber) {
+        this.outboxNumber = outboxNumber;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public void setSender(String sender) {
+        this.sender = sender;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public EmailStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EmailStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EmailOutboxEntity that = (EmailOutboxEntity) o;
+        return Objects.equals(outboxNumber, that.outboxNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(outboxNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "EmailOutboxEntity{" +
+                "outboxNumber=" + outboxNumber +
+                ", recipient='" + recipient + '\'' +
+                ", template='" + template + '\'' +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
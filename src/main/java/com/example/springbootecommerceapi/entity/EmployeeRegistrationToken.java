@@ -14,7 +14,7 @@ public class EmployeeRegistrationToken {
     @SequenceGenerator(
             name = "employeeRegistrationTokenSequence",
             sequenceName = "employeeRegistrationTokenSequence",
-            allocationSize = 1
+            allocationSize = 20
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -0,0 +1,158 @@
+package com.example.springbootecommerceapi.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(
+        name = "idempotencyKey",
+        uniqueConstraints = @UniqueConstraint(
+                name = IdempotencyKeyEntity.CUSTOMER_KEY_UNIQUE,
+                columnNames = {"customerEmail", "idempotencyKey"}
+        ),
+        indexes = @Index(
+                name = "idempotencyKeyExpiresAtIndex",
+                columnList = "expiresAt"
+        )
+)
+public class IdempotencyKeyEntity {
+
+    public static final String CUSTOMER_KEY_UNIQUE = "idempotencyKeyCustomerKeyUnique";
+
+    @Id
+    @Column(
+            name = "keyNumber"
+    )
+    @SequenceGenerator(
+            name = "idempotencyKeySequence",
+            sequenceName = "idempotencyKeySequence",
+            allocationSize = 50
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "idempotencyKeySequence"
+    )
+    private Long keyNumber;
+    @Column(
+            name = "customerEmail",
+            nullable = false
+    )
+    private String customerEmail;
+    @Column(
+            name = "idempotencyKey",
+            nullable = false
+    )
+    private String idempotencyKey;
+    // sha-256 of the order lines, a key cannot be reused for a different order
+    @Column(
+            nullable = false,
+            length = 64
+    )
+    private String requestHash;
+    private Long orderNumber;
+    @Column(
+            nullable = false
+    )
+    private LocalDateTime createdAt;
+    @Column(
+            name = "expiresAt",
+            nullable = false
+    )
+    private LocalDateTime expiresAt;
+
+    public IdempotencyKeyEntity() {
+    }
+
+    public IdempotencyKeyEntity(String customerEmail, String idempotencyKey, String requestHash, LocalDateTime expiresAt) {
+        this.customerEmail = customerEmail;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    public Long getKeyNumber() {
+        return keyNumber;
+    }
+
+    public void setKeyNumber(Long keyNumber) {
+        this.keyNumber = keyNumber;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public Long getOrderNumber() {
+        return orderNumber;
+    }
+
+    public void setOrderNumber(Long orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IdempotencyKeyEntity that = (IdempotencyKeyEntity) o;
+        return Objects.equals(keyNumber, that.keyNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keyNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyKeyEntity{" +
+                "keyNumber=" + keyNumber +
+                ", customerEmail='" + customerEmail + '\'' +
+                ", idempotencyKey='" + idempotencyKey + '\'' +
+                ", orderNumber=" + orderNumber +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -2,6 +2,7 @@ package com.example.springbootecommerceapi.entity;
 
 import com.example.springbootecommerceapi.model.OrderStatus;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -10,7 +11,11 @@ import java.util.Objects;
 
 @Entity
 @Table(
-        name = "orderEntity"
+        name = "orderEntity",
+        indexes = @Index(
+                name = "orderCustomerDatePlacedIndex",
+                columnList = "UserNumber, datePlaced"
+        )
 )
 public class OrderEntity {
 
@@ -21,7 +26,7 @@ public class OrderEntity {
     @SequenceGenerator(
             name = "orderSequence",
             sequenceName = "orderSequence",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -59,6 +64,13 @@ public class OrderEntity {
             EnumType.STRING
     )
     private OrderStatus status;
+    // bumped by every write, including the conditional status updates in OrderRepository
+    @Version
+    @Column(
+            nullable = false
+    )
+    @JsonIgnore
+    private long version;
 
     public OrderEntity() {
     }
@@ -117,6 +129,14 @@ public class OrderEntity {
         this.status = status;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
 
     @Override
     public boolean equals(Object o) {
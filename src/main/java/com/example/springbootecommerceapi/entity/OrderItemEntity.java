@@ -1,20 +1,24 @@
 package com.example.springbootecommerceapi.entity;
 
-import javax.persistence.EmbeddedId;
-import javax.persistence.Entity;
-import javax.persistence.Table;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
 import java.util.Objects;
 
 @Entity
 @Table(
         name = "orderItem"
 )
-public class OrderItemEntity {
+public class OrderItemEntity implements Persistable<OrderItemPK> {
 
     @EmbeddedId
     private OrderItemPK orderItemPK;
     private double priceEach;
     private  int quantity;
+    // items always carry their key, lets saveAll persist instead of merging (select per item)
+    @Transient
+    private boolean newItem = true;
 
     public OrderItemEntity() {
     }
@@ -52,6 +56,24 @@ public class OrderItemEntity {
         return this;
     }
 
+    @JsonIgnore
+    @Override
+    public OrderItemPK getId() {
+        return orderItemPK;
+    }
+
+    @JsonIgnore
+    @Override
+    public boolean isNew() {
+        return newItem;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newItem = false;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -18,7 +18,7 @@ public class PasswordTokenEntity {
     @SequenceGenerator(
             name = "passwordTokenSequence",
             sequenceName = "passwordTokenSequence",
-            allocationSize = 1
+            allocationSize = 20
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
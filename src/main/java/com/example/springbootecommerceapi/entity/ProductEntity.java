@@ -1,13 +1,39 @@
 package com.example.springbootecommerceapi.entity;
 
+import com.example.springbootecommerceapi.config.HibernateCacheConfiguration;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.Locale;
 import java.util.Objects;
 
 @Entity
+@Cache(
+        usage = CacheConcurrencyStrategy.READ_WRITE,
+        region = HibernateCacheConfiguration.PRODUCT_REGION
+)
 @Table(
-        name = "product"
+        name = "product",
+        // product number last so keyset pages can seek on ties of the leading column
+        indexes = {
+                @Index(
+                        name = "productPriceIndex",
+                        columnList = "productPrice, productNumber"
+                ),
+                @Index(
+                        name = "productStockIndex",
+                        columnList = "productStock, productNumber"
+                ),
+                @Index(
+                        name = "productNameKeyIndex",
+                        columnList = "productNameKey, productNumber"
+                )
+        }
 )
 public class ProductEntity {
 
@@ -18,7 +44,7 @@ public class ProductEntity {
     @SequenceGenerator(
             name = "productSequence",
             sequenceName = "productSequence",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -31,7 +57,14 @@ public class ProductEntity {
             unique = true
     )
     @NotBlank
+    @Size(max = 255)
     private String productName;
+    // lower case copy of the name, prefix filters and name ordering are case insensitive through it
+    @Column(
+            name = "productNameKey"
+    )
+    @JsonIgnore
+    private String productNameKey;
     @Column(
             name = "productStock"
     )
@@ -40,6 +73,7 @@ public class ProductEntity {
     @Column(
             name = "productDescription"
     )
+    @Size(max = 255)
     private String productDescription;
     @Column(
             name = "productPrice",
@@ -53,6 +87,7 @@ public class ProductEntity {
 
     public ProductEntity(String productName, int productStock, String productDescription, float productPrice) {
         this.productName = productName;
+        this.productNameKey = nameKey(productName);
         this.productStock = productStock;
         this.productDescription = productDescription;
         this.productPrice = productPrice;
@@ -61,6 +96,7 @@ public class ProductEntity {
     public ProductEntity(Long productNumber, String productName, int productStock, String productDescription, float productPrice) {
         this.productNumber = productNumber;
         this.productName = productName;
+        this.productNameKey = nameKey(productName);
         this.productStock = productStock;
         this.productDescription = productDescription;
         this.productPrice = productPrice;
@@ -80,6 +116,16 @@ public class ProductEntity {
 
     public void setProductName(String productName) {
         this.productName = productName;
+        this.productNameKey = nameKey(productName);
+    }
+
+    @JsonIgnore
+    public String getProductNameKey() {
+        return productNameKey;
+    }
+
+    public static String nameKey(String productName) {
+        return productName == null ? null : productName.toLowerCase(Locale.ROOT);
     }
 
     public int getProductStock() {
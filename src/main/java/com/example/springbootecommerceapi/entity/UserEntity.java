@@ -1,10 +1,14 @@
 package com.example.springbootecommerceapi.entity;
 
+import com.example.springbootecommerceapi.config.HibernateCacheConfiguration;
 import com.example.springbootecommerceapi.model.Gender;
 
 import com.example.springbootecommerceapi.model.Role;
 import com.example.springbootecommerceapi.validation.Phone;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -13,6 +17,10 @@ import javax.validation.constraints.Size;
 import java.util.Objects;
 
 @Entity
+@Cache(
+        usage = CacheConcurrencyStrategy.READ_WRITE,
+        region = HibernateCacheConfiguration.USER_REGION
+)
 @Table(
         name = "userEntity"
 )
@@ -24,7 +32,7 @@ public class UserEntity {
     @SequenceGenerator(
             name = "userSequence",
             sequenceName = "userSequence",
-            allocationSize = 1
+            allocationSize = 20
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -3,24 +3,21 @@ package com.example.springbootecommerceapi.event.listener;
 import com.example.springbootecommerceapi.entity.UserEntity;
 import com.example.springbootecommerceapi.event.ChangePasswordEvent;
 import com.example.springbootecommerceapi.model.Email;
-import com.example.springbootecommerceapi.service.EmailSenderService;
-import com.example.springbootecommerceapi.service.HtmlEmailSenderService;
+import com.example.springbootecommerceapi.service.EmailOutboxService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ChangePasswordEventListener implements ApplicationListener<ChangePasswordEvent> {
 
-    private final EmailSenderService emailSenderService;
+    private final EmailOutboxService emailOutboxService;
 
     @Autowired
-    public ChangePasswordEventListener(HtmlEmailSenderService emailSenderService) {
-        this.emailSenderService = emailSenderService;
+    public ChangePasswordEventListener(EmailOutboxService emailOutboxService) {
+        this.emailOutboxService = emailOutboxService;
     }
 
-    @Async
     @Override
     public void onApplicationEvent(ChangePasswordEvent event) {
         UserEntity user = event.getUser();
@@ -30,7 +27,7 @@ public class ChangePasswordEventListener implements ApplicationListener<ChangePa
         email.getModel().put("passwordResetUrl", url);
         email.getModel().put("firstName",user.getFirstName());
         email.getModel().put("lastName", user.getLastName());
-        emailSenderService.sendEmail(email, "password-reset-template");
+        emailOutboxService.enqueue(email, "password-reset-template");
 
     }
 }
@@ -3,23 +3,21 @@ package com.example.springbootecommerceapi.event.listener;
 import com.example.springbootecommerceapi.entity.UserEntity;
 import com.example.springbootecommerceapi.event.EmployeeRegistrationTokenEvent;
 import com.example.springbootecommerceapi.model.Email;
-import com.example.springbootecommerceapi.service.EmailSenderService;
+import com.example.springbootecommerceapi.service.EmailOutboxService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 @Component
 public class EmployeeRegistrationTokenEventListener implements ApplicationListener<EmployeeRegistrationTokenEvent> {
-    private final EmailSenderService emailSenderService;
+    private final EmailOutboxService emailOutboxService;
 
     @Autowired
-    public EmployeeRegistrationTokenEventListener(EmailSenderService emailSenderService) {
-        this.emailSenderService = emailSenderService;
+    public EmployeeRegistrationTokenEventListener(EmailOutboxService emailOutboxService) {
+        this.emailOutboxService = emailOutboxService;
     }
 
 
-    @Async
     @Override
     public void onApplicationEvent(EmployeeRegistrationTokenEvent event) {
 
@@ -28,6 +26,6 @@ public class EmployeeRegistrationTokenEventListener implements ApplicationListen
         email.getModel().put("token", event.getToken());
         email.getModel().put("adminFirstName",event.getAdmin().getFirstName());
         email.getModel().put("adminLastName", event.getAdmin().getLastName());
-        emailSenderService.sendEmail(email, "employee-registration-template");
+        emailOutboxService.enqueue(email, "employee-registration-template");
     }
 }
@@ -3,24 +3,21 @@ package com.example.springbootecommerceapi.event.listener;
 import com.example.springbootecommerceapi.entity.UserEntity;
 import com.example.springbootecommerceapi.event.UserRegistrationEvent;
 import com.example.springbootecommerceapi.model.Email;
-import com.example.springbootecommerceapi.service.EmailSenderService;
-import com.example.springbootecommerceapi.service.HtmlEmailSenderService;
+import com.example.springbootecommerceapi.service.EmailOutboxService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 @Component
 public class UserRegistrationEventListener implements ApplicationListener<UserRegistrationEvent> {
 
-    private final EmailSenderService emailSenderService;
+    private final EmailOutboxService emailOutboxService;
 
     @Autowired
-    public UserRegistrationEventListener(HtmlEmailSenderService emailSenderService) {
-        this.emailSenderService = emailSenderService;
+    public UserRegistrationEventListener(EmailOutboxService emailOutboxService) {
+        this.emailOutboxService = emailOutboxService;
     }
 
-    @Async
     @Override
     public void onApplicationEvent(UserRegistrationEvent event) {
         UserEntity user = event.getUser();
@@ -30,6 +27,6 @@ public class UserRegistrationEventListener implements ApplicationListener<UserRe
         email.getModel().put("activationUrl", url);
         email.getModel().put("firstName",user.getFirstName());
         email.getModel().put("lastName", user.getLastName());
-        emailSenderService.sendEmail(email, "activate-account-template");
+        emailOutboxService.enqueue(email, "activate-account-template");
     }
 }
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -87,6 +88,35 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
     }
 
+    @ExceptionHandler(OrderTransitionException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<Object> handleOrderTransitionException(
+            OrderTransitionException exception,
+            WebRequest request
+    ) {
+        return buildErrorResponse(
+                exception,
+                exception.getMessage(),
+                HttpStatus.CONFLICT,
+                request
+        );
+    }
+
+    // a concurrent write bumped the version, the request can be retried against the current state
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(
+            ObjectOptimisticLockingFailureException exception,
+            WebRequest request
+    ) {
+        return buildErrorResponse(
+                exception,
+                "Resource was modified concurrently, reload it and retry",
+                HttpStatus.CONFLICT,
+                request
+        );
+    }
+
     @ExceptionHandler(OrderException.class)
     @ResponseStatus(HttpStatus.ACCEPTED)
     public ResponseEntity<Object> handleOrderException(
@@ -101,6 +131,34 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
     }
 
+    @ExceptionHandler(OrderQuantityException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<Object> handleOrderQuantityException(
+            OrderQuantityException exception,
+            WebRequest request
+    ) {
+        return buildErrorResponse(
+                exception,
+                exception.getMessage(),
+                HttpStatus.BAD_REQUEST,
+                request
+        );
+    }
+
+    @ExceptionHandler(IdempotencyException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<Object> handleIdempotencyException(
+            IdempotencyException exception,
+            WebRequest request
+    ) {
+        return buildErrorResponse(
+                exception,
+                exception.getMessage(),
+                HttpStatus.CONFLICT,
+                request
+        );
+    }
+
     @ExceptionHandler(EmployeeRegistrationTokenException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<Object> handleEmployeeRegistrationTokenException(
@@ -158,6 +216,20 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     }
 
 
+    @ExceptionHandler(TokenException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public ResponseEntity<Object> handleTokenException(
+            TokenException exception,
+            WebRequest request
+    ) {
+        return buildErrorResponse(
+                exception,
+                exception.getMessage(),
+                HttpStatus.UNAUTHORIZED,
+                request
+        );
+    }
+
     @ExceptionHandler(UserException.class)
     @ResponseStatus(HttpStatus.ACCEPTED)
     public ResponseEntity<Object> handleUserException(
@@ -0,0 +1,7 @@
+package com.example.springbootecommerceapi.exception;
+
+public class OrderQuantityException extends RuntimeException{
+    public OrderQuantityException(String message) {
+        super(message);
+    }
+}
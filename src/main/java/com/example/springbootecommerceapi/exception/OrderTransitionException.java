@@ -0,0 +1,17 @@
+package com.example.springbootecommerceapi.exception;
+
+import com.example.springbootecommerceapi.model.OrderStatus;
+
+// the order is not in a status the transition starts from, retrying will not change that
+public class OrderTransitionException extends OrderException{
+    private final OrderStatus currentStatus;
+
+    public OrderTransitionException(String message, OrderStatus currentStatus) {
+        super(message);
+        this.currentStatus = currentStatus;
+    }
+
+    public OrderStatus getCurrentStatus() {
+        return currentStatus;
+    }
+}
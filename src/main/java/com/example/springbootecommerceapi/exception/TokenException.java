@@ -0,0 +1,7 @@
+package com.example.springbootecommerceapi.exception;
+
+public class TokenException extends RuntimeException{
+    public TokenException(String message) {
+        super(message);
+    }
+}
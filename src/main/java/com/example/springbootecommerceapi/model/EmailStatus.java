@@ -0,0 +1,7 @@
+package com.example.springbootecommerceapi.model;
+
+public enum EmailStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
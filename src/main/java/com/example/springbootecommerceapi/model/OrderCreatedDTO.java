@@ -0,0 +1,42 @@
+package com.example.springbootecommerceapi.model;
+
+import java.util.Objects;
+
+public class OrderCreatedDTO {
+    private long orderNumber;
+
+    public OrderCreatedDTO() {
+    }
+
+    public OrderCreatedDTO(long orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    public long getOrderNumber() {
+        return orderNumber;
+    }
+
+    public void setOrderNumber(long orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderCreatedDTO that = (OrderCreatedDTO) o;
+        return orderNumber == that.orderNumber;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderCreatedDTO{" +
+                "orderNumber=" + orderNumber +
+                '}';
+    }
+}
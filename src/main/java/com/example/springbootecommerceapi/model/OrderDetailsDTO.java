@@ -0,0 +1,97 @@
+package com.example.springbootecommerceapi.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class OrderDetailsDTO {
+    private Long orderNumber;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+    private LocalDateTime datePlaced;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+    private LocalDateTime dateShipped;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+    private LocalDateTime dateDelivered;
+    private OrderStatus status;
+    private List<OrderLineDTO> items = new ArrayList<>();
+
+    public OrderDetailsDTO() {
+    }
+
+    public OrderDetailsDTO(Long orderNumber, LocalDateTime datePlaced, LocalDateTime dateShipped,
+                           LocalDateTime dateDelivered, OrderStatus status) {
+        this.orderNumber = orderNumber;
+        this.datePlaced = datePlaced;
+        this.dateShipped = dateShipped;
+        this.dateDelivered = dateDelivered;
+        this.status = status;
+    }
+
+    public Long getOrderNumber() {
+        return orderNumber;
+    }
+
+    public void setOrderNumber(Long orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    public LocalDateTime getDatePlaced() {
+        return datePlaced;
+    }
+
+    public void setDatePlaced(LocalDateTime datePlaced) {
+        this.datePlaced = datePlaced;
+    }
+
+    public LocalDateTime getDateShipped() {
+        return dateShipped;
+    }
+
+    public void setDateShipped(LocalDateTime dateShipped) {
+        this.dateShipped = dateShipped;
+    }
+
+    public LocalDateTime getDateDelivered() {
+        return dateDelivered;
+    }
+
+    public void setDateDelivered(LocalDateTime dateDelivered) {
+        this.dateDelivered = dateDelivered;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public List<OrderLineDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderLineDTO> items) {
+        this.items = items;
+    }
+
+    public double getOrderTotal() {
+        return items.stream().mapToDouble(OrderLineDTO::getLineTotal).sum();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderDetailsDTO that = (OrderDetailsDTO) o;
+        return Objects.equals(orderNumber, that.orderNumber) && Objects.equals(datePlaced, that.datePlaced) && Objects.equals(dateShipped, that.dateShipped) && Objects.equals(dateDelivered, that.dateDelivered) && status == that.status && Objects.equals(items, that.items);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderNumber, datePlaced, dateShipped, dateDelivered, status, items);
+    }
+}
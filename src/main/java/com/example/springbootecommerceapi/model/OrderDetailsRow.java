@@ -0,0 +1,17 @@
+package com.example.springbootecommerceapi.model;
+
+import java.time.LocalDateTime;
+
+// one row per order item, carries the order header so the whole order is read in one query
+public record OrderDetailsRow(
+        Long orderNumber,
+        LocalDateTime datePlaced,
+        LocalDateTime dateShipped,
+        LocalDateTime dateDelivered,
+        OrderStatus status,
+        Long productNumber,
+        String productName,
+        double priceEach,
+        int quantity
+) {
+}
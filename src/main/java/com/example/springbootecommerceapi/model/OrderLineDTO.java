@@ -0,0 +1,69 @@
+package com.example.springbootecommerceapi.model;
+
+import java.util.Objects;
+
+public class OrderLineDTO {
+    private Long productNumber;
+    private String productName;
+    private double priceEach;
+    private int quantity;
+
+    public OrderLineDTO() {
+    }
+
+    public OrderLineDTO(Long productNumber, String productName, double priceEach, int quantity) {
+        this.productNumber = productNumber;
+        this.productName = productName;
+        this.priceEach = priceEach;
+        this.quantity = quantity;
+    }
+
+    public Long getProductNumber() {
+        return productNumber;
+    }
+
+    public void setProductNumber(Long productNumber) {
+        this.productNumber = productNumber;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public double getPriceEach() {
+        return priceEach;
+    }
+
+    public void setPriceEach(double priceEach) {
+        this.priceEach = priceEach;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getLineTotal() {
+        return priceEach * quantity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderLineDTO that = (OrderLineDTO) o;
+        return Double.compare(that.priceEach, priceEach) == 0 && quantity == that.quantity && Objects.equals(productNumber, that.productNumber) && Objects.equals(productName, that.productName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productNumber, productName, priceEach, quantity);
+    }
+}
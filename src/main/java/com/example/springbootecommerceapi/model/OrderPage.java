@@ -0,0 +1,49 @@
+package com.example.springbootecommerceapi.model;
+
+import com.example.springbootecommerceapi.entity.OrderEntity;
+
+import java.util.List;
+import java.util.Objects;
+
+public class OrderPage {
+    private List<OrderEntity> orders;
+    // cursor to request the following page, null when this is the last page
+    private String next;
+
+    public OrderPage() {
+    }
+
+    public OrderPage(List<OrderEntity> orders, String next) {
+        this.orders = orders;
+        this.next = next;
+    }
+
+    public List<OrderEntity> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderEntity> orders) {
+        this.orders = orders;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderPage that = (OrderPage) o;
+        return Objects.equals(orders, that.orders) && Objects.equals(next, that.next);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orders, next);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.springbootecommerceapi.model;
+
+// status of one order, read before a bulk transition
+public record OrderStatusRow(
+        Long orderNumber,
+        OrderStatus status
+) {
+}
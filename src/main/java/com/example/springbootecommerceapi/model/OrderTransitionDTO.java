@@ -0,0 +1,65 @@
+package com.example.springbootecommerceapi.model;
+
+import java.util.Objects;
+
+public class OrderTransitionDTO {
+    private long orderNumber;
+    private TransitionOutcome outcome;
+    // status after the request, null when the order does not exist
+    private OrderStatus status;
+
+    public OrderTransitionDTO() {
+    }
+
+    public OrderTransitionDTO(long orderNumber, TransitionOutcome outcome, OrderStatus status) {
+        this.orderNumber = orderNumber;
+        this.outcome = outcome;
+        this.status = status;
+    }
+
+    public long getOrderNumber() {
+        return orderNumber;
+    }
+
+    public void setOrderNumber(long orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    public TransitionOutcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(TransitionOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderTransitionDTO that = (OrderTransitionDTO) o;
+        return orderNumber == that.orderNumber && outcome == that.outcome && status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderNumber, outcome, status);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderTransitionDTO{" +
+                "orderNumber=" + orderNumber +
+                ", outcome=" + outcome +
+                ", status=" + status +
+                '}';
+    }
+}
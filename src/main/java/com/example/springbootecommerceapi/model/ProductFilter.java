@@ -0,0 +1,76 @@
+package com.example.springbootecommerceapi.model;
+
+import java.util.Objects;
+
+public class ProductFilter {
+    // every criterion is optional, null (or false for inStock) leaves it out of the query
+    private Float minPrice;
+    private Float maxPrice;
+    private boolean inStock;
+    private String namePrefix;
+
+    public ProductFilter() {
+    }
+
+    public ProductFilter(Float minPrice, Float maxPrice, boolean inStock, String namePrefix) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.inStock = inStock;
+        this.namePrefix = namePrefix;
+    }
+
+    public Float getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Float minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Float getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Float maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public boolean isInStock() {
+        return inStock;
+    }
+
+    public void setInStock(boolean inStock) {
+        this.inStock = inStock;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductFilter that = (ProductFilter) o;
+        return inStock == that.inStock && Objects.equals(minPrice, that.minPrice) && Objects.equals(maxPrice, that.maxPrice) && Objects.equals(namePrefix, that.namePrefix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minPrice, maxPrice, inStock, namePrefix);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductFilter{" +
+                "minPrice=" + minPrice +
+                ", maxPrice=" + maxPrice +
+                ", inStock=" + inStock +
+                ", namePrefix='" + namePrefix + '\'' +
+                '}';
+    }
+}
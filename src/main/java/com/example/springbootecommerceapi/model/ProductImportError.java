@@ -0,0 +1,54 @@
+package com.example.springbootecommerceapi.model;
+
+import java.util.Objects;
+
+public class ProductImportError {
+    // line of the input the rejected row starts on, the csv header is line 1
+    private long line;
+    private String message;
+
+    public ProductImportError() {
+    }
+
+    public ProductImportError(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductImportError that = (ProductImportError) o;
+        return line == that.line && Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(line, message);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductImportError{" +
+                "line=" + line +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.springbootecommerceapi.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class ProductImportReport {
+    private int created;
+    private int updated;
+    private int failed;
+    // first rejected rows, failed counts all of them
+    private List<ProductImportError> errors = new ArrayList<>();
+
+    public ProductImportReport() {
+    }
+
+    public ProductImportReport(int created, int updated, int failed, List<ProductImportError> errors) {
+        this.created = created;
+        this.updated = updated;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<ProductImportError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ProductImportError> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductImportReport that = (ProductImportReport) o;
+        return created == that.created && updated == that.updated && failed == that.failed && Objects.equals(errors, that.errors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(created, updated, failed, errors);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductImportReport{" +
+                "created=" + created +
+                ", updated=" + updated +
+                ", failed=" + failed +
+                ", errors=" + errors +
+                '}';
+    }
+}
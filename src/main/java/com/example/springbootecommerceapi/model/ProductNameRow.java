@@ -0,0 +1,8 @@
+package com.example.springbootecommerceapi.model;
+
+// product name without loading the entity, feeds the autocomplete tree
+public record ProductNameRow(
+        Long productNumber,
+        String productName
+) {
+}
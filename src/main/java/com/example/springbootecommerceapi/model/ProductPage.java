@@ -0,0 +1,49 @@
+package com.example.springbootecommerceapi.model;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+
+import java.util.List;
+import java.util.Objects;
+
+public class ProductPage {
+    private List<ProductEntity> products;
+    // cursor to request the following page, null when this is the last page
+    private String next;
+
+    public ProductPage() {
+    }
+
+    public ProductPage(List<ProductEntity> products, String next) {
+        this.products = products;
+        this.next = next;
+    }
+
+    public List<ProductEntity> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductEntity> products) {
+        this.products = products;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductPage that = (ProductPage) o;
+        return Objects.equals(products, that.products) && Objects.equals(next, that.next);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(products, next);
+    }
+}
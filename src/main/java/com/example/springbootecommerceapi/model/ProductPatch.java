@@ -0,0 +1,98 @@
+package com.example.springbootecommerceapi.model;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.Objects;
+
+// fields left null are not changed, stock and stockDelta are exclusive
+public class ProductPatch {
+    @NotNull
+    @Positive
+    private Long productNumber;
+    @PositiveOrZero
+    private Float price;
+    @PositiveOrZero
+    private Integer stock;
+    private Integer stockDelta;
+    @Size(max = 255)
+    private String description;
+
+    public ProductPatch() {
+    }
+
+    public ProductPatch(Long productNumber, Float price, Integer stock, Integer stockDelta, String description) {
+        this.productNumber = productNumber;
+        this.price = price;
+        this.stock = stock;
+        this.stockDelta = stockDelta;
+        this.description = description;
+    }
+
+    public Long getProductNumber() {
+        return productNumber;
+    }
+
+    public void setProductNumber(Long productNumber) {
+        this.productNumber = productNumber;
+    }
+
+    public Float getPrice() {
+        return price;
+    }
+
+    public void setPrice(Float price) {
+        this.price = price;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Integer getStockDelta() {
+        return stockDelta;
+    }
+
+    public void setStockDelta(Integer stockDelta) {
+        this.stockDelta = stockDelta;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductPatch that = (ProductPatch) o;
+        return Objects.equals(productNumber, that.productNumber) && Objects.equals(price, that.price)
+                && Objects.equals(stock, that.stock) && Objects.equals(stockDelta, that.stockDelta)
+                && Objects.equals(description, that.description);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productNumber, price, stock, stockDelta, description);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductPatch{" +
+                "productNumber=" + productNumber +
+                ", price=" + price +
+                ", stock=" + stock +
+                ", stockDelta=" + stockDelta +
+                ", description='" + description + '\'' +
+                '}';
+    }
+}
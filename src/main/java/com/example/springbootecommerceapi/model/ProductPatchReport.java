@@ -0,0 +1,78 @@
+package com.example.springbootecommerceapi.model;
+
+import java.util.Objects;
+
+public class ProductPatchReport {
+    private int applied;
+    private int missing;
+    // patches whose stockDelta would take the stock below zero
+    private int rejected;
+    // patches of chunks that could not be saved, other chunks are applied regardless
+    private int failed;
+
+    public ProductPatchReport() {
+    }
+
+    public ProductPatchReport(int applied, int missing, int rejected, int failed) {
+        this.applied = applied;
+        this.missing = missing;
+        this.rejected = rejected;
+        this.failed = failed;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public void setApplied(int applied) {
+        this.applied = applied;
+    }
+
+    public int getMissing() {
+        return missing;
+    }
+
+    public void setMissing(int missing) {
+        this.missing = missing;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductPatchReport that = (ProductPatchReport) o;
+        return applied == that.applied && missing == that.missing && rejected == that.rejected
+                && failed == that.failed;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(applied, missing, rejected, failed);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductPatchReport{" +
+                "applied=" + applied +
+                ", missing=" + missing +
+                ", rejected=" + rejected +
+                ", failed=" + failed +
+                '}';
+    }
+}
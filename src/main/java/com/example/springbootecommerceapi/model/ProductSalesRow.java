@@ -0,0 +1,8 @@
+package com.example.springbootecommerceapi.model;
+
+// units of one product sold over all orders, ranks autocomplete suggestions
+public record ProductSalesRow(
+        Long productNumber,
+        Long unitsSold
+) {
+}
@@ -0,0 +1,77 @@
+package com.example.springbootecommerceapi.model;
+
+import java.util.Objects;
+
+public class ProductSearchHit {
+    private long productNumber;
+    private String productName;
+    private double productPrice;
+    // relevance of the product to the query, higher is better, only comparable within one response
+    private float score;
+
+    public ProductSearchHit() {
+    }
+
+    public ProductSearchHit(long productNumber, String productName, double productPrice, float score) {
+        this.productNumber = productNumber;
+        this.productName = productName;
+        this.productPrice = productPrice;
+        this.score = score;
+    }
+
+    public long getProductNumber() {
+        return productNumber;
+    }
+
+    public void setProductNumber(long productNumber) {
+        this.productNumber = productNumber;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public double getProductPrice() {
+        return productPrice;
+    }
+
+    public void setProductPrice(double productPrice) {
+        this.productPrice = productPrice;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductSearchHit that = (ProductSearchHit) o;
+        return productNumber == that.productNumber && Double.compare(that.productPrice, productPrice) == 0
+                && Float.compare(that.score, score) == 0 && Objects.equals(productName, that.productName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productNumber, productName, productPrice, score);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSearchHit{" +
+                "productNumber=" + productNumber +
+                ", productName='" + productName + '\'' +
+                ", productPrice=" + productPrice +
+                ", score=" + score +
+                '}';
+    }
+}
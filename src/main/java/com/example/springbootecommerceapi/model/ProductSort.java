@@ -0,0 +1,18 @@
+package com.example.springbootecommerceapi.model;
+
+public enum ProductSort {
+    PRICE("productPrice"),
+    NAME("productNameKey"),
+    STOCK("productStock");
+
+    // entity attribute the catalog is ordered by, each one is indexed together with the product number
+    private final String attribute;
+
+    ProductSort(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+}
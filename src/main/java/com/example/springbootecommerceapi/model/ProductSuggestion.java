@@ -0,0 +1,53 @@
+package com.example.springbootecommerceapi.model;
+
+import java.util.Objects;
+
+public class ProductSuggestion {
+    private long productNumber;
+    private String productName;
+
+    public ProductSuggestion() {
+    }
+
+    public ProductSuggestion(long productNumber, String productName) {
+        this.productNumber = productNumber;
+        this.productName = productName;
+    }
+
+    public long getProductNumber() {
+        return productNumber;
+    }
+
+    public void setProductNumber(long productNumber) {
+        this.productNumber = productNumber;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductSuggestion that = (ProductSuggestion) o;
+        return productNumber == that.productNumber && Objects.equals(productName, that.productName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productNumber, productName);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSuggestion{" +
+                "productNumber=" + productNumber +
+                ", productName='" + productName + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.springbootecommerceapi.model;
+
+import javax.validation.constraints.NotBlank;
+import java.util.Objects;
+
+public class RefreshTokenRequest {
+    @NotBlank
+    private String refreshToken;
+
+    public RefreshTokenRequest() {
+    }
+
+    public RefreshTokenRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RefreshTokenRequest that = (RefreshTokenRequest) o;
+        return Objects.equals(refreshToken, that.refreshToken);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(refreshToken);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.springbootecommerceapi.model;
+
+public enum TransitionOutcome {
+    UPDATED,
+    NOT_FOUND,
+    INVALID_TRANSITION,
+    // the chunk holding the order could not be saved, the order is unchanged
+    FAILED
+}
@@ -0,0 +1,30 @@
+package com.example.springbootecommerceapi.repository;
+
+import com.example.springbootecommerceapi.entity.EmailOutboxEntity;
+import com.example.springbootecommerceapi.model.EmailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, Long> {
+
+    List<EmailOutboxEntity> findByStatusAndNextAttemptAtLessThanEqualOrderByOutboxNumberAsc(
+            EmailStatus status,
+            LocalDateTime now,
+            Pageable pageable
+    );
+
+    @Transactional
+    @Modifying
+    @Query("update EmailOutboxEntity e set e.status = com.example.springbootecommerceapi.model.EmailStatus.SENT, " +
+            "e.sentAt = ?2, e.attempts = e.attempts + 1, e.lastError = null where e.outboxNumber in ?1")
+    int markSent(Collection<Long> outboxNumbers, LocalDateTime sentAt);
+}
@@ -0,0 +1,22 @@
+package com.example.springbootecommerceapi.repository;
+
+import com.example.springbootecommerceapi.entity.IdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, Long> {
+
+    Optional<IdempotencyKeyEntity> findByCustomerEmailAndIdempotencyKey(String customerEmail, String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKeyEntity k where k.expiresAt <= ?1")
+    int deleteExpired(LocalDateTime now);
+}
@@ -2,6 +2,8 @@ package com.example.springbootecommerceapi.repository;
 
 import com.example.springbootecommerceapi.entity.OrderItemEntity;
 import com.example.springbootecommerceapi.entity.OrderItemPK;
+import com.example.springbootecommerceapi.model.OrderDetailsRow;
+import com.example.springbootecommerceapi.model.ProductSalesRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -11,8 +13,20 @@ import java.util.List;
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItemEntity, OrderItemPK> {
 
-    // given email and orderNumber
-    @Query("select o from OrderItemEntity o where o.orderItemPK.orderEntity.orderNumber = ?1 and " +
-            "o.orderItemPK.orderEntity.customer.email = ?2")
-    List<OrderItemEntity>  getOrderItemsFromOrder(long orderNumber, String customerEmail);
+    // given email and orderNumber, header and lines are projected in a single joined select
+    @Query("select new com.example.springbootecommerceapi.model.OrderDetailsRow(" +
+            "o.orderNumber, o.datePlaced, o.dateShipped, o.dateDelivered, o.status, " +
+            "p.productNumber, p.productName, i.priceEach, i.quantity) " +
+            "from OrderItemEntity i join i.orderItemPK.orderEntity o join i.orderItemPK.productEntity p " +
+            "join o.customer c where o.orderNumber = ?1 and c.email = ?2 order by p.productNumber")
+    List<OrderDetailsRow> getOrderDetails(long orderNumber, String customerEmail);
+
+    @Query("select i.orderItemPK.productEntity.productNumber from OrderItemEntity i " +
+            "where i.orderItemPK.orderEntity.orderNumber = ?1")
+    List<Long> findProductNumbers(long orderNumber);
+
+    @Query("select new com.example.springbootecommerceapi.model.ProductSalesRow(" +
+            "i.orderItemPK.productEntity.productNumber, sum(i.quantity)) from OrderItemEntity i " +
+            "group by i.orderItemPK.productEntity.productNumber")
+    List<ProductSalesRow> findUnitsSold();
 }
@@ -1,20 +1,53 @@
 package com.example.springbootecommerceapi.repository;
 
 import com.example.springbootecommerceapi.entity.OrderEntity;
-import com.example.springbootecommerceapi.entity.UserEntity;
+import com.example.springbootecommerceapi.model.OrderStatus;
+import com.example.springbootecommerceapi.model.OrderStatusRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
-
-    List<OrderEntity> findByCustomer(UserEntity customer);
+public interface OrderRepository extends JpaRepository<OrderEntity, Long>, OrderRepositoryCustom {
 
     @Query("select o from OrderEntity o where o.orderNumber = ?1 and " +
             "o.customer.email = ?2")
     Optional<OrderEntity> findByOrderNumberAndCustomerEmail(long orderNumber, String customerEmail);
+
+    // locks the rows so the outcome reported for each order is the one the update below applies
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new com.example.springbootecommerceapi.model.OrderStatusRow(o.orderNumber, o.status) " +
+            "from OrderEntity o where o.orderNumber in ?1")
+    List<OrderStatusRow> lockStatuses(Collection<Long> orderNumbers);
+
+    // the status checks below come from OrderStatus.sourcesOf, no read is needed to apply a transition
+    @Modifying
+    @Query("update OrderEntity o set o.status = com.example.springbootecommerceapi.model.OrderStatus.SHIPPED, " +
+            "o.dateShipped = ?3, o.version = o.version + 1 where o.orderNumber in ?1 and o.status in ?2")
+    int shipOrders(Collection<Long> orderNumbers, Collection<OrderStatus> from, LocalDateTime dateShipped);
+
+    @Modifying
+    @Query("update OrderEntity o set o.status = com.example.springbootecommerceapi.model.OrderStatus.DELIVERED, " +
+            "o.dateDelivered = ?3, o.version = o.version + 1 where o.orderNumber in ?1 and o.status in ?2")
+    int deliverOrders(Collection<Long> orderNumbers, Collection<OrderStatus> from, LocalDateTime dateDelivered);
+
+    @Modifying
+    @Query("update OrderEntity o set o.status = com.example.springbootecommerceapi.model.OrderStatus.CANCELLED, " +
+            "o.version = o.version + 1 where o.orderNumber = ?1 and o.status in ?3 " +
+            "and o.customer in (select u from UserEntity u where u.email = ?2)")
+    int cancelOrder(long orderNumber, String customerEmail, Collection<OrderStatus> from);
+
+    @Query("select o.status from OrderEntity o where o.orderNumber = ?1")
+    Optional<OrderStatus> findStatus(long orderNumber);
+
+    @Query("select o.status from OrderEntity o where o.orderNumber = ?1 and o.customer.email = ?2")
+    Optional<OrderStatus> findStatus(long orderNumber, String customerEmail);
 }
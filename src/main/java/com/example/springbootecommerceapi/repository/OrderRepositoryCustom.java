@@ -0,0 +1,13 @@
+package com.example.springbootecommerceapi.repository;
+
+import com.example.springbootecommerceapi.entity.OrderEntity;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    // first limit orders matching specification, unlike a Pageable query no count is run alongside
+    List<OrderEntity> findPage(Specification<OrderEntity> specification, Sort sort, int limit);
+}
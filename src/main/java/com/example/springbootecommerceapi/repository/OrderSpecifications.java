@@ -0,0 +1,70 @@
+package com.example.springbootecommerceapi.repository;
+
+import com.example.springbootecommerceapi.entity.OrderEntity;
+import com.example.springbootecommerceapi.model.OrderStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Path;
+import java.time.LocalDateTime;
+
+/*
+Criteria for a customer's order history. Only the filters that are set end up in the where
+clause, so the planner can seek on the (customer, datePlaced) index instead of evaluating
+"(:param is null or ...)" guards row by row.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<OrderEntity> matching(
+            String customerEmail, OrderStatus status, LocalDateTime from, LocalDateTime to) {
+        Specification<OrderEntity> specification = Specification.where(placedBy(customerEmail));
+
+        if (status != null) {
+            specification = specification.and(hasStatus(status));
+        }
+
+        if (from != null) {
+            specification = specification.and(placedFrom(from));
+        }
+
+        if (to != null) {
+            specification = specification.and(placedBefore(to));
+        }
+
+        return specification;
+    }
+
+    public static Specification<OrderEntity> placedBy(String customerEmail) {
+        return (root, query, builder) -> builder.equal(root.join("customer").get("email"), customerEmail);
+    }
+
+    public static Specification<OrderEntity> hasStatus(OrderStatus status) {
+        return (root, query, builder) -> builder.equal(root.get("status"), status);
+    }
+
+    public static Specification<OrderEntity> placedFrom(LocalDateTime from) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("datePlaced"), from);
+    }
+
+    public static Specification<OrderEntity> placedBefore(LocalDateTime to) {
+        return (root, query, builder) -> builder.lessThan(root.get("datePlaced"), to);
+    }
+
+    /*
+    Orders following (datePlaced, orderNumber) newest first. Written as "date <= last and
+    (date < last or number < n)" instead of a plain or, the leading condition is a range on
+    the index the planner can seek to.
+     */
+    public static Specification<OrderEntity> before(LocalDateTime datePlaced, long orderNumber) {
+        return (root, query, builder) -> {
+            Path<LocalDateTime> date = root.get("datePlaced");
+            Path<Long> number = root.get("orderNumber");
+
+            return builder.and(
+                    builder.lessThanOrEqualTo(date, datePlaced),
+                    builder.or(builder.lessThan(date, datePlaced), builder.lessThan(number, orderNumber)));
+        };
+    }
+}
@@ -1,13 +1,50 @@
 package com.example.springbootecommerceapi.repository;
 
+import com.example.springbootecommerceapi.config.HibernateCacheConfiguration;
 import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.ProductNameRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+public interface ProductRepository extends JpaRepository<ProductEntity, Long>, ProductRepositoryCustom {
     
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = HibernateCacheConfiguration.PRODUCT_QUERY_REGION)
+    })
     boolean existsByProductName(String productName);
+
+    // reads stock straight from the database and keeps it, possibly uncommitted, out of the second level cache
+    @QueryHints({
+            @QueryHint(name = "javax.persistence.cache.retrieveMode", value = "BYPASS"),
+            @QueryHint(name = "javax.persistence.cache.storeMode", value = "BYPASS")
+    })
+    List<ProductEntity> findByProductNumberIn(Collection<Long> productNumbers);
+
+    // forward-only cursor over the whole catalog, rows are fetched from the driver in chunks
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select p from ProductEntity p order by p.productNumber")
+    Stream<ProductEntity> streamAll();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.springbootecommerceapi.model.ProductNameRow(p.productNumber, p.productName) " +
+            "from ProductEntity p")
+    Stream<ProductNameRow> streamNames();
 }
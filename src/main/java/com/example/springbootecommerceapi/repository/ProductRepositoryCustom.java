@@ -0,0 +1,20 @@
+package com.example.springbootecommerceapi.repository;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    // first limit products matching specification, unlike a Pageable query no count is run alongside
+    List<ProductEntity> findPage(Specification<ProductEntity> specification, Sort sort, int limit);
+
+    // decrements stock only when enough is available, returns number of rows updated (0 or 1)
+    int decrementStock(long productNumber, int quantity);
+
+    // puts back the quantity of every line of the order in one statement, rows are touched once each
+    int restockOrder(long orderNumber, Collection<Long> productNumbers);
+}
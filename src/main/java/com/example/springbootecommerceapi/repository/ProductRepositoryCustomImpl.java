@@ -0,0 +1,109 @@
+package com.example.springbootecommerceapi.repository;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import org.hibernate.Cache;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Collection;
+import java.util.List;
+
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    /*
+    Stock updates are synchronized on a query space no entity or cached query uses. Hibernate then
+    leaves the product region alone instead of invalidating all of it on every order, and only the
+    rows that were updated are evicted.
+     */
+    private static final String STOCK_QUERY_SPACE = "product_stock";
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    ProductRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<ProductEntity> findPage(Specification<ProductEntity> specification, Sort sort, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductEntity> query = builder.createQuery(ProductEntity.class);
+        Root<ProductEntity> root = query.from(ProductEntity.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.orderBy(QueryUtils.toOrders(sort, root, builder));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int decrementStock(long productNumber, int quantity) {
+        int updated = entityManager.createNativeQuery(
+                        "update product set product_stock = product_stock - ?2 " +
+                        "where product_number = ?1 and product_stock >= ?2")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .setParameter(1, productNumber)
+                .setParameter(2, quantity)
+                .executeUpdate();
+
+        if (updated > 0) {
+            evict(List.of(productNumber));
+        }
+
+        return updated;
+    }
+
+    @Override
+    public int restockOrder(long orderNumber, Collection<Long> productNumbers) {
+        int updated = entityManager.createNativeQuery(
+                        "update product p set product_stock = product_stock + " +
+                        "(select i.quantity from order_item i " +
+                        "where i.order_number = ?1 and i.product_number = p.product_number) " +
+                        "where p.product_number in (select i.product_number from order_item i where i.order_number = ?1)")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .setParameter(1, orderNumber)
+                .executeUpdate();
+
+        evict(productNumbers);
+
+        return updated;
+    }
+
+    // evicted right away and again once the transaction ends, a read in between may cache the old stock
+    private void evict(Collection<Long> productNumbers) {
+        Cache secondLevelCache = entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class);
+
+        for (Long productNumber : productNumbers) {
+            secondLevelCache.evictEntityData(ProductEntity.class, productNumber);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    for (Long productNumber : productNumbers) {
+                        secondLevelCache.evictEntityData(ProductEntity.class, productNumber);
+                    }
+                }
+            });
+        }
+    }
+}
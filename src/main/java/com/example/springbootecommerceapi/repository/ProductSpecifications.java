@@ -0,0 +1,93 @@
+package com.example.springbootecommerceapi.repository;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.ProductFilter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Path;
+
+/*
+Criteria for browsing the catalog. Only the filters that are set end up in the where clause, so
+the query planner sees plain range conditions it can serve from the product indexes instead of
+"(:param is null or ...)" guards that have to be evaluated row by row.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<ProductEntity> matching(ProductFilter filter) {
+        Specification<ProductEntity> specification = Specification.where(null);
+
+        if (filter.getMinPrice() != null) {
+            specification = specification.and(priceAtLeast(filter.getMinPrice()));
+        }
+
+        if (filter.getMaxPrice() != null) {
+            specification = specification.and(priceAtMost(filter.getMaxPrice()));
+        }
+
+        if (filter.isInStock()) {
+            specification = specification.and(inStock());
+        }
+
+        if (filter.getNamePrefix() != null) {
+            specification = specification.and(nameStartsWith(filter.getNamePrefix()));
+        }
+
+        return specification;
+    }
+
+    public static Specification<ProductEntity> priceAtLeast(float price) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("productPrice"), price);
+    }
+
+    public static Specification<ProductEntity> priceAtMost(float price) {
+        return (root, query, builder) -> builder.lessThanOrEqualTo(root.get("productPrice"), price);
+    }
+
+    public static Specification<ProductEntity> inStock() {
+        return (root, query, builder) -> builder.greaterThan(root.get("productStock"), 0);
+    }
+
+    // a range rather than like, a bound like pattern gives the planner nothing to seek on
+    public static Specification<ProductEntity> nameStartsWith(String prefix) {
+        String from = ProductEntity.nameKey(prefix);
+        String to = from + Character.MAX_VALUE;
+
+        return (root, query, builder) -> builder.and(
+                builder.greaterThanOrEqualTo(root.get("productNameKey"), from),
+                builder.lessThan(root.get("productNameKey"), to));
+    }
+
+    // rows following the last one of the previous page when ordered by product number only
+    public static Specification<ProductEntity> after(long productNumber, Sort.Direction direction) {
+        return (root, query, builder) -> direction.isAscending()
+                ? builder.greaterThan(root.get("productNumber"), productNumber)
+                : builder.lessThan(root.get("productNumber"), productNumber);
+    }
+
+    /*
+    Rows following (value, productNumber) when ordered by attribute then product number. Written
+    as "key >= value and (key > value or number > last)" instead of a plain or, the leading
+    condition is a range on the index the planner can seek to.
+     */
+    public static <T extends Comparable<? super T>> Specification<ProductEntity> after(
+            String attribute, T value, long productNumber, Sort.Direction direction) {
+        return (root, query, builder) -> {
+            Path<T> key = root.get(attribute);
+            Path<Long> number = root.get("productNumber");
+
+            if (direction.isAscending()) {
+                return builder.and(
+                        builder.greaterThanOrEqualTo(key, value),
+                        builder.or(builder.greaterThan(key, value), builder.greaterThan(number, productNumber)));
+            }
+
+            return builder.and(
+                    builder.lessThanOrEqualTo(key, value),
+                    builder.or(builder.lessThan(key, value), builder.lessThan(number, productNumber)));
+        };
+    }
+}
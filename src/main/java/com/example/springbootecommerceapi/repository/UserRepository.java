@@ -1,11 +1,27 @@
 package com.example.springbootecommerceapi.repository;
 
+import com.example.springbootecommerceapi.config.HibernateCacheConfiguration;
 import com.example.springbootecommerceapi.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
+    // cached ids are resolved through the user region, results are dropped on any write to userEntity
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = HibernateCacheConfiguration.USER_QUERY_REGION)
+    })
     Optional<UserEntity> findByEmail(String email);
+
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = HibernateCacheConfiguration.USER_QUERY_REGION)
+    })
     boolean existsByEmail(String email);
 }
@@ -11,6 +11,7 @@ import com.example.springbootecommerceapi.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.Optional;
@@ -37,6 +38,7 @@ public class AdminService {
 
     }
 
+    @Transactional
     public void createEmployeeRegistrationToken(String adminEmail, String employeeEmail) {
         Optional<UserEntity> admin = userRepository.findByEmail(adminEmail);
 
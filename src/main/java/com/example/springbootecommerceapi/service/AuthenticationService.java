@@ -1,6 +1,6 @@
 package com.example.springbootecommerceapi.service;
 
-
+import com.example.springbootecommerceapi.config.CacheConfiguration;
 import com.example.springbootecommerceapi.entity.ActivationTokenEntity;
 import com.example.springbootecommerceapi.entity.EmployeeRegistrationToken;
 import com.example.springbootecommerceapi.entity.PasswordTokenEntity;
@@ -17,9 +17,11 @@ import com.example.springbootecommerceapi.repository.EmployeeRegistrationReposit
 import com.example.springbootecommerceapi.repository.PasswordTokenRepository;
 import com.example.springbootecommerceapi.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.Optional;
@@ -35,6 +37,7 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final PasswordTokenRepository passwordTokenRepository;
     private final EmployeeRegistrationRepository employeeRegistrationRepository;
+    private final CacheManager cacheManager;
 
     @Autowired
     public AuthenticationService(
@@ -44,8 +47,8 @@ public class AuthenticationService {
             HttpServletRequest request,
             PasswordEncoder passwordEncoder,
             PasswordTokenRepository passwordTokenRepository,
-            EmployeeRegistrationRepository employeeRegistrationRepository
-
+            EmployeeRegistrationRepository employeeRegistrationRepository,
+            CacheManager cacheManager
     ) {
         this.userRepository = userRepository;
         this.activationTokenRepository = activationTokenRepository;
@@ -54,9 +57,12 @@ public class AuthenticationService {
         this.passwordEncoder = passwordEncoder;
         this.passwordTokenRepository = passwordTokenRepository;
         this.employeeRegistrationRepository = employeeRegistrationRepository;
+        this.cacheManager = cacheManager;
     }
 
 
+    // the activation email is written to the outbox in this transaction, it is only sent if the user is saved
+    @Transactional
     public void registerCustomer(UserEntity customer) {
         // set role to customer
         customer.setRole(Role.CUSTOMER);
@@ -82,6 +88,7 @@ public class AuthenticationService {
 
     }
 
+    @Transactional
     public void registerEmployee(UserEntity user, String token) {
         Optional<EmployeeRegistrationToken> registrationToken =
                 employeeRegistrationRepository.findByToken(token);
@@ -131,6 +138,7 @@ public class AuthenticationService {
 
         userRepository.save(user);
         activationTokenRepository.delete(activationToken.get());
+        evictUserDetails(user.getEmail());
     }
 
     public void updatePassword(KnownPassword knownPassword) {
@@ -152,8 +160,10 @@ public class AuthenticationService {
 
         // save changes
         userRepository.save(user.get());
+        evictUserDetails(user.get().getEmail());
     }
 
+    @Transactional
     public void generatePasswordToken(EmailDTO emailDTO) {
         // make sure email is associated with a user
         Optional<UserEntity> user = userRepository.findByEmail(emailDTO.getEmail());
@@ -188,6 +198,12 @@ public class AuthenticationService {
         // save changes
         userRepository.save(user);
         passwordTokenRepository.delete(passwordToken.get());
+        evictUserDetails(user.getEmail());
+    }
+
+    // cached principals must not outlive a change to password, activation or role
+    private void evictUserDetails(String email) {
+        cacheManager.getCache(CacheConfiguration.USER_DETAILS).evict(email);
     }
 
     private String applicationUrl(String token, String path) {
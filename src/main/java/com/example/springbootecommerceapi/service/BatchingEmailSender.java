@@ -0,0 +1,142 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.config.AsyncConfiguration;
+import com.example.springbootecommerceapi.model.Email;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+Collects emails for up to the batch window, or until the batch is full, and sends each
+batch over one SMTP connection on the email executor. Several batches can be in flight,
+bounded by the executor. The returned future completes with the outcome of that one email.
+ */
+@Service
+public class BatchingEmailSender {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final EmailSenderService emailSenderService;
+    private final Executor emailExecutor;
+    private final int maxBatchSize;
+    private final Duration batchWindow;
+    private final BlockingQueue<PendingEmail> pending = new LinkedBlockingQueue<>();
+    private final Thread collector = new Thread(this::collect, "email-batcher");
+    private volatile boolean running = true;
+
+    @Autowired
+    public BatchingEmailSender(
+            HtmlEmailSenderService emailSenderService,
+            @Qualifier(AsyncConfiguration.EMAIL_EXECUTOR) Executor emailExecutor,
+            @Value("${ecommerce.email.batch.max-size:50}") int maxBatchSize,
+            @Value("${ecommerce.email.batch.window:200ms}") Duration batchWindow
+    ) {
+        this.emailSenderService = emailSenderService;
+        this.emailExecutor = emailExecutor;
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindow = batchWindow;
+    }
+
+    @PostConstruct
+    public void start() {
+        collector.setDaemon(true);
+        collector.start();
+    }
+
+    // emails queued before shutdown are still handed to the executor, which drains them
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        collector.join(batchWindow.toMillis() + IDLE_POLL_MILLIS * 10);
+    }
+
+    public CompletableFuture<Void> send(Email email, String template) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Email sender is stopped"));
+        }
+
+        PendingEmail pendingEmail = new PendingEmail(email, template, new CompletableFuture<>());
+        pending.add(pendingEmail);
+
+        return pendingEmail.result();
+    }
+
+    private void collect() {
+        while (running || !pending.isEmpty()) {
+            try {
+                PendingEmail first = pending.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                List<PendingEmail> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + batchWindow.toNanos();
+
+                while (batch.size() < maxBatchSize) {
+                    pending.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+
+                    PendingEmail next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void dispatch(List<PendingEmail> batch) {
+        try {
+            emailExecutor.execute(() -> sendBatch(batch));
+        } catch (RejectedExecutionException e) {
+            sendBatch(batch);
+        }
+    }
+
+    private void sendBatch(List<PendingEmail> batch) {
+        Map<Email, String> templatesByEmail = new LinkedHashMap<>();
+        batch.forEach(pendingEmail -> templatesByEmail.put(pendingEmail.email(), pendingEmail.template()));
+
+        Map<Email, Exception> failures;
+
+        try {
+            failures = emailSenderService.sendEmails(templatesByEmail);
+        } catch (RuntimeException e) {
+            batch.forEach(pendingEmail -> pendingEmail.result().completeExceptionally(e));
+            return;
+        }
+
+        for (PendingEmail pendingEmail : batch) {
+            Exception failure = failures.get(pendingEmail.email());
+
+            if (failure == null) {
+                pendingEmail.result().complete(null);
+            } else {
+                pendingEmail.result().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private record PendingEmail(Email email, String template, CompletableFuture<Void> result) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.springbootecommerceapi.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Reads RFC 4180 records one at a time: fields are separated by commas and may be quoted, a quote
+inside a quoted field is doubled. Quoted fields can span lines, so every record remembers the
+line it started on for error reports.
+ */
+final class CsvRecordReader {
+
+    private final BufferedReader reader;
+    private long lines;
+    private long recordLine;
+
+    CsvRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    // fields of the next record, null once the input is exhausted
+    List<String> read() throws IOException {
+        String text = reader.readLine();
+
+        if (text == null) {
+            return null;
+        }
+
+        recordLine = ++lines;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+
+                text = reader.readLine();
+
+                if (text == null) {
+                    throw new IllegalArgumentException("Quoted field is not closed");
+                }
+
+                lines++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+
+            char c = text.charAt(i++);
+
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < text.length() && text.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+
+    long line() {
+        return recordLine;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.EmailOutboxEntity;
+import com.example.springbootecommerceapi.model.Email;
+import com.example.springbootecommerceapi.model.EmailStatus;
+import com.example.springbootecommerceapi.repository.EmailOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class EmailOutboxService {
+
+    private static final TypeReference<Map<String, Object>> MODEL_TYPE = new TypeReference<>() {};
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final BatchingEmailSender batchingEmailSender;
+    private final ObjectMapper objectMapper;
+    private final Counter emailsSent;
+    private final Counter emailsFailed;
+    @Value("${ecommerce.email.outbox.batch-size:50}")
+    private int batchSize;
+    @Value("${ecommerce.email.outbox.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${ecommerce.email.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+    @Value("${ecommerce.email.outbox.max-backoff:30m}")
+    private Duration maxBackoff;
+    @Value("${ecommerce.email.outbox.send-timeout:2m}")
+    private Duration sendTimeout;
+
+    @Autowired
+    public EmailOutboxService(
+            EmailOutboxRepository emailOutboxRepository,
+            BatchingEmailSender batchingEmailSender,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.batchingEmailSender = batchingEmailSender;
+        this.objectMapper = objectMapper;
+        this.emailsSent = Counter.builder("ecommerce.emails")
+                .description("Outbox email send attempts")
+                .tag("outcome", "sent")
+                .register(meterRegistry);
+        this.emailsFailed = Counter.builder("ecommerce.emails")
+                .description("Outbox email send attempts")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    // joins the caller's transaction, the email is only sent if the caller commits
+    @Transactional
+    public void enqueue(Email email, String template) {
+        String model;
+
+        try {
+            model = objectMapper.writeValueAsString(email.getModel());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Email model is not serializable", e);
+        }
+
+        emailOutboxRepository.save(new EmailOutboxEntity(
+                email.getTo(), email.getFrom(), email.getSubject(), template, model));
+    }
+
+    /*
+    Sends one batch of due emails through the batching sender, which groups them into SMTP
+    connections on the email executor. No transaction is held while sending. Sent rows are marked in a
+    single update, failed rows are rescheduled with exponential backoff until max-attempts. A send
+    still running after send-timeout counts as failed, so a hung SMTP connection holds the
+    scheduler thread for at most that long. Returns the number of emails sent.
+     */
+    @Scheduled(
+            fixedDelayString = "${ecommerce.email.outbox.poll-interval:PT5S}",
+            initialDelayString = "${ecommerce.email.outbox.poll-interval:PT5S}"
+    )
+    public synchronized int dispatch() {
+        List<EmailOutboxEntity> batch = emailOutboxRepository
+                .findByStatusAndNextAttemptAtLessThanEqualOrderByOutboxNumberAsc(
+                        EmailStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Queue<Long> sent = new ConcurrentLinkedQueue<>();
+        Queue<EmailOutboxEntity> failed = new ConcurrentLinkedQueue<>();
+
+        CompletableFuture<?>[] sends = batch.stream()
+                .map(row -> send(row)
+                        .orTimeout(sendTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .whenComplete((ignored, error) -> {
+                            if (error == null) {
+                                sent.add(row.getOutboxNumber());
+                            } else {
+                                reschedule(row, error instanceof CompletionException ? error.getCause() : error);
+                                failed.add(row);
+                            }
+                        }))
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(sends).exceptionally(error -> null).join();
+
+        if (!sent.isEmpty()) {
+            emailOutboxRepository.markSent(sent, LocalDateTime.now());
+        }
+        for (EmailOutboxEntity row : failed) {
+            saveFailure(row);
+        }
+        emailsSent.increment(sent.size());
+        emailsFailed.increment(failed.size());
+
+        return sent.size();
+    }
+
+    /*
+    Every failed row is saved in a transaction of its own, so one row that cannot be saved does
+    not roll back the attempts of the others. Without its error it is saved again, a row whose
+    attempts are never counted would be retried forever and never reach FAILED.
+     */
+    private void saveFailure(EmailOutboxEntity row) {
+        try {
+            emailOutboxRepository.save(row);
+        } catch (DataAccessException e) {
+            row.setLastError(null);
+
+            try {
+                emailOutboxRepository.save(row);
+            } catch (DataAccessException retryException) {
+                // the database itself is failing, the row is still due and the next poll tries again
+            }
+        }
+    }
+
+    private CompletableFuture<Void> send(EmailOutboxEntity row) {
+        Email email = new Email(row.getRecipient(), row.getSender(), row.getSubject());
+
+        try {
+            email.setModel(objectMapper.readValue(row.getModel(), MODEL_TYPE));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Email model is not readable", e));
+        }
+
+        return batchingEmailSender.send(email, row.getTemplate());
+    }
+
+    private void reschedule(EmailOutboxEntity row, Throwable error) {
+        int attempts = row.getAttempts() + 1;
+        row.setAttempts(attempts);
+        String message = error instanceof TimeoutException
+                ? "Not sent within " + sendTimeout
+                : String.valueOf(error.getMessage());
+        row.setLastError(message.length() > EmailOutboxEntity.LAST_ERROR_LENGTH
+                ? message.substring(0, EmailOutboxEntity.LAST_ERROR_LENGTH)
+                : message);
+
+        if (attempts >= maxAttempts) {
+            row.setStatus(EmailStatus.FAILED);
+            return;
+        }
+
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        row.setNextAttemptAt(LocalDateTime.now().plus(backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff));
+    }
+}
@@ -9,5 +9,7 @@ import java.util.Map;
 public interface EmailSenderService {
 
     void sendEmail(Email email, String template);
+    // sends all emails in one go, returns the failure of every email that was not sent
+    Map<Email, Exception> sendEmails(Map<Email, String> templatesByEmail);
     String getContentFromTemplate(Map<String, Object> model, String template);
 }
@@ -1,48 +1,216 @@
 package com.example.springbootecommerceapi.service;
 
-import com.example.springbootecommerceapi.entity.OrderEntity;
 import com.example.springbootecommerceapi.exception.OrderException;
+import com.example.springbootecommerceapi.exception.OrderTransitionException;
 import com.example.springbootecommerceapi.model.OrderStatus;
+import com.example.springbootecommerceapi.model.OrderStatusRow;
+import com.example.springbootecommerceapi.model.OrderTransitionDTO;
+import com.example.springbootecommerceapi.model.TransitionOutcome;
 import com.example.springbootecommerceapi.repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class EmployeesService {
 
     private OrderRepository orderRepository;
+    private TransactionTemplate transactionTemplate;
+    @Value("${ecommerce.orders.bulk-chunk-size:1000}")
+    private int chunkSize;
 
     @Autowired
-    public EmployeesService(OrderRepository orderRepository) {
+    public EmployeesService(OrderRepository orderRepository, TransactionTemplate transactionTemplate) {
         this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    @Transactional
     public void shipOrder(long orderNumber) {
-        Optional<OrderEntity> order = orderRepository.findById(orderNumber);
+        int updated = orderRepository.shipOrders(
+                List.of(orderNumber), OrderStatus.sourcesOf(OrderStatus.SHIPPED), LocalDateTime.now());
 
-        if (order.isEmpty()) {
-            throw new OrderException("Order does not exist");
+        if (updated == 0) {
+            rejectTransition(orderNumber, OrderStatus.SHIPPED);
         }
+    }
 
-        order.get().setStatus(OrderStatus.SHIPPED);
-        order.get().setDateShipped(LocalDateTime.now());
+    @Transactional
+    public void deliverOrder(long orderNumber) {
+        int updated = orderRepository.deliverOrders(
+                List.of(orderNumber), OrderStatus.sourcesOf(OrderStatus.DELIVERED), LocalDateTime.now());
 
-        orderRepository.save(order.get());
+        if (updated == 0) {
+            rejectTransition(orderNumber, OrderStatus.DELIVERED);
+        }
     }
 
-    public void deliverOrder(long orderNumber) {
-        Optional<OrderEntity> order = orderRepository.findById(orderNumber);
+    public List<OrderTransitionDTO> shipOrders(Collection<Long> orderNumbers) {
+        return transition(orderNumbers, OrderStatus.SHIPPED);
+    }
+
+    public List<OrderTransitionDTO> shipOrders(InputStream csv) throws IOException {
+        return transition(csv, OrderStatus.SHIPPED);
+    }
+
+    public List<OrderTransitionDTO> deliverOrders(Collection<Long> orderNumbers) {
+        return transition(orderNumbers, OrderStatus.DELIVERED);
+    }
+
+    public List<OrderTransitionDTO> deliverOrders(InputStream csv) throws IOException {
+        return transition(csv, OrderStatus.DELIVERED);
+    }
+
+    // an order number repeated anywhere in the request is transitioned and reported once
+    private List<OrderTransitionDTO> transition(Collection<Long> orderNumbers, OrderStatus to) {
+        Set<Long> distinct = new LinkedHashSet<>(orderNumbers);
+        List<OrderTransitionDTO> results = new ArrayList<>(distinct.size());
+        List<Long> chunk = new ArrayList<>(chunkSize);
+
+        for (Long orderNumber : distinct) {
+            chunk.add(orderNumber);
+
+            if (chunk.size() == chunkSize) {
+                results.addAll(transitionChunk(chunk, to));
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            results.addAll(transitionChunk(chunk, to));
+        }
+
+        return results;
+    }
+
+    /*
+    Order numbers separated by commas or line breaks. The whole body is read and checked before
+    any chunk is applied, a malformed number rejects the request while nothing has changed yet.
+     */
+    private List<OrderTransitionDTO> transition(InputStream csv, OrderStatus to) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        List<Long> orderNumbers = new ArrayList<>();
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            for (String value : line.split(",")) {
+                value = value.strip();
+
+                if (!value.isEmpty()) {
+                    orderNumbers.add(parseOrderNumber(value, lineNumber));
+                }
+            }
+        }
 
-        if (order.isEmpty()) {
+        return transition(orderNumbers, to);
+    }
+
+    /*
+    One transaction per chunk: the rows are locked and read, then moved with a single update
+    whose where clause only matches the statuses OrderStatus allows to move to the target. A
+    failure only rolls back its own chunk, its orders are reported as failed and the other
+    chunks are still applied.
+     */
+    private List<OrderTransitionDTO> transitionChunk(List<Long> chunk, OrderStatus to) {
+        try {
+            return applyChunk(chunk, to);
+        } catch (DataAccessException | TransactionException e) {
+            List<OrderTransitionDTO> results = new ArrayList<>(chunk.size());
+
+            for (Long orderNumber : chunk) {
+                results.add(new OrderTransitionDTO(orderNumber, TransitionOutcome.FAILED, null));
+            }
+
+            return results;
+        }
+    }
+
+    private List<OrderTransitionDTO> applyChunk(List<Long> orderNumbers, OrderStatus to) {
+        return transactionTemplate.execute(transaction -> {
+            Map<Long, OrderStatus> statuses = new HashMap<>();
+
+            for (OrderStatusRow row : orderRepository.lockStatuses(orderNumbers)) {
+                statuses.put(row.orderNumber(), row.status());
+            }
+
+            List<Long> allowed = new ArrayList<>();
+
+            for (Map.Entry<Long, OrderStatus> entry : statuses.entrySet()) {
+                if (entry.getValue().canTransitionTo(to)) {
+                    allowed.add(entry.getKey());
+                }
+            }
+
+            if (!allowed.isEmpty()) {
+                LocalDateTime now = LocalDateTime.now();
+
+                if (to == OrderStatus.SHIPPED) {
+                    orderRepository.shipOrders(allowed, OrderStatus.sourcesOf(to), now);
+                } else {
+                    orderRepository.deliverOrders(allowed, OrderStatus.sourcesOf(to), now);
+                }
+            }
+
+            List<OrderTransitionDTO> results = new ArrayList<>(orderNumbers.size());
+
+            for (Long orderNumber : orderNumbers) {
+                OrderStatus status = statuses.get(orderNumber);
+
+                if (status == null) {
+                    results.add(new OrderTransitionDTO(orderNumber, TransitionOutcome.NOT_FOUND, null));
+                } else if (status.canTransitionTo(to) || status == to) {
+                    // a retried request finds its orders moved already, like shipOrder that is no failure
+                    results.add(new OrderTransitionDTO(orderNumber, TransitionOutcome.UPDATED, to));
+                } else {
+                    results.add(new OrderTransitionDTO(orderNumber, TransitionOutcome.INVALID_TRANSITION, status));
+                }
+            }
+
+            return results;
+        });
+    }
+
+    // only reached when the conditional update matched nothing, so the happy path never reads the order
+    private void rejectTransition(long orderNumber, OrderStatus target) {
+        Optional<OrderStatus> status = orderRepository.findStatus(orderNumber);
+
+        if (status.isEmpty()) {
             throw new OrderException("Order does not exist");
         }
 
-        order.get().setStatus(OrderStatus.DELIVERED);
-        order.get().setDateDelivered(LocalDateTime.now());
+        // repeating a transition that already happened is not an error
+        if (status.get() != target) {
+            throw new OrderTransitionException(
+                    "Order is " + status.get() + " and cannot become " + target, status.get());
+        }
+    }
+
+    private long parseOrderNumber(String value, long lineNumber) {
+        try {
+            long orderNumber = Long.parseLong(value);
+
+            if (orderNumber > 0) {
+                return orderNumber;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
 
-        orderRepository.save(order.get());
+        throw new OrderException("Invalid order number on line " + lineNumber + ": " + value);
     }
 }
@@ -2,59 +2,181 @@ package com.example.springbootecommerceapi.service;
 
 import com.example.springbootecommerceapi.model.Email;
 import freemarker.template.Configuration;
+import freemarker.template.Template;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class HtmlEmailSenderService implements EmailSenderService{
 
+    // buffers that grew past this are not kept for the next render
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
     private final JavaMailSender mailSender;
-    private final Configuration fmConfiguration;
+    private final Map<String, Template> templates;
+    private final ThreadLocal<StringBuilderWriter> writers = ThreadLocal.withInitial(StringBuilderWriter::new);
 
+    /*
+    Templates are parsed once here, a missing or broken template stops the application
+    from starting instead of failing the first email that needs it.
+     */
     @Autowired
-    public HtmlEmailSenderService(JavaMailSender mailSender, Configuration fmConfiguration) {
+    public HtmlEmailSenderService(
+            JavaMailSender mailSender,
+            Configuration fmConfiguration,
+            @Value("${ecommerce.email.templates:activate-account-template,employee-registration-template,password-reset-template}")
+            List<String> templateNames
+    ) {
         this.mailSender = mailSender;
-        this.fmConfiguration = fmConfiguration;
+
+        Map<String, Template> compiled = new HashMap<>();
+        for (String templateName : templateNames) {
+            try {
+                compiled.put(templateName, fmConfiguration.getTemplate(templateName + ".flth"));
+            } catch (IOException e) {
+                throw new IllegalStateException("Email template " + templateName + " could not be loaded", e);
+            }
+        }
+        this.templates = Map.copyOf(compiled);
     }
 
     @Override
     public void sendEmail(Email email, String template) {
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
-
         try {
-            MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, true);
+            mailSender.send(createMimeMessage(email, template));
+        } catch (MessagingException e) {
+            throw new RuntimeException("Something went Wrong");
+        }
+    }
 
-            mimeMessageHelper.setSubject(email.getSubject());
-            mimeMessageHelper.setFrom(email.getFrom());
-            mimeMessageHelper.setTo(email.getTo());
+    /*
+    JavaMailSender sends an array of messages over a single connection, so the batch pays
+    for connect, STARTTLS and authentication once. A message that cannot be built or is
+    refused by the server only fails itself.
+     */
+    @Override
+    public Map<Email, Exception> sendEmails(Map<Email, String> templatesByEmail) {
+        Map<Email, Exception> failures = new HashMap<>();
+        Map<MimeMessage, Email> messages = new LinkedHashMap<>();
 
-            email.setContent(getContentFromTemplate(email.getModel(), template));
-            mimeMessageHelper.setText(email.getContent(), true);
+        templatesByEmail.forEach((email, template) -> {
+            try {
+                messages.put(createMimeMessage(email, template), email);
+            } catch (MessagingException | RuntimeException e) {
+                failures.put(email, e);
+            }
+        });
 
-            mailSender.send(mimeMessageHelper.getMimeMessage());
-        } catch (MessagingException e) {
-            throw new RuntimeException("Something went Wrong");
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                messages.values().forEach(email -> failures.put(email, e));
+            } else {
+                e.getFailedMessages().forEach((message, exception) -> failures.put(messages.get(message), exception));
+            }
+        } catch (MailException e) {
+            messages.values().forEach(email -> failures.put(email, e));
         }
+
+        return failures;
+    }
+
+    private MimeMessage createMimeMessage(Email email, String template) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, true);
+
+        mimeMessageHelper.setSubject(email.getSubject());
+        mimeMessageHelper.setFrom(email.getFrom());
+        mimeMessageHelper.setTo(email.getTo());
+
+        email.setContent(getContentFromTemplate(email.getModel(), template));
+        mimeMessageHelper.setText(email.getContent(), true);
+
+        return mimeMessageHelper.getMimeMessage();
     }
 
     @Override
     public String getContentFromTemplate(Map<String, Object> model, String template) {
-        StringBuffer content = new StringBuffer();
+        Template compiled = templates.get(template);
+
+        if (compiled == null) {
+            throw new IllegalArgumentException("Unknown email template " + template);
+        }
+
+        StringBuilderWriter writer = writers.get();
 
         try {
-            content.append(FreeMarkerTemplateUtils.processTemplateIntoString(
-                    fmConfiguration.getTemplate(template + ".flth"), model));
+            compiled.process(model, writer);
+            return writer.toString();
         } catch (Exception e) {
             throw new RuntimeException("Something went Wrong");
+        } finally {
+            if (writer.capacity() > MAX_RETAINED_BUFFER) {
+                writers.remove();
+            } else {
+                writer.reset();
+            }
         }
-        return  content.toString();
     }
 
+    // unsynchronized replacement for StringWriter, each instance is confined to one thread
+    private static final class StringBuilderWriter extends Writer {
+
+        private final StringBuilder buffer = new StringBuilder(2048);
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String string, int offset, int length) {
+            buffer.append(string, offset, offset + length);
+        }
+
+        @Override
+        public void write(int character) {
+            buffer.append((char) character);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        void reset() {
+            buffer.setLength(0);
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
 }
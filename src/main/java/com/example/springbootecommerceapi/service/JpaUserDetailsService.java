@@ -1,8 +1,10 @@
 package com.example.springbootecommerceapi.service;
 
+import com.example.springbootecommerceapi.config.CacheConfiguration;
 import com.example.springbootecommerceapi.model.SecurityUser;
 import com.example.springbootecommerceapi.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,6 +20,7 @@ public class JpaUserDetailsService implements UserDetailsService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfiguration.USER_DETAILS, key = "#username")
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByEmail(username)
                 .map(SecurityUser::new)
@@ -0,0 +1,138 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.config.CacheConfiguration;
+import com.example.springbootecommerceapi.entity.IdempotencyKeyEntity;
+import com.example.springbootecommerceapi.exception.IdempotencyException;
+import com.example.springbootecommerceapi.model.OrderCreatedDTO;
+import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.repository.IdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/*
+Makes order placement safe to retry. The first request with a key places the order and
+stores the key with the order number in the same transaction, replays are answered from
+the stored key. Duplicates are serialized by the unique index on (customer, key), so only
+requests carrying the same key ever wait on each other.
+ */
+@Service
+public class OrderIdempotencyService {
+
+    private final OrderService orderService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Cache idempotencyKeyCache;
+    @Value("${ecommerce.orders.idempotency-key.time-to-live:24h}")
+    private Duration timeToLive;
+
+    @Autowired
+    public OrderIdempotencyService(
+            OrderService orderService,
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            CacheManager cacheManager
+    ) {
+        this.orderService = orderService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.idempotencyKeyCache = cacheManager.getCache(CacheConfiguration.IDEMPOTENCY_KEYS);
+    }
+
+    public OrderCreatedDTO createOrder(List<OrderDTO> orderItems, String userEmail, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return new OrderCreatedDTO(orderService.createOrder(orderItems, userEmail));
+        }
+
+        String requestHash = requestHash(orderItems);
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyKeyEntity> existing = findKey(userEmail, idempotencyKey);
+
+        if (existing.isPresent()) {
+            if (!existing.get().isExpired(now)) {
+                return replay(existing.get(), requestHash);
+            }
+
+            // expired but not purged yet, the key is free to be used again
+            idempotencyKeyCache.evict(cacheKey(userEmail, idempotencyKey));
+            idempotencyKeyRepository.delete(existing.get());
+        }
+
+        IdempotencyKeyEntity key = new IdempotencyKeyEntity(
+                userEmail, idempotencyKey, requestHash, now.plus(timeToLive));
+
+        try {
+            orderService.createOrder(orderItems, userEmail, key);
+        } catch (IdempotencyException e) {
+            // a concurrent request with the same key got there first, replayed once it has committed
+            existing = idempotencyKeyRepository.findByCustomerEmailAndIdempotencyKey(userEmail, idempotencyKey);
+
+            if (existing.isEmpty()) {
+                throw e;
+            }
+
+            return replay(existing.get(), requestHash);
+        }
+
+        idempotencyKeyCache.put(cacheKey(userEmail, idempotencyKey), key);
+        return new OrderCreatedDTO(key.getOrderNumber());
+    }
+
+    @Scheduled(
+            fixedDelayString = "${ecommerce.orders.idempotency-key.purge-interval:PT1H}",
+            initialDelayString = "${ecommerce.orders.idempotency-key.purge-interval:PT1H}"
+    )
+    public int purgeExpiredKeys() {
+        return idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private Optional<IdempotencyKeyEntity> findKey(String userEmail, String idempotencyKey) {
+        String cacheKey = cacheKey(userEmail, idempotencyKey);
+        IdempotencyKeyEntity cached = idempotencyKeyCache.get(cacheKey, IdempotencyKeyEntity.class);
+
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<IdempotencyKeyEntity> stored = idempotencyKeyRepository
+                .findByCustomerEmailAndIdempotencyKey(userEmail, idempotencyKey);
+        stored.ifPresent(key -> idempotencyKeyCache.put(cacheKey, key));
+
+        return stored;
+    }
+
+    private OrderCreatedDTO replay(IdempotencyKeyEntity key, String requestHash) {
+        if (!key.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyException("Idempotency-Key was already used for a different order");
+        }
+
+        return new OrderCreatedDTO(key.getOrderNumber());
+    }
+
+    private String cacheKey(String userEmail, String idempotencyKey) {
+        return userEmail + " " + idempotencyKey;
+    }
+
+    // same lines in any order or split across duplicates hash the same
+    private String requestHash(List<OrderDTO> orderItems) {
+        Map<Long, Integer> productAndQuantity = OrderService.quantitiesByProduct(orderItems);
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(productAndQuantity.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
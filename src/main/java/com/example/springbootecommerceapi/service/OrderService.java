@@ -1,29 +1,64 @@
 package com.example.springbootecommerceapi.service;
 
+import com.example.springbootecommerceapi.config.CacheConfiguration;
 import com.example.springbootecommerceapi.entity.*;
+import com.example.springbootecommerceapi.exception.IdempotencyException;
 import com.example.springbootecommerceapi.exception.OrderException;
+import com.example.springbootecommerceapi.exception.OrderQuantityException;
+import com.example.springbootecommerceapi.exception.OrderTransitionException;
+import com.example.springbootecommerceapi.exception.ProductException;
 import com.example.springbootecommerceapi.exception.ProductOutOfStockException;
 import com.example.springbootecommerceapi.exception.UserException;
 import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.model.OrderDetailsDTO;
+import com.example.springbootecommerceapi.model.OrderDetailsRow;
+import com.example.springbootecommerceapi.model.OrderLineDTO;
+import com.example.springbootecommerceapi.model.OrderPage;
 import com.example.springbootecommerceapi.model.OrderStatus;
 import com.example.springbootecommerceapi.model.OutOfStockItemDTO;
+import com.example.springbootecommerceapi.repository.IdempotencyKeyRepository;
 import com.example.springbootecommerceapi.repository.OrderItemRepository;
 import com.example.springbootecommerceapi.repository.OrderRepository;
+import com.example.springbootecommerceapi.repository.OrderSpecifications;
 import com.example.springbootecommerceapi.repository.ProductRepository;
 import com.example.springbootecommerceapi.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
 public class OrderService {
+    // keyset order of the order history, the order number breaks ties between equal dates
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "datePlaced", "orderNumber");
+
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
     private final OrderItemService orderItemService;
     private final OrderItemRepository orderItemRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final CacheManager cacheManager;
+    private final Counter ordersPlaced;
+    private final Counter outOfStockRejections;
+    @Value("${ecommerce.orders.page-size:20}")
+    private int defaultPageSize;
+    @Value("${ecommerce.orders.max-page-size:100}")
+    private int maxPageSize;
 
     @Autowired
     public OrderService(
@@ -31,18 +66,56 @@ public class OrderService {
             UserRepository userRepository,
             OrderRepository orderRepository,
             OrderItemService orderItemService,
-            OrderItemRepository orderItemRepository
+            OrderItemRepository orderItemRepository,
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            CacheManager cacheManager,
+            MeterRegistry meterRegistry
     ) {
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.orderRepository = orderRepository;
         this.orderItemService = orderItemService;
         this.orderItemRepository = orderItemRepository;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.cacheManager = cacheManager;
+        this.ordersPlaced = Counter.builder("ecommerce.orders.placed")
+                .description("Orders placed")
+                .register(meterRegistry);
+        this.outOfStockRejections = Counter.builder("ecommerce.orders.rejected")
+                .description("Orders rejected because a product did not have enough stock")
+                .tag("reason", "out_of_stock")
+                .register(meterRegistry);
     }
 
 
 
-    public void createOrder(List<OrderDTO> orderItems, String userEmail) {
+    @Transactional
+    public long createOrder(List<OrderDTO> orderItems, String userEmail) {
+        return createOrder(orderItems, userEmail, null);
+    }
+
+    /*
+    The idempotency key row is inserted before any stock is reserved and commits with the
+    order. A concurrent request with the same key blocks on the unique index until this
+    transaction ends and then fails, instead of placing a second order. Only a failure on that
+    unique index becomes an IdempotencyException, any other constraint violation propagates.
+     */
+    @Transactional
+    public long createOrder(List<OrderDTO> orderItems, String userEmail, IdempotencyKeyEntity idempotencyKey) {
+        if (idempotencyKey != null) {
+            try {
+                idempotencyKeyRepository.saveAndFlush(idempotencyKey);
+            } catch (DataIntegrityViolationException e) {
+                if (!violates(e, IdempotencyKeyEntity.CUSTOMER_KEY_UNIQUE)) {
+                    throw e;
+                }
+                throw new IdempotencyException("A request with this Idempotency-Key is still in progress");
+            } catch (ConcurrencyFailureException e) {
+                // timed out waiting on the unique index, the other request has not committed yet
+                throw new IdempotencyException("A request with this Idempotency-Key is still in progress");
+            }
+        }
+
         // retrieve user
         Optional<UserEntity> user = userRepository.findByEmail(userEmail);
 
@@ -50,80 +123,187 @@ public class OrderService {
             throw new UserException("User does not exist");
         }
 
-        // generate list of object to retrieve from db
-        Map<Long, Integer> productAndQuantity = new HashMap<>();
+        // generate list of object to retrieve from db, sorted so rows are always locked in the same order
+        Map<Long, Integer> productAndQuantity = quantitiesByProduct(orderItems);
 
-        for (OrderDTO item : orderItems) {
-            productAndQuantity.put(item.getProductNumber(), item.getQuantity());
+        // reserve stock with a conditional update per product, no read-modify-write
+        List<Long> notReserved = new ArrayList<>();
+
+        for (Map.Entry<Long, Integer> entry : productAndQuantity.entrySet()) {
+            int updated = productRepository.decrementStock(entry.getKey(), entry.getValue());
+
+            if (updated == 0) {
+                notReserved.add(entry.getKey());
+            }
         }
 
-        // fetch all products from db;
-        List<ProductEntity> products = productRepository.findAllById(productAndQuantity.keySet());
+        // fetch all products from db, stock already reflects the reservation
+        List<ProductEntity> products = productRepository.findByProductNumberIn(productAndQuantity.keySet());
 
-        // get products for which there is not enough inventory to satisfy purchase
-        List<OutOfStockItemDTO> outOfStock = new ArrayList<>();
+        if (notReserved.size() > 0) {
+            // get products for which there is not enough inventory to satisfy purchase
+            List<OutOfStockItemDTO> outOfStock = new ArrayList<>();
 
-        for (ProductEntity product : products) {
-            if (productAndQuantity.get(product.getProductNumber()) > product.getProductStock()) {
-                OutOfStockItemDTO item = new OutOfStockItemDTO(
-                        product.getProductName(),
-                        product.getProductStock(),
-                        productAndQuantity.get(product.getProductNumber()));
-                outOfStock.add(item);
+            for (ProductEntity product : products) {
+                if (notReserved.contains(product.getProductNumber())) {
+                    OutOfStockItemDTO item = new OutOfStockItemDTO(
+                            product.getProductName(),
+                            product.getProductStock(),
+                            productAndQuantity.get(product.getProductNumber()));
+                    outOfStock.add(item);
+                }
+            }
+
+            if (outOfStock.size() < notReserved.size()) {
+                throw new ProductException("Product does not exist");
             }
-        }
 
-        if (outOfStock.size() > 0) {
+            // rolls back the reservations made for the other lines
+            outOfStockRejections.increment();
             throw new ProductOutOfStockException(outOfStock);
         }
 
-
         // create and save order
         OrderEntity orderEntity = new OrderEntity(user.get());
         OrderEntity savedOrder = orderRepository.save(orderEntity);
 
+        orderItemService.saveItems(savedOrder, products, productAndQuantity);
 
-        // update product stock quantity of products purchased
-        for (ProductEntity product: products) {
-            product.setProductStock(
-                    product.getProductStock() -
-                            productAndQuantity.get(product.getProductNumber()));
-        }
+        evictProducts(productAndQuantity.keySet());
 
-        productRepository.saveAll(products);
+        if (idempotencyKey != null) {
+            idempotencyKey.setOrderNumber(savedOrder.getOrderNumber());
+        }
 
-        orderItemService.saveItems(savedOrder, products, productAndQuantity);
+        ordersPlaced.increment();
+        return savedOrder.getOrderNumber();
     }
 
-    public List<OrderEntity> getAllOrdersFromCustomer(String userEmail) {
-        // get customer
-        Optional<UserEntity> customer = userRepository.findByEmail(userEmail);
+    public OrderPage getCustomerOrders(
+            String userEmail,
+            OrderStatus status,
+            LocalDateTime from,
+            LocalDateTime to,
+            String cursor,
+            Integer size
+    ) {
+        int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        Specification<OrderEntity> specification = OrderSpecifications.matching(userEmail, status, from, to);
 
-        if (customer.isEmpty()) {
-            throw new UserException("User does not exist");
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            specification = specification.and(
+                    OrderSpecifications.before(LocalDateTime.parse(position[0]), Long.parseLong(position[1])));
+        }
+
+        // fetch one extra row to know whether there is a next page
+        List<OrderEntity> orders = orderRepository.findPage(specification, NEWEST_FIRST, pageSize + 1);
+
+        if (orders.size() <= pageSize) {
+            return new OrderPage(orders, null);
         }
 
-        return orderRepository.findByCustomer(customer.get());
+        orders = orders.subList(0, pageSize);
+        OrderEntity last = orders.get(pageSize - 1);
+        String next = encodeCursor(last.getDatePlaced() + "|" + last.getOrderNumber());
+
+        return new OrderPage(orders, next);
     }
 
-    public List<OrderItemEntity> getOrderItems(long orderNumber, String username) {
-        List<OrderItemEntity> orderItems = orderItemRepository.getOrderItemsFromOrder(orderNumber, username);
-        return orderItems;
+    public OrderDetailsDTO getOrderDetails(long orderNumber, String username) {
+        List<OrderDetailsRow> rows = orderItemRepository.getOrderDetails(orderNumber, username);
+
+        if (rows.isEmpty()) {
+            throw new OrderException("Either order does not exist or does not belong to given customer");
+        }
+
+        OrderDetailsRow header = rows.get(0);
+        OrderDetailsDTO orderDetails = new OrderDetailsDTO(
+                header.orderNumber(), header.datePlaced(), header.dateShipped(),
+                header.dateDelivered(), header.status());
+
+        for (OrderDetailsRow row : rows) {
+            orderDetails.getItems().add(new OrderLineDTO(
+                    row.productNumber(), row.productName(), row.priceEach(), row.quantity()));
+        }
+
+        return orderDetails;
     }
 
+    @Transactional
     public void cancelCustomerOrder(long orderNumber, String email) {
-        Optional<OrderEntity> order = orderRepository
-                .findByOrderNumberAndCustomerEmail(orderNumber, email);
+        int updated = orderRepository.cancelOrder(
+                orderNumber, email, OrderStatus.sourcesOf(OrderStatus.CANCELLED));
+
+        if (updated > 0) {
+            // only the request that cancelled the order gets here, so stock is returned once
+            List<Long> productNumbers = orderItemRepository.findProductNumbers(orderNumber);
+            productRepository.restockOrder(orderNumber, productNumbers);
+            evictProducts(productNumbers);
+            return;
+        }
+
+        // the conditional update matched nothing, read the order only to explain why
+        Optional<OrderStatus> status = orderRepository.findStatus(orderNumber, email);
 
-        if (order.isEmpty()) {
+        if (status.isEmpty()) {
             throw new OrderException("Either order does not exist or does not belong to given customer");
         }
 
-        if (!order.get().getStatus().equals(OrderStatus.PROCESSING)) {
-            throw new OrderException("Order cannot be cancelled. Is is in transit or has been delivered.");
+        // cancelling twice is not an error
+        if (status.get() != OrderStatus.CANCELLED) {
+            throw new OrderTransitionException(
+                    "Order cannot be cancelled. Is is in transit or has been delivered.", status.get());
         }
+    }
+
+    // quantities of a product listed more than once are added up, a total past int is rejected
+    static Map<Long, Integer> quantitiesByProduct(List<OrderDTO> orderItems) {
+        Map<Long, Integer> productAndQuantity = new TreeMap<>();
 
-        order.get().setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order.get());
+        for (OrderDTO item : orderItems) {
+            try {
+                productAndQuantity.merge(item.getProductNumber(), item.getQuantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new OrderQuantityException(
+                        "Quantity ordered of product " + item.getProductNumber() + " is too large");
+            }
+        }
+        return productAndQuantity;
+    }
+
+    private boolean violates(DataIntegrityViolationException exception, String constraint) {
+        if (!(exception.getCause() instanceof ConstraintViolationException violation)
+                || violation.getConstraintName() == null) {
+            return false;
+        }
+
+        // the database reports the index backing the constraint, upper cased and qualified
+        return violation.getConstraintName().toUpperCase(Locale.ROOT).contains(constraint.toUpperCase(Locale.ROOT));
+    }
+
+    // cached products now hold outdated stock, evicted once the transaction commits
+    private void evictProducts(Collection<Long> productNumbers) {
+        Cache productCache = cacheManager.getCache(CacheConfiguration.PRODUCTS);
+
+        for (Long productNumber : productNumbers) {
+            productCache.evict(productNumber);
+        }
+    }
+
+    private String encodeCursor(String position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new OrderException("Invalid cursor");
+        }
     }
 }
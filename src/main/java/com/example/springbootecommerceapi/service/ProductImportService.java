@@ -0,0 +1,414 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.config.CacheConfiguration;
+import com.example.springbootecommerceapi.config.HibernateCacheConfiguration;
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.exception.ProductException;
+import com.example.springbootecommerceapi.model.ProductImportError;
+import com.example.springbootecommerceapi.model.ProductImportReport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/*
+Bulk catalog import. Rows are parsed as they are read and applied in chunks, each chunk in a
+transaction of its own: one query finds which names already exist, those products are updated
+and the others inserted, both as jdbc batches. Going through the persistence context would
+double the cost of a row, so the caches Hibernate would keep up to date are evicted here. Rows
+that cannot be parsed or validated are reported by line and never reach the database, a chunk
+that fails to save is reported as a whole and earlier chunks stay imported.
+ */
+@Service
+public class ProductImportService {
+
+    private static final List<String> CSV_COLUMNS =
+            List.of("productName", "productStock", "productDescription", "productPrice");
+    private static final String INSERT_PRODUCT = "insert into product (product_number, product_name, " +
+            "product_name_key, product_stock, product_description, product_price) values (?, ?, ?, ?, ?, ?)";
+    private static final String FIND_PRODUCTS = "select product_number, product_name, product_stock, " +
+            "product_description, product_price from product where product_name in ";
+    // columns the row did not supply are bound as null and keep their value
+    private static final String UPDATE_PRODUCT = "update product set " +
+            "product_stock = coalesce(?, product_stock), " +
+            "product_description = coalesce(?, product_description), " +
+            "product_price = coalesce(?, product_price) " +
+            "where product_number = ?";
+
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader productReader;
+    private final Validator validator;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestionService productSuggestionService;
+    private final CacheManager cacheManager;
+    @Value("${ecommerce.products.import.chunk-size:5000}")
+    private int chunkSize;
+    @Value("${ecommerce.products.import.batch-size:500}")
+    private int batchSize;
+    @Value("${ecommerce.products.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Autowired
+    public ProductImportService(
+            EntityManager entityManager,
+            EntityManagerFactory entityManagerFactory,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            Validator validator,
+            ProductSearchIndex productSearchIndex,
+            ProductSuggestionService productSuggestionService,
+            CacheManager cacheManager
+    ) {
+        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.productReader = objectMapper.readerFor(ProductEntity.class);
+        this.validator = validator;
+        this.productSearchIndex = productSearchIndex;
+        this.productSuggestionService = productSuggestionService;
+        this.cacheManager = cacheManager;
+    }
+
+    // header line naming the columns, in any order, productName is the only one required
+    public ProductImportReport importCsv(InputStream csv) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8)));
+        List<String> header = reader.read();
+
+        if (header == null || !header.contains("productName")) {
+            throw new ProductException("CSV header must name the productName column");
+        }
+
+        for (String column : header) {
+            if (!CSV_COLUMNS.contains(column)) {
+                throw new ProductException("Unknown CSV column: " + column);
+            }
+        }
+
+        Set<String> fields = Set.copyOf(header);
+        ProductImportReport report = new ProductImportReport();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        while (true) {
+            List<String> record;
+
+            try {
+                record = reader.read();
+            } catch (IllegalArgumentException e) {
+                // only an unclosed quote gets here, it swallowed the rest of the input
+                reject(report, reader.line(), e.getMessage());
+                break;
+            }
+
+            if (record == null) {
+                break;
+            }
+
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+
+            try {
+                offer(chunk, report, reader.line(), parseCsvRecord(header, record), fields);
+            } catch (IllegalArgumentException e) {
+                reject(report, reader.line(), e.getMessage());
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        return report;
+    }
+
+    // one json product per line, the same fields POST /products accepts
+    public ProductImportReport importNdjson(InputStream ndjson) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        ProductImportReport report = new ProductImportReport();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            if (line.isBlank()) {
+                continue;
+            }
+
+            ProductEntity product;
+            Set<String> fields = new HashSet<>();
+
+            try {
+                JsonNode node = productReader.readTree(line);
+                product = productReader.readValue(node);
+                node.fieldNames().forEachRemaining(fields::add);
+            } catch (JsonProcessingException e) {
+                reject(report, lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+
+            offer(chunk, report, lineNumber, product, fields);
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        return report;
+    }
+
+    private void offer(
+            List<ImportRow> chunk,
+            ProductImportReport report,
+            long line,
+            ProductEntity product,
+            Set<String> fields
+    ) {
+        Set<ConstraintViolation<ProductEntity>> violations = validator.validate(product);
+
+        if (!violations.isEmpty()) {
+            reject(report, line, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return;
+        }
+
+        chunk.add(new ImportRow(line, product, fields));
+
+        if (chunk.size() == chunkSize) {
+            importChunk(chunk, report);
+            chunk.clear();
+        }
+    }
+
+    private void importChunk(List<ImportRow> chunk, ProductImportReport report) {
+        ChunkResult result;
+
+        try {
+            result = upsert(chunk);
+        } catch (DataAccessException e) {
+            // most likely a product of the same name added meanwhile, the second lookup sees it
+            try {
+                result = upsert(chunk);
+            } catch (DataAccessException retryException) {
+                for (ImportRow row : chunk) {
+                    reject(report, row.line(), "Not imported, its chunk could not be saved");
+                }
+                return;
+            }
+        }
+
+        // rows were written behind hibernate's back, cached copies and cached name lookups are dropped
+        org.hibernate.Cache secondLevelCache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+        Cache productCache = cacheManager.getCache(CacheConfiguration.PRODUCTS);
+
+        for (ProductEntity product : result.updated()) {
+            secondLevelCache.evictEntityData(ProductEntity.class, product.getProductNumber());
+            productCache.evict(product.getProductNumber());
+        }
+
+        secondLevelCache.evictQueryRegion(HibernateCacheConfiguration.PRODUCT_QUERY_REGION);
+
+        report.setCreated(report.getCreated() + result.created().size());
+        report.setUpdated(report.getUpdated() + result.updated().size() + result.repeated());
+        productSearchIndex.index(result.created());
+        productSearchIndex.index(result.updated());
+
+        if (!result.created().isEmpty()) {
+            productSuggestionService.catalogChanged();
+        }
+    }
+
+    private ChunkResult upsert(List<ImportRow> chunk) {
+        return transactionTemplate.execute(status -> {
+            Set<String> names = new HashSet<>();
+
+            for (ImportRow row : chunk) {
+                names.add(row.product().getProductName());
+            }
+
+            // the uniqueness check of addProduct for the whole chunk at once, current values are kept
+            // so the search index can be given the complete product after a partial update
+            Map<String, ProductEntity> existing = new HashMap<>();
+            String placeholders = String.join(", ", Collections.nCopies(names.size(), "?"));
+            jdbcTemplate.query(FIND_PRODUCTS + "(" + placeholders + ")",
+                    resultSet -> {
+                        existing.put(resultSet.getString(2), new ProductEntity(resultSet.getLong(1),
+                                resultSet.getString(2), resultSet.getInt(3), resultSet.getString(4),
+                                resultSet.getFloat(5)));
+                    },
+                    names.toArray());
+
+            // numbers come from the same pooled generator as products saved through hibernate
+            SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+            IdentifierGenerator generator = session.getFactory().getMetamodel()
+                    .entityPersister(ProductEntity.class).getIdentifierGenerator();
+            // a name repeated within the chunk is merged, later rows win for the fields they supply
+            Map<String, ProductUpsert> created = new LinkedHashMap<>();
+            Map<String, ProductUpsert> updated = new LinkedHashMap<>();
+            int repeated = 0;
+
+            for (ImportRow row : chunk) {
+                String name = row.product().getProductName();
+                ProductEntity current = existing.get(name);
+                Map<String, ProductUpsert> target = current == null ? created : updated;
+                ProductUpsert upsert = target.get(name);
+
+                if (upsert != null) {
+                    repeated++;
+                } else if (current == null) {
+                    upsert = new ProductUpsert(
+                            new ProductEntity((Long) generator.generate(session, null), name, 0, null, 0));
+                    target.put(name, upsert);
+                } else {
+                    upsert = new ProductUpsert(current);
+                    target.put(name, upsert);
+                }
+
+                upsert.apply(row);
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT, created.values(), batchSize, (statement, upsert) -> {
+                ProductEntity product = upsert.product;
+                statement.setLong(1, product.getProductNumber());
+                statement.setString(2, product.getProductName());
+                statement.setString(3, product.getProductNameKey());
+                statement.setInt(4, product.getProductStock());
+                statement.setString(5, product.getProductDescription());
+                statement.setFloat(6, (float) product.getProductPrice());
+            });
+            jdbcTemplate.batchUpdate(UPDATE_PRODUCT, updated.values(), batchSize, (statement, upsert) -> {
+                statement.setObject(1, upsert.stock, Types.INTEGER);
+                statement.setObject(2, upsert.description, Types.VARCHAR);
+                statement.setObject(3, upsert.price, Types.REAL);
+                statement.setLong(4, upsert.product.getProductNumber());
+            });
+
+            return new ChunkResult(products(created.values()), products(updated.values()), repeated);
+        });
+    }
+
+    private static List<ProductEntity> products(Collection<ProductUpsert> upserts) {
+        List<ProductEntity> products = new ArrayList<>(upserts.size());
+
+        for (ProductUpsert upsert : upserts) {
+            products.add(upsert.product);
+        }
+
+        return products;
+    }
+    private ProductEntity parseCsvRecord(List<String> header, List<String> record) {
+        if (record.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields but found " + record.size());
+        }
+
+        ProductEntity product = new ProductEntity();
+
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i);
+            String value = record.get(i);
+
+            if (column.equals("productName")) {
+                product.setProductName(value);
+            } else if (column.equals("productDescription")) {
+                product.setProductDescription(value.isEmpty() ? null : value);
+            } else if (column.equals("productStock")) {
+                product.setProductStock(value.isBlank() ? 0 : parseNumber(column, value).intValue());
+            } else {
+                product.setProductPrice(value.isBlank() ? 0 : parseNumber(column, value).floatValue());
+            }
+        }
+
+        return product;
+    }
+
+    private static Number parseNumber(String column, String value) {
+        try {
+            return column.equals("productStock") ? Integer.valueOf(value.strip()) : Float.valueOf(value.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private void reject(ProductImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ProductImportError(line, message));
+        }
+    }
+
+    // fields are the csv columns or json properties the row supplied, only those are imported
+    private record ImportRow(long line, ProductEntity product, Set<String> fields) {
+    }
+
+    // rows repeating a name earlier in their chunk are counted as updates of it
+    private record ChunkResult(List<ProductEntity> created, List<ProductEntity> updated, int repeated) {
+    }
+
+    /*
+    What one name of a chunk becomes. product holds the values to insert or index, the other
+    fields the values to update with, null where no row supplied the column. As in the product
+    patch, a supplied empty description keeps the current one.
+     */
+    private static final class ProductUpsert {
+        private final ProductEntity product;
+        private Integer stock;
+        private String description;
+        private Float price;
+
+        private ProductUpsert(ProductEntity product) {
+            this.product = product;
+        }
+
+        private void apply(ImportRow row) {
+            ProductEntity imported = row.product();
+
+            if (row.fields().contains("productStock")) {
+                stock = imported.getProductStock();
+                product.setProductStock(stock);
+            }
+
+            if (row.fields().contains("productDescription")) {
+                description = imported.getProductDescription();
+                product.setProductDescription(description);
+            }
+
+            if (row.fields().contains("productPrice")) {
+                price = (float) imported.getProductPrice();
+                product.setProductPrice(price);
+            }
+        }
+    }
+}
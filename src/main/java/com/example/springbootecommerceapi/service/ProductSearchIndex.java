@@ -0,0 +1,617 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.ProductSearchHit;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+In-memory inverted index over product name and description. Every term points to the
+products containing it, sorted by an internal document number, with how often it occurs in
+the name and in the description. Queries are matched term by term, every query term has to
+match (exactly, as a prefix of a longer term or with a typo) and products are ranked with
+BM25, name matches weighing more than description matches.
+
+Changed products are appended as new documents and their old document is only marked as
+deleted, the index is compacted once deleted documents outnumber live ones. Searches run
+concurrently, writes are serialized behind them.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    // an exact term beats a longer term it is a prefix of, which beats a misspelled one
+    private static final float PREFIX_WEIGHT = 0.7f;
+    private static final float TYPO_WEIGHT = 0.5f;
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_ONE_TYPO_LENGTH = 4;
+    private static final int MIN_TWO_TYPOS_LENGTH = 8;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // scratch space sized to the catalog, pooled rather than per thread so idle request threads hold none
+    private final BlockingQueue<Accumulator> accumulators =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+    private Segment segment = new Segment();
+
+    public List<ProductSearchHit> search(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(ProductTokenizer.tokenize(query)));
+
+        if (queryTerms.size() > MAX_QUERY_TERMS) {
+            queryTerms = queryTerms.subList(0, MAX_QUERY_TERMS);
+        }
+
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Accumulator accumulator = Optional.ofNullable(accumulators.poll()).orElseGet(Accumulator::new);
+
+        lock.readLock().lock();
+        try {
+            return segment.search(queryTerms, limit, accumulator);
+        } finally {
+            lock.readLock().unlock();
+            accumulators.offer(accumulator);
+        }
+    }
+
+    public void index(ProductEntity product) {
+        List<String> nameTerms = ProductTokenizer.tokenize(product.getProductName());
+        List<String> descriptionTerms = ProductTokenizer.tokenize(product.getProductDescription());
+
+        lock.writeLock().lock();
+        try {
+            segment.remove(product.getProductNumber());
+            segment.add(product.getProductNumber(), product.getProductName(), product.getProductPrice(),
+                    nameTerms, descriptionTerms);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // tokenizes outside the lock and takes it once, imports index thousands of products at a time
+    public void index(Collection<ProductEntity> products) {
+        List<List<String>> nameTerms = new ArrayList<>(products.size());
+        List<List<String>> descriptionTerms = new ArrayList<>(products.size());
+
+        for (ProductEntity product : products) {
+            nameTerms.add(ProductTokenizer.tokenize(product.getProductName()));
+            descriptionTerms.add(ProductTokenizer.tokenize(product.getProductDescription()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            int i = 0;
+
+            for (ProductEntity product : products) {
+                segment.remove(product.getProductNumber());
+                segment.add(product.getProductNumber(), product.getProductName(), product.getProductPrice(),
+                        nameTerms.get(i), descriptionTerms.get(i));
+                i++;
+            }
+
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productNumber) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(productNumber);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // builds a fresh index aside and swaps it in, searches keep using the old one meanwhile
+    public void rebuild(Iterator<ProductEntity> products) {
+        Segment rebuilt = new Segment();
+
+        while (products.hasNext()) {
+            ProductEntity product = products.next();
+            rebuilt.add(product.getProductNumber(), product.getProductName(), product.getProductPrice(),
+                    ProductTokenizer.tokenize(product.getProductName()),
+                    ProductTokenizer.tokenize(product.getProductDescription()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            segment = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.liveDocuments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (segment.deletedDocuments > Math.max(segment.liveDocuments, 1024)) {
+            segment = segment.compact();
+        }
+    }
+
+    private static final class Segment {
+        private final TreeMap<String, Postings> dictionary = new TreeMap<>();
+        private final Map<Long, Integer> documentByProduct = new HashMap<>();
+        private final BitSet deleted = new BitSet();
+        private long[] productNumbers = new long[16];
+        private String[] productNames = new String[16];
+        private double[] productPrices = new double[16];
+        // name length in the high half, description length in the low half
+        private int[] lengths = new int[16];
+        private int documents;
+        private int liveDocuments;
+        private int deletedDocuments;
+        private long nameLengthSum;
+        private long descriptionLengthSum;
+
+        void add(long productNumber, String productName, double productPrice,
+                 List<String> nameTerms, List<String> descriptionTerms) {
+            int document = documents++;
+
+            if (document == productNumbers.length) {
+                int capacity = document * 2;
+                productNumbers = Arrays.copyOf(productNumbers, capacity);
+                productNames = Arrays.copyOf(productNames, capacity);
+                productPrices = Arrays.copyOf(productPrices, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+
+            productNumbers[document] = productNumber;
+            productNames[document] = productName;
+            productPrices[document] = productPrice;
+            lengths[document] = Math.min(nameTerms.size(), 0xFFFF) << 16 | Math.min(descriptionTerms.size(), 0xFFFF);
+            nameLengthSum += nameTerms.size();
+            descriptionLengthSum += descriptionTerms.size();
+            documentByProduct.put(productNumber, document);
+            liveDocuments++;
+
+            // term -> name frequency in the high half, description frequency in the low half
+            Map<String, Integer> frequencies = new HashMap<>();
+            nameTerms.forEach(term -> frequencies.merge(term, 1 << 16, ProductSearchIndex::addSaturated));
+            descriptionTerms.forEach(term -> frequencies.merge(term, 1, ProductSearchIndex::addSaturated));
+            frequencies.forEach((term, frequency) ->
+                    dictionary.computeIfAbsent(term, key -> new Postings()).add(document, frequency));
+        }
+
+        void remove(long productNumber) {
+            Integer document = documentByProduct.remove(productNumber);
+
+            if (document == null) {
+                return;
+            }
+
+            deleted.set(document);
+            nameLengthSum -= lengths[document] >>> 16;
+            descriptionLengthSum -= lengths[document] & 0xFFFF;
+            liveDocuments--;
+            deletedDocuments++;
+        }
+
+        // copies the live documents, renumbered in their current order so every postings list stays sorted
+        Segment compact() {
+            Segment compacted = new Segment();
+            int[] renumbered = new int[documents];
+
+            for (int document = 0; document < documents; document++) {
+                if (deleted.get(document)) {
+                    renumbered[document] = -1;
+                    continue;
+                }
+
+                int target = compacted.documents;
+                renumbered[document] = target;
+                compacted.add(productNumbers[document], productNames[document], productPrices[document],
+                        List.of(), List.of());
+                compacted.lengths[target] = lengths[document];
+                compacted.nameLengthSum += lengths[document] >>> 16;
+                compacted.descriptionLengthSum += lengths[document] & 0xFFFF;
+            }
+
+            dictionary.forEach((term, postings) -> {
+                Postings live = new Postings();
+
+                for (int i = 0; i < postings.size; i++) {
+                    int target = renumbered[postings.documents[i]];
+
+                    if (target >= 0) {
+                        live.add(target, postings.frequencies[i]);
+                    }
+                }
+
+                if (live.size > 0) {
+                    compacted.dictionary.put(term, live);
+                }
+            });
+
+            return compacted;
+        }
+
+        List<ProductSearchHit> search(List<String> queryTerms, int limit, Accumulator accumulator) {
+            List<List<Match>> clauses = new ArrayList<>(queryTerms.size());
+
+            for (String queryTerm : queryTerms) {
+                List<Match> clause = expand(queryTerm);
+
+                if (clause.isEmpty()) {
+                    // every query term has to match, one that matches nothing ends the search
+                    return List.of();
+                }
+
+                clauses.add(clause);
+            }
+
+            // the rarest clause goes first, later clauses only score the documents it matched
+            clauses.sort(Comparator.comparingLong(Segment::postingsCount));
+
+            LengthNorms norms = new LengthNorms(
+                    Math.max(1f, (float) nameLengthSum / Math.max(liveDocuments, 1)),
+                    Math.max(1f, (float) descriptionLengthSum / Math.max(liveDocuments, 1)));
+            accumulator.begin(documents);
+
+            for (Match match : clauses.get(0)) {
+                scoreAll(match, 0, accumulator, norms);
+            }
+
+            // candidates of a single term come out in document order, a merge of several needs sorting
+            boolean candidatesSorted = clauses.get(0).size() == 1;
+            long remainingPostings = 0;
+            for (int clause = 1; clause < clauses.size(); clause++) {
+                remainingPostings += postingsCount(clauses.get(clause));
+            }
+            int candidates = accumulator.touched;
+
+            if (!candidatesSorted && (long) candidates * (32 - Integer.numberOfLeadingZeros(candidates))
+                    < remainingPostings) {
+                Arrays.sort(accumulator.touchedDocuments, 0, candidates);
+                candidatesSorted = true;
+            }
+
+            for (int clause = 1; clause < clauses.size(); clause++) {
+                for (Match match : clauses.get(clause)) {
+                    // walk whichever side is shorter, the postings or the candidates
+                    if (candidatesSorted && match.postings.size > candidates) {
+                        scoreCandidates(match, clause, accumulator, norms);
+                    } else {
+                        scoreAll(match, clause, accumulator, norms);
+                    }
+                }
+            }
+
+            return topHits(accumulator, clauses.size(), limit);
+        }
+
+        private List<Match> expand(String queryTerm) {
+            List<Match> matches = new ArrayList<>();
+            Postings exact = dictionary.get(queryTerm);
+
+            if (exact != null) {
+                matches.add(new Match(exact, 1.0f));
+            }
+
+            if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+                for (Map.Entry<String, Postings> entry : dictionary.tailMap(queryTerm, false).entrySet()) {
+                    if (!entry.getKey().startsWith(queryTerm) || matches.size() > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+
+                    matches.add(new Match(entry.getValue(), PREFIX_WEIGHT));
+                }
+            }
+
+            if (matches.isEmpty() && queryTerm.length() >= MIN_ONE_TYPO_LENGTH) {
+                int maxTypos = queryTerm.length() >= MIN_TWO_TYPOS_LENGTH ? 2 : 1;
+                // misspellings are looked up among the terms sharing their first letter only
+                String first = queryTerm.substring(0, 1);
+
+                for (Map.Entry<String, Postings> entry
+                        : dictionary.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+                    if (Math.abs(entry.getKey().length() - queryTerm.length()) <= maxTypos
+                            && editDistance(queryTerm, entry.getKey(), maxTypos) <= maxTypos) {
+                        matches.add(new Match(entry.getValue(), TYPO_WEIGHT));
+                    }
+                }
+            }
+
+            return matches;
+        }
+
+        private void scoreAll(Match match, int clause, Accumulator accumulator,
+                              LengthNorms norms) {
+            Postings postings = match.postings;
+            float weight = match.weight * idf(postings);
+
+            for (int i = 0; i < postings.size; i++) {
+                int document = postings.documents[i];
+
+                // a deleted document never matches, touching it would repeat for every expansion
+                if (deleted.get(document)) {
+                    continue;
+                }
+
+                if (clause == 0 && accumulator.matched(document) == 0) {
+                    accumulator.touch(document);
+                }
+
+                score(document, postings.frequencies[i], weight, clause, accumulator,
+                        norms);
+            }
+        }
+
+        // gallops through the postings to each remaining candidate instead of reading every entry
+        private void scoreCandidates(Match match, int clause, Accumulator accumulator,
+                                     LengthNorms norms) {
+            Postings postings = match.postings;
+            float weight = match.weight * idf(postings);
+            int position = 0;
+
+            for (int i = 0; i < accumulator.touched && position < postings.size; i++) {
+                int document = accumulator.touchedDocuments[i];
+
+                if (accumulator.matched(document) < clause) {
+                    continue;
+                }
+
+                int step = 1;
+                while (position + step < postings.size && postings.documents[position + step] < document) {
+                    step <<= 1;
+                }
+
+                int found = Arrays.binarySearch(postings.documents, position,
+                        Math.min(position + step + 1, postings.size), document);
+
+                if (found >= 0) {
+                    score(document, postings.frequencies[found], weight, clause, accumulator,
+                            norms);
+                    position = found + 1;
+                } else {
+                    position = -found - 1;
+                }
+            }
+        }
+
+        private void score(int document, int frequency, float weight, int clause, Accumulator accumulator,
+                           LengthNorms norms) {
+            int matchedClauses = accumulator.matched(document);
+
+            if (matchedClauses < clause || deleted.get(document)) {
+                return;
+            }
+
+            int length = lengths[document];
+            float termFrequency =
+                    NAME_WEIGHT * (frequency >>> 16) * norms.name(length >>> 16)
+                    + DESCRIPTION_WEIGHT * (frequency & 0xFFFF) * norms.description(length & 0xFFFF);
+            float score = weight * termFrequency * (K1 + 1) / (termFrequency + K1);
+
+            if (matchedClauses == clause) {
+                accumulator.match(document, clause + 1);
+                // the first clause overwrites whatever an earlier search left behind
+                accumulator.scores[document] = clause == 0 ? score : accumulator.scores[document] + score;
+                accumulator.clauseScores[document] = score;
+            } else if (score > accumulator.clauseScores[document]) {
+                // several expansions of one query term matched, only the best one counts
+                accumulator.scores[document] += score - accumulator.clauseScores[document];
+                accumulator.clauseScores[document] = score;
+            }
+        }
+
+        private float idf(Postings postings) {
+            float idf = (float) Math.log(1 + (liveDocuments - postings.size + 0.5) / (postings.size + 0.5));
+            return Math.max(idf, 0.01f);
+        }
+
+        private List<ProductSearchHit> topHits(Accumulator accumulator, int clauses, int limit) {
+            // min-heap of the best documents so far, the weakest is replaced first
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1,
+                    (left, right) -> beats(accumulator, left, right) ? 1 : beats(accumulator, right, left) ? -1 : 0);
+
+            for (int i = 0; i < accumulator.touched; i++) {
+                int document = accumulator.touchedDocuments[i];
+
+                if (accumulator.matched(document) != clauses) {
+                    continue;
+                }
+
+                if (best.size() < limit) {
+                    best.add(document);
+                } else if (beats(accumulator, document, best.peek())) {
+                    // only documents beating the weakest kept one are boxed into the heap
+                    best.poll();
+                    best.add(document);
+                }
+            }
+
+            ProductSearchHit[] hits = new ProductSearchHit[best.size()];
+
+            for (int i = hits.length - 1; i >= 0; i--) {
+                int document = best.poll();
+                hits[i] = new ProductSearchHit(productNumbers[document], productNames[document],
+                        productPrices[document], accumulator.scores[document]);
+            }
+
+            return Arrays.asList(hits);
+        }
+
+        // higher score first, ties go to the older product
+        private boolean beats(Accumulator accumulator, int document, int other) {
+            float score = accumulator.scores[document];
+            float otherScore = accumulator.scores[other];
+            return score > otherScore || score == otherScore && productNumbers[document] < productNumbers[other];
+        }
+
+        private static long postingsCount(List<Match> clause) {
+            long count = 0;
+
+            for (Match match : clause) {
+                count += match.postings.size;
+            }
+
+            return count;
+        }
+    }
+
+    private static final class Postings {
+        private int[] documents = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    private record Match(Postings postings, float weight) {
+    }
+
+    // BM25 length normalization as a multiplier, worked out once per search for the common lengths
+    private static final class LengthNorms {
+        private static final int CACHED_LENGTHS = 256;
+        private final float averageNameLength;
+        private final float averageDescriptionLength;
+        private final float[] nameNorms = new float[CACHED_LENGTHS];
+        private final float[] descriptionNorms = new float[CACHED_LENGTHS];
+
+        LengthNorms(float averageNameLength, float averageDescriptionLength) {
+            this.averageNameLength = averageNameLength;
+            this.averageDescriptionLength = averageDescriptionLength;
+
+            for (int length = 0; length < CACHED_LENGTHS; length++) {
+                nameNorms[length] = norm(length, averageNameLength);
+                descriptionNorms[length] = norm(length, averageDescriptionLength);
+            }
+        }
+
+        float name(int length) {
+            return length < CACHED_LENGTHS ? nameNorms[length] : norm(length, averageNameLength);
+        }
+
+        float description(int length) {
+            return length < CACHED_LENGTHS ? descriptionNorms[length] : norm(length, averageDescriptionLength);
+        }
+
+        private static float norm(int length, float averageLength) {
+            return 1 / (1 - B + B * length / averageLength);
+        }
+    }
+
+    /*
+    Scores of one search. Instead of clearing what the previous search touched, every search
+    gets a new epoch and progress stamped with an older epoch reads as no clause matched.
+     */
+    private static final class Accumulator {
+        private static final int CLAUSE_BITS = 6;
+        private float[] scores = new float[0];
+        private float[] clauseScores = new float[0];
+        // epoch in the high bits, number of clauses matched so far in the low bits
+        private int[] states = new int[0];
+        private int[] touchedDocuments = new int[0];
+        private int touched;
+        private int epoch;
+
+        void begin(int documents) {
+            if (scores.length < documents) {
+                int capacity = Math.max(documents, scores.length * 2);
+                scores = new float[capacity];
+                clauseScores = new float[capacity];
+                states = new int[capacity];
+                touchedDocuments = new int[capacity];
+                epoch = 0;
+            }
+
+            if (++epoch == 1 << (Integer.SIZE - CLAUSE_BITS - 1)) {
+                Arrays.fill(states, 0);
+                epoch = 1;
+            }
+
+            touched = 0;
+        }
+
+        int matched(int document) {
+            int state = states[document];
+            return state >>> CLAUSE_BITS == epoch ? state & ((1 << CLAUSE_BITS) - 1) : 0;
+        }
+
+        void match(int document, int clauses) {
+            states[document] = epoch << CLAUSE_BITS | clauses;
+        }
+
+        void touch(int document) {
+            touchedDocuments[touched++] = document;
+        }
+    }
+
+    private static int addSaturated(int left, int right) {
+        int name = Math.min((left >>> 16) + (right >>> 16), 0xFFFF);
+        int description = Math.min((left & 0xFFFF) + (right & 0xFFFF), 0xFFFF);
+        return name << 16 | description;
+    }
+
+    // optimal string alignment distance, gives up as soon as it is certain to exceed max
+    static int editDistance(String source, String target, int max) {
+        int[] previousPrevious = new int[target.length() + 1];
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMinimum = i;
+
+            for (int j = 1; j <= target.length(); j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+
+                if (i > 1 && j > 1 && source.charAt(i - 1) == target.charAt(j - 2)
+                        && source.charAt(i - 2) == target.charAt(j - 1)) {
+                    distance = Math.min(distance, previousPrevious[j - 2] + 1);
+                }
+
+                current[j] = distance;
+                rowMinimum = Math.min(rowMinimum, distance);
+            }
+
+            if (rowMinimum > max) {
+                return max + 1;
+            }
+
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        return previous[target.length()];
+    }
+}
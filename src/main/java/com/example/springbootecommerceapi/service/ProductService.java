@@ -1,29 +1,172 @@
 package com.example.springbootecommerceapi.service;
 
+import com.example.springbootecommerceapi.config.CacheConfiguration;
 import com.example.springbootecommerceapi.entity.ProductEntity;
 import com.example.springbootecommerceapi.exception.ProductException;
+import com.example.springbootecommerceapi.model.ProductFilter;
+import com.example.springbootecommerceapi.model.ProductPage;
+import com.example.springbootecommerceapi.model.ProductPatch;
+import com.example.springbootecommerceapi.model.ProductPatchReport;
+import com.example.springbootecommerceapi.model.ProductSearchHit;
+import com.example.springbootecommerceapi.model.ProductSort;
 import com.example.springbootecommerceapi.model.UpdateProduct;
 import com.example.springbootecommerceapi.repository.ProductRepository;
+import com.example.springbootecommerceapi.repository.ProductSpecifications;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.LongSummaryStatistics;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProductService.class);
+
+    // null keeps the column, the stock delta is 0 when an absolute stock or nothing is given
+    private static final String PATCH_PRODUCT = "update product set " +
+            "product_price = coalesce(?, product_price), " +
+            "product_stock = coalesce(?, product_stock + ?), " +
+            "product_description = coalesce(?, product_description) " +
+            "where product_number = ? and coalesce(?, product_stock + ?) >= 0";
+    private static final String FIND_PRODUCT_NUMBERS =
+            "select product_number from product where product_number in ";
+    private static final String FIND_PRODUCTS = "select product_number, product_name, product_stock, " +
+            "product_description, product_price from product where product_number in ";
+
     private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestionService productSuggestionService;
+    @Value("${ecommerce.products.page-size:20}")
+    private int defaultPageSize;
+    @Value("${ecommerce.products.max-page-size:100}")
+    private int maxPageSize;
+    @Value("${ecommerce.products.bulk-chunk-size:1000}")
+    private int bulkChunkSize;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(
+            ProductRepository productRepository,
+            EntityManager entityManager,
+            EntityManagerFactory entityManagerFactory,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            CacheManager cacheManager,
+            ObjectMapper objectMapper,
+            ProductSearchIndex productSearchIndex,
+            ProductSuggestionService productSuggestionService
+    ) {
         this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.productSearchIndex = productSearchIndex;
+        this.productSuggestionService = productSuggestionService;
+    }
+
+    public ProductPage getProducts(
+            ProductFilter filter,
+            ProductSort sort,
+            Sort.Direction direction,
+            String cursor,
+            Integer size
+    ) {
+        int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        Specification<ProductEntity> specification = ProductSpecifications.matching(filter);
+
+        if (cursor != null) {
+            specification = specification.and(decodeCursor(cursor, sort, direction));
+        }
+
+        // product number breaks ties, so each product has exactly one position and pages never overlap
+        Sort order = sort == null
+                ? Sort.by(direction, "productNumber")
+                : Sort.by(direction, sort.getAttribute(), "productNumber");
+
+        // fetch one extra row to know whether there is a next page
+        List<ProductEntity> products = productRepository.findPage(specification, order, pageSize + 1);
+
+        if (products.size() <= pageSize) {
+            return new ProductPage(products, null);
+        }
+
+        products = products.subList(0, pageSize);
+        String next = encodeCursor(sort, products.get(pageSize - 1));
+
+        return new ProductPage(products, next);
     }
 
-    public List<ProductEntity> getAllProducts() {
-        return productRepository.findAll();
+    public List<ProductSearchHit> searchProducts(String query, Integer size) {
+        int limit = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        return productSearchIndex.search(query, limit);
     }
 
+    // runs once the catalog is seeded, products are detached as soon as they are indexed
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void indexProducts() {
+        try (Stream<ProductEntity> products = productRepository.streamAll()) {
+            productSearchIndex.rebuild(products.peek(entityManager::detach).iterator());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportProducts(OutputStream outputStream) throws IOException {
+        // write one product per line, detaching each so the persistence context stays empty
+        try (Stream<ProductEntity> products = productRepository.streamAll()) {
+            Iterator<ProductEntity> iterator = products.iterator();
+
+            while (iterator.hasNext()) {
+                ProductEntity product = iterator.next();
+                outputStream.write(objectMapper.writeValueAsBytes(product));
+                outputStream.write('\n');
+                entityManager.detach(product);
+            }
+        }
+        outputStream.flush();
+    }
+
+    @Cacheable(cacheNames = CacheConfiguration.PRODUCTS, key = "#productNumber")
     public ProductEntity getProduct(long productNumber) {
         Optional<ProductEntity> product = productRepository.findById(productNumber);
 
@@ -34,6 +177,8 @@ public class ProductService {
         return product.get();
     }
 
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS, key = "#product.productNumber",
+            condition = "#product.productNumber != null")
     public void addProduct(ProductEntity product) {
         // make sure product name is unique
         boolean exists = productRepository.existsByProductName(product.getProductName());
@@ -42,9 +187,11 @@ public class ProductService {
             throw new ProductException("Product with given name exists");
         }
 
-        productRepository.save(product);
+        productSearchIndex.index(productRepository.save(product));
+        productSuggestionService.catalogChanged();
     }
 
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS, key = "#productNumber")
     public void removeProduct(Long productNumber) {
         // verify product exists
         Optional<ProductEntity> product = productRepository.findById(productNumber);
@@ -54,9 +201,12 @@ public class ProductService {
         }
 
         productRepository.delete(product.get());
+        productSearchIndex.remove(productNumber);
+        productSuggestionService.catalogChanged();
 
     }
 
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS, key = "#productNumber")
     public void updateProduct(UpdateProduct updateData, long productNumber) {
         // check if product exists
         Optional<ProductEntity> product = productRepository.findById(productNumber);
@@ -71,6 +221,170 @@ public class ProductService {
         product.get().setProductPrice(updateData.getPrice());
 
         // save changes
-        productRepository.save(product.get());
+        productSearchIndex.index(productRepository.save(product.get()));
+    }
+
+    // the whole request is checked before any chunk is applied
+    public ProductPatchReport updateProducts(List<ProductPatch> patches) {
+        for (ProductPatch patch : patches) {
+            if (patch.getStock() != null && patch.getStockDelta() != null) {
+                throw new ProductException(
+                        "Stock and stockDelta cannot both be set for product " + patch.getProductNumber());
+            }
+        }
+
+        ProductPatchReport report = new ProductPatchReport();
+
+        for (int from = 0; from < patches.size(); from += bulkChunkSize) {
+            patchChunk(patches.subList(from, Math.min(from + bulkChunkSize, patches.size())), report);
+        }
+
+        return report;
+    }
+
+    /*
+    One transaction and one jdbc batch of the same conditional update per chunk, so repricing
+    thousands of products costs no read and no entity. Patches are applied in request order, a
+    product patched twice gets both. Rows change behind hibernate's back, both product caches
+    are evicted by product number once the chunk is committed and the search index is given the
+    new prices and descriptions. A failure only rolls back its own chunk, its patches are
+    reported as failed and the other chunks are still applied.
+     */
+    private void patchChunk(List<ProductPatch> chunk, ProductPatchReport report) {
+        PatchResult result;
+
+        try {
+            result = patch(chunk);
+        } catch (DataAccessException | TransactionException e) {
+            LongSummaryStatistics productNumbers = chunk.stream()
+                    .mapToLong(ProductPatch::getProductNumber)
+                    .summaryStatistics();
+            log.warn("Patch of {} products numbered {} to {} failed, chunk rolled back",
+                    chunk.size(), productNumbers.getMin(), productNumbers.getMax(), e);
+            report.setFailed(report.getFailed() + chunk.size());
+            return;
+        }
+
+        Cache productCache = cacheManager.getCache(CacheConfiguration.PRODUCTS);
+
+        for (Long productNumber : result.applied()) {
+            entityManagerFactory.getCache().evict(ProductEntity.class, productNumber);
+            productCache.evict(productNumber);
+        }
+
+        productSearchIndex.index(result.reindexed());
+        report.setApplied(report.getApplied() + result.patched());
+        report.setMissing(report.getMissing() + result.missing());
+        report.setRejected(report.getRejected() + result.rejected());
+    }
+
+    private PatchResult patch(List<ProductPatch> chunk) {
+        return transactionTemplate.execute(status -> {
+            List<Object[]> arguments = new ArrayList<>(chunk.size());
+
+            for (ProductPatch patch : chunk) {
+                int stockDelta = patch.getStockDelta() == null ? 0 : patch.getStockDelta();
+                arguments.add(new Object[]{patch.getPrice(), patch.getStock(), stockDelta, patch.getDescription(),
+                        patch.getProductNumber(), patch.getStock(), stockDelta});
+            }
+
+            int[] counts = jdbcTemplate.batchUpdate(PATCH_PRODUCT, arguments);
+            Set<Long> applied = new LinkedHashSet<>();
+            Set<Long> searchable = new LinkedHashSet<>();
+            List<Long> unmatched = new ArrayList<>();
+
+            for (int i = 0; i < chunk.size(); i++) {
+                ProductPatch patch = chunk.get(i);
+
+                if (counts[i] == 0) {
+                    unmatched.add(patch.getProductNumber());
+                    continue;
+                }
+
+                applied.add(patch.getProductNumber());
+
+                if (patch.getPrice() != null || patch.getDescription() != null) {
+                    searchable.add(patch.getProductNumber());
+                }
+            }
+
+            // a patch matching no row names no product or would take its stock below zero
+            Set<Long> existing = unmatched.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(jdbcTemplate.queryForList(
+                            FIND_PRODUCT_NUMBERS + placeholders(unmatched.size()), Long.class, unmatched.toArray()));
+            int missing = 0;
+
+            for (Long productNumber : unmatched) {
+                if (!existing.contains(productNumber)) {
+                    missing++;
+                }
+            }
+
+            List<ProductEntity> reindexed = searchable.isEmpty()
+                    ? List.of()
+                    : jdbcTemplate.query(FIND_PRODUCTS + placeholders(searchable.size()),
+                            (resultSet, row) -> new ProductEntity(resultSet.getLong(1), resultSet.getString(2),
+                                    resultSet.getInt(3), resultSet.getString(4), resultSet.getFloat(5)),
+                            searchable.toArray());
+
+            return new PatchResult(applied, reindexed, chunk.size() - unmatched.size(), missing,
+                    unmatched.size() - missing);
+        });
+    }
+
+    private static String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    // product number alone when ordered by it, otherwise the sort value followed by the product number
+    private String encodeCursor(ProductSort sort, ProductEntity last) {
+        String position = String.valueOf(last.getProductNumber());
+
+        if (sort == ProductSort.PRICE) {
+            position = (float) last.getProductPrice() + "|" + position;
+        } else if (sort == ProductSort.STOCK) {
+            position = last.getProductStock() + "|" + position;
+        } else if (sort == ProductSort.NAME) {
+            position = last.getProductNameKey() + "|" + position;
+        }
+
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Specification<ProductEntity> decodeCursor(String cursor, ProductSort sort, Sort.Direction direction) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+            if (sort == null) {
+                return ProductSpecifications.after(Long.parseLong(position), direction);
+            }
+
+            // names may contain the separator, product numbers never do
+            int separator = position.lastIndexOf('|');
+            String value = position.substring(0, separator);
+            long productNumber = Long.parseLong(position.substring(separator + 1));
+
+            if (sort == ProductSort.PRICE) {
+                return ProductSpecifications.after(sort.getAttribute(), Float.valueOf(value), productNumber, direction);
+            } else if (sort == ProductSort.STOCK) {
+                return ProductSpecifications.after(sort.getAttribute(), Integer.valueOf(value), productNumber, direction);
+            }
+
+            return ProductSpecifications.after(sort.getAttribute(), value, productNumber, direction);
+        } catch (RuntimeException e) {
+            throw new ProductException("Invalid cursor");
+        }
+    }
+
+    // applied holds each patched product once, patched counts every applied patch
+    private record PatchResult(
+            Set<Long> applied,
+            List<ProductEntity> reindexed,
+            int patched,
+            int missing,
+            int rejected
+    ) {
     }
 }
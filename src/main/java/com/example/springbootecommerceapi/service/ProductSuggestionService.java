@@ -0,0 +1,115 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.model.ProductNameRow;
+import com.example.springbootecommerceapi.model.ProductSalesRow;
+import com.example.springbootecommerceapi.model.ProductSuggestion;
+import com.example.springbootecommerceapi.repository.OrderItemRepository;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/*
+Type-ahead suggestions, best sellers first. Reads go to an immutable tree that is replaced
+as a whole: a rebuild happens aside while reads keep using the current tree, then one
+volatile write swaps it in. Catalog changes only mark the tree stale, a burst of them costs
+a single rebuild on the next scheduled run.
+ */
+@Service
+public class ProductSuggestionService {
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean catalogChanged = new AtomicBoolean();
+    private volatile ProductSuggestionTree tree = new ProductSuggestionTree(new long[0], new String[0]);
+    private volatile Instant builtAt = Instant.MIN;
+    // sales change with every order, they are re-read this often even when the catalog did not change
+    @Value("${ecommerce.products.suggestions.popularity-refresh:PT1H}")
+    private Duration popularityRefresh;
+
+    @Autowired
+    public ProductSuggestionService(
+            ProductRepository productRepository,
+            OrderItemRepository orderItemRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        Gauge.builder("ecommerce.products.suggestions.memory", this, service -> service.tree.estimatedBytes())
+                .description("Estimated retained size of the autocomplete tree")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("ecommerce.products.suggestions.products", this, service -> service.tree.size())
+                .description("Products in the autocomplete tree")
+                .register(meterRegistry);
+    }
+
+    public List<ProductSuggestion> suggestProducts(String prefix, Integer size) {
+        int limit = size == null ? ProductSuggestionTree.MAX_SUGGESTIONS
+                : Math.min(size, ProductSuggestionTree.MAX_SUGGESTIONS);
+        return tree.suggest(prefix, limit);
+    }
+
+    public void catalogChanged() {
+        catalogChanged.set(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSuggestions() {
+        // cleared before reading, a change committed while rebuilding triggers the next rebuild
+        catalogChanged.set(false);
+        Instant startedAt = Instant.now();
+
+        tree = transactionTemplate.execute(status -> {
+            Map<Long, Long> unitsSold = new HashMap<>();
+            for (ProductSalesRow row : orderItemRepository.findUnitsSold()) {
+                unitsSold.put(row.productNumber(), row.unitsSold());
+            }
+
+            List<ProductNameRow> products;
+            try (Stream<ProductNameRow> names = productRepository.streamNames()) {
+                products = names.sorted(Comparator
+                                .comparingLong((ProductNameRow row) -> -unitsSold.getOrDefault(row.productNumber(), 0L))
+                                .thenComparing(ProductNameRow::productName))
+                        .toList();
+            }
+
+            long[] productNumbers = new long[products.size()];
+            String[] productNames = new String[products.size()];
+            for (int rank = 0; rank < products.size(); rank++) {
+                productNumbers[rank] = products.get(rank).productNumber();
+                productNames[rank] = products.get(rank).productName();
+            }
+
+            return new ProductSuggestionTree(productNumbers, productNames);
+        });
+        builtAt = startedAt;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${ecommerce.products.suggestions.rebuild-delay:PT10S}",
+            initialDelayString = "${ecommerce.products.suggestions.rebuild-delay:PT10S}"
+    )
+    public void rebuildIfStale() {
+        if (catalogChanged.get() || builtAt.plus(popularityRefresh).isBefore(Instant.now())) {
+            rebuildSuggestions();
+        }
+    }
+}
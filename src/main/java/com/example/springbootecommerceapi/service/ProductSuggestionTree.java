@@ -0,0 +1,351 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.model.ProductSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Immutable radix tree over product names, answering "best products whose name has a word
+starting with this prefix". Every name is inserted once from each of its word starts, so
+"ball" suggests "Soccer Ball". Products are ranked before the tree is built, best first, so a
+product is identified by its rank and the best suggestions below a node are simply the
+smallest ranks in its subtree.
+
+The tree is flattened into parallel arrays instead of node objects. Keys are (rank, offset)
+pairs into the normalized names, so edge labels are never copied, and every node covers a
+contiguous range of the sorted keys. Nodes with a large subtree keep their precomputed top
+ranks, smaller ones are scanned when asked.
+ */
+public final class ProductSuggestionTree {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    // what estimatedBytes may grow to per product for names of a few words, including the names themselves
+    public static final int MEMORY_BUDGET_PER_PRODUCT = 512;
+    // keeps names with many words from multiplying their share of the tree
+    static final int MAX_WORD_STARTS = 8;
+    // subtrees up to this many keys are cheaper to scan than to keep a top list for
+    private static final int SCAN_LIMIT = 4 * MAX_SUGGESTIONS;
+
+    private final long[] productNumbers;
+    private final String[] productNames;
+    private final String[] normalizedNames;
+    // rank in the high half, offset of the word start in the low half, sorted by the suffix they point to
+    private final long[] keys;
+    private int[] keyLow = new int[16];
+    private int[] keyHigh = new int[16];
+    // characters of the key consumed once the edge into the node is followed
+    private int[] depths = new int[16];
+    private int[] firstChildren = new int[16];
+    private int[] nextSiblings = new int[16];
+    // -1 when the subtree is scanned instead, otherwise a count followed by that many ranks
+    private int[] topStarts = new int[16];
+    private int[] tops = new int[64];
+    private int nodes;
+    private int topsSize;
+
+    // productNumbers and productNames are expected best first
+    public ProductSuggestionTree(long[] productNumbers, String[] productNames) {
+        this.productNumbers = productNumbers;
+        this.productNames = productNames;
+        this.normalizedNames = new String[productNames.length];
+
+        long[] unsorted = new long[productNames.length * 2];
+        int keyCount = 0;
+
+        for (int rank = 0; rank < productNames.length; rank++) {
+            String normalized = normalize(productNames[rank]);
+            normalizedNames[rank] = normalized;
+            int wordStarts = 0;
+
+            for (int offset = 0; offset < normalized.length() && wordStarts < MAX_WORD_STARTS; offset++) {
+                if (offset == 0 || normalized.charAt(offset - 1) == ' ') {
+                    if (keyCount == unsorted.length) {
+                        unsorted = Arrays.copyOf(unsorted, keyCount * 2);
+                    }
+                    unsorted[keyCount++] = (long) rank << 32 | offset;
+                    wordStarts++;
+                }
+            }
+        }
+
+        keys = Arrays.copyOf(unsorted, keyCount);
+        sort(keys, new long[keyCount], 0, keyCount);
+
+        int root = newNode(0, keyCount, 0);
+        addChildren(root, 0);
+        trim();
+    }
+
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String query = normalize(prefix);
+
+        if (query.isEmpty() || keys.length == 0) {
+            return List.of();
+        }
+
+        int node = 0;
+
+        while (depths[node] < query.length()) {
+            int depth = depths[node];
+            int child = firstChildren[node];
+
+            while (child >= 0 && charAt(keys[keyLow[child]], depth) != query.charAt(depth)) {
+                child = nextSiblings[child];
+            }
+
+            if (child < 0) {
+                return List.of();
+            }
+
+            // the query may end half way down the edge, only the part it covers has to match
+            for (int i = depth + 1; i < Math.min(depths[child], query.length()); i++) {
+                if (charAt(keys[keyLow[child]], i) != query.charAt(i)) {
+                    return List.of();
+                }
+            }
+
+            node = child;
+        }
+
+        int[] ranks = top(node);
+        int count = Math.min(ranks.length, limit);
+        List<ProductSuggestion> suggestions = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            suggestions.add(new ProductSuggestion(productNumbers[ranks[i]], productNames[ranks[i]]));
+        }
+
+        return suggestions;
+    }
+
+    public int size() {
+        return productNames.length;
+    }
+
+    // retained size in bytes, object headers and references counted as on a 64-bit jvm with compressed oops
+    public long estimatedBytes() {
+        long bytes = 8L * productNumbers.length + 8L * keys.length
+                + 4L * (keyLow.length + keyHigh.length + depths.length + firstChildren.length
+                + nextSiblings.length + topStarts.length + tops.length)
+                + 9 * 16;
+
+        for (int rank = 0; rank < productNames.length; rank++) {
+            bytes += 4 + stringBytes(productNames[rank]) + 4 + stringBytes(normalizedNames[rank]);
+        }
+
+        return bytes;
+    }
+
+    // same text the search index sees, words separated by single spaces
+    static String normalize(String text) {
+        return String.join(" ", ProductTokenizer.tokenize(text));
+    }
+
+    private void addChildren(int node, int depth) {
+        int low = keyLow[node];
+        int high = keyHigh[node];
+        int i = low;
+
+        // keys ending here sort before longer ones sharing the same characters
+        while (i < high && length(keys[i]) == depth) {
+            i++;
+        }
+
+        int previous = -1;
+
+        while (i < high) {
+            char next = charAt(keys[i], depth);
+            int end = i + 1;
+
+            while (end < high && charAt(keys[end], depth) == next) {
+                end++;
+            }
+
+            int child = newNode(i, end, depth + commonPrefix(keys[i], keys[end - 1], depth));
+            addChildren(child, depths[child]);
+
+            if (previous < 0) {
+                firstChildren[node] = child;
+            } else {
+                nextSiblings[previous] = child;
+            }
+
+            previous = child;
+            i = end;
+        }
+
+        if (high - low > SCAN_LIMIT) {
+            storeTop(node);
+        }
+    }
+
+    private int newNode(int low, int high, int depth) {
+        if (nodes == depths.length) {
+            int capacity = nodes * 2;
+            keyLow = Arrays.copyOf(keyLow, capacity);
+            keyHigh = Arrays.copyOf(keyHigh, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            topStarts = Arrays.copyOf(topStarts, capacity);
+        }
+
+        int node = nodes++;
+        keyLow[node] = low;
+        keyHigh[node] = high;
+        depths[node] = depth;
+        firstChildren[node] = -1;
+        nextSiblings[node] = -1;
+        topStarts[node] = -1;
+        return node;
+    }
+
+    // children are complete by now, their tops are merged with the keys ending at this node
+    private void storeTop(int node) {
+        int[] best = new int[MAX_SUGGESTIONS];
+        int count = 0;
+
+        for (int i = keyLow[node]; i < keyHigh[node] && length(keys[i]) == depths[node]; i++) {
+            count = offer(best, count, rank(keys[i]));
+        }
+
+        for (int child = firstChildren[node]; child >= 0; child = nextSiblings[child]) {
+            for (int rank : top(child)) {
+                count = offer(best, count, rank);
+            }
+        }
+
+        if (topsSize + count + 1 > tops.length) {
+            tops = Arrays.copyOf(tops, Math.max(tops.length * 2, topsSize + count + 1));
+        }
+
+        topStarts[node] = topsSize;
+        tops[topsSize++] = count;
+        System.arraycopy(best, 0, tops, topsSize, count);
+        topsSize += count;
+    }
+
+    private int[] top(int node) {
+        if (topStarts[node] >= 0) {
+            int start = topStarts[node];
+            return Arrays.copyOfRange(tops, start + 1, start + 1 + tops[start]);
+        }
+
+        int[] best = new int[MAX_SUGGESTIONS];
+        int count = 0;
+
+        for (int i = keyLow[node]; i < keyHigh[node]; i++) {
+            count = offer(best, count, rank(keys[i]));
+        }
+
+        return Arrays.copyOf(best, count);
+    }
+
+    // keeps best as the smallest distinct ranks seen so far, in ascending order
+    private static int offer(int[] best, int count, int rank) {
+        if (count == best.length && rank >= best[count - 1]) {
+            return count;
+        }
+
+        int position = Arrays.binarySearch(best, 0, count, rank);
+
+        if (position >= 0) {
+            return count;
+        }
+
+        position = -position - 1;
+        int moved = Math.min(count, best.length - 1) - position;
+        System.arraycopy(best, position, best, position + 1, moved);
+        best[position] = rank;
+        return Math.min(count + 1, best.length);
+    }
+
+    private void trim() {
+        keyLow = Arrays.copyOf(keyLow, nodes);
+        keyHigh = Arrays.copyOf(keyHigh, nodes);
+        depths = Arrays.copyOf(depths, nodes);
+        firstChildren = Arrays.copyOf(firstChildren, nodes);
+        nextSiblings = Arrays.copyOf(nextSiblings, nodes);
+        topStarts = Arrays.copyOf(topStarts, nodes);
+        tops = Arrays.copyOf(tops, topsSize);
+    }
+
+    private static int rank(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int offset(long key) {
+        return (int) key;
+    }
+
+    private int length(long key) {
+        return normalizedNames[rank(key)].length() - offset(key);
+    }
+
+    private char charAt(long key, int index) {
+        return normalizedNames[rank(key)].charAt(offset(key) + index);
+    }
+
+    private int commonPrefix(long first, long last, int from) {
+        int limit = Math.min(length(first), length(last));
+        int length = from;
+
+        while (length < limit && charAt(first, length) == charAt(last, length)) {
+            length++;
+        }
+
+        return length - from;
+    }
+
+    // suffixes in character order, equal suffixes by rank
+    private int compare(long left, long right) {
+        String leftName = normalizedNames[rank(left)];
+        String rightName = normalizedNames[rank(right)];
+        int leftOffset = offset(left);
+        int rightOffset = offset(right);
+        int length = Math.min(leftName.length() - leftOffset, rightName.length() - rightOffset);
+
+        for (int i = 0; i < length; i++) {
+            int difference = leftName.charAt(leftOffset + i) - rightName.charAt(rightOffset + i);
+
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        int difference = (leftName.length() - leftOffset) - (rightName.length() - rightOffset);
+        return difference != 0 ? difference : Integer.compare(rank(left), rank(right));
+    }
+
+    // merge sort on the primitive keys, a comparator sort would box every one of them
+    private void sort(long[] values, long[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        sort(values, buffer, from, middle);
+        sort(values, buffer, middle, to);
+
+        if (compare(values[middle - 1], values[middle]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(values, from, buffer, from, to - from);
+
+        for (int i = from, left = from, right = middle; i < to; i++) {
+            if (right >= to || left < middle && compare(buffer[left], buffer[right]) <= 0) {
+                values[i] = buffer[left++];
+            } else {
+                values[i] = buffer[right++];
+            }
+        }
+    }
+
+    private static long stringBytes(String value) {
+        // header and hash, then the latin-1 backing array, each rounded to 8 bytes
+        return 24 + ((16 + value.length() + 7) & ~7);
+    }
+}
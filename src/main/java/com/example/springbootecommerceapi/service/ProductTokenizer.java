@@ -0,0 +1,47 @@
+package com.example.springbootecommerceapi.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/*
+Splits product text into search terms: accents are folded, letters are lower cased and
+anything that is not a letter or a digit separates terms. Queries and indexed products go
+through the same tokenizer, so "Café-Table" finds "cafe table" and the other way around.
+ */
+final class ProductTokenizer {
+
+    // longer runs are part numbers or garbage, they are cut rather than blowing up the dictionary
+    static final int MAX_TERM_LENGTH = 32;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private ProductTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        String lowerCase = folded.toLowerCase(Locale.ROOT);
+        int start = -1;
+
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean termCharacter = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+
+            if (termCharacter && start < 0) {
+                start = i;
+            } else if (!termCharacter && start >= 0) {
+                terms.add(lowerCase.substring(start, Math.min(i, start + MAX_TERM_LENGTH)));
+                start = -1;
+            }
+        }
+
+        return terms;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.exception.TokenException;
+import com.example.springbootecommerceapi.model.LoginRequest;
+import com.example.springbootecommerceapi.model.TokenResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class TokenService {
+
+    public static final String TOKEN_USE = "token_use";
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+    public static final String ROLES = "roles";
+    // ties a refresh token to the password it was issued for
+    private static final String PASSWORD_FINGERPRINT = "pwd";
+
+    private final AuthenticationManager authenticationManager;
+    private final UserDetailsService userDetailsService;
+    private final JwtEncoder jwtEncoder;
+    private final JwtDecoder jwtDecoder;
+    @Value("${ecommerce.security.token.access-token-time-to-live:15m}")
+    private Duration accessTokenTimeToLive;
+    @Value("${ecommerce.security.token.refresh-token-time-to-live:7d}")
+    private Duration refreshTokenTimeToLive;
+
+    @Autowired
+    public TokenService(
+            AuthenticationManager authenticationManager,
+            UserDetailsService userDetailsService,
+            JwtEncoder jwtEncoder,
+            JwtDecoder jwtDecoder
+    ) {
+        this.authenticationManager = authenticationManager;
+        this.userDetailsService = userDetailsService;
+        this.jwtEncoder = jwtEncoder;
+        this.jwtDecoder = jwtDecoder;
+    }
+
+    public TokenResponse login(LoginRequest loginRequest) {
+        Authentication authentication;
+
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+        } catch (AuthenticationException e) {
+            throw new TokenException("Invalid email or password");
+        }
+
+        return issueTokens((UserDetails) authentication.getPrincipal());
+    }
+
+    public TokenResponse refresh(String refreshToken) {
+        Jwt jwt;
+
+        try {
+            jwt = jwtDecoder.decode(refreshToken);
+        } catch (JwtException e) {
+            throw new TokenException("Invalid refresh token");
+        }
+
+        if (!REFRESH.equals(jwt.getClaimAsString(TOKEN_USE))) {
+            throw new TokenException("Invalid refresh token");
+        }
+
+        // refresh is the only point where the account is looked up again
+        UserDetails user;
+
+        try {
+            user = userDetailsService.loadUserByUsername(jwt.getSubject());
+        } catch (AuthenticationException e) {
+            throw new TokenException("Invalid refresh token");
+        }
+
+        if (!user.isEnabled() || !fingerprint(user.getPassword()).equals(jwt.getClaimAsString(PASSWORD_FINGERPRINT))) {
+            throw new TokenException("Invalid refresh token");
+        }
+
+        return issueTokens(user);
+    }
+
+    private TokenResponse issueTokens(UserDetails user) {
+        Instant now = Instant.now();
+        List<String> roles = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        JwtClaimsSet accessClaims = JwtClaimsSet.builder()
+                .subject(user.getUsername())
+                .issuedAt(now)
+                .expiresAt(now.plus(accessTokenTimeToLive))
+                .claim(TOKEN_USE, ACCESS)
+                .claim(ROLES, roles)
+                .build();
+
+        JwtClaimsSet refreshClaims = JwtClaimsSet.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(user.getUsername())
+                .issuedAt(now)
+                .expiresAt(now.plus(refreshTokenTimeToLive))
+                .claim(TOKEN_USE, REFRESH)
+                .claim(PASSWORD_FINGERPRINT, fingerprint(user.getPassword()))
+                .build();
+
+        return new TokenResponse(encode(accessClaims), encode(refreshClaims), accessTokenTimeToLive.toSeconds());
+    }
+
+    private String encode(JwtClaimsSet claims) {
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    private String fingerprint(String encodedPassword) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.springbootecommerceapi.benchmark;
+
+import com.example.springbootecommerceapi.SpringbootEcommerceApiApplication;
+import com.example.springbootecommerceapi.entity.OrderEntity;
+import com.example.springbootecommerceapi.entity.UserEntity;
+import com.example.springbootecommerceapi.model.OrderTransitionDTO;
+import com.example.springbootecommerceapi.repository.OrderRepository;
+import com.example.springbootecommerceapi.repository.UserRepository;
+import com.example.springbootecommerceapi.service.EmployeesService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Time to ship one warehouse wave of orders through EmployeesService.shipOrders, against the
+embedded H2 ecommerce database of a full application context. A fresh wave of processing
+orders is inserted before every shot and is not part of the measurement.
+mvn -P benchmark test-compile exec:exec -Dbenchmark=BulkShipmentBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class BulkShipmentBenchmark {
+
+    @Param({"10000"})
+    int waveSize;
+
+    private ConfigurableApplicationContext context;
+    private EmployeesService employeesService;
+    private OrderRepository orderRepository;
+    private UserEntity customer;
+    private List<Long> wave;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringbootEcommerceApiApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.autoconfigure.exclude="
+                                + "org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        employeesService = context.getBean(EmployeesService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        customer = context.getBean(UserRepository.class).findByEmail("customer@gmail.com").get();
+    }
+
+    @Setup(Level.Invocation)
+    public void placeWave() {
+        List<OrderEntity> orders = new ArrayList<>(waveSize);
+        for (int i = 0; i < waveSize; i++) {
+            orders.add(new OrderEntity(customer));
+        }
+
+        wave = new ArrayList<>(waveSize);
+        orderRepository.saveAll(orders).forEach(order -> wave.add(order.getOrderNumber()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderTransitionDTO> shipWave() {
+        return employeesService.shipOrders(wave);
+    }
+}
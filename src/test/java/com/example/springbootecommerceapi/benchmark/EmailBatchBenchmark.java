@@ -0,0 +1,82 @@
+package com.example.springbootecommerceapi.benchmark;
+
+import com.example.springbootecommerceapi.model.Email;
+import com.example.springbootecommerceapi.service.HtmlEmailSenderService;
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.template.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+Emails sent per second against an in-process SMTP stand-in, one connection per email
+against one connection per batch, with and without simulated handshake latency.
+mvn -P benchmark test-compile exec:exec -Dbenchmark=EmailBatchBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailBatchBenchmark {
+
+    private static final String TEMPLATE = "password-reset-template";
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"0", "20"})
+    private long connectionLatencyMillis;
+
+    private SmtpStandIn smtpServer;
+    private HtmlEmailSenderService emailSenderService;
+
+    @Setup
+    public void setUp() throws IOException {
+        smtpServer = new SmtpStandIn(connectionLatencyMillis);
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(smtpServer.getHost());
+        mailSender.setPort(smtpServer.getPort());
+        mailSender.getJavaMailProperties().put("mail.smtp.localhost", "localhost");
+
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setTemplateLoader(new ClassTemplateLoader(getClass(), "/templates"));
+        emailSenderService = new HtmlEmailSenderService(mailSender, configuration, List.of(TEMPLATE));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        smtpServer.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void connectionPerEmail() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            emailSenderService.sendEmail(email(i), TEMPLATE);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Map<Email, Exception> connectionPerBatch() {
+        Map<Email, String> batch = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.put(email(i), TEMPLATE);
+        }
+        return emailSenderService.sendEmails(batch);
+    }
+
+    private Email email(int index) {
+        Email email = new Email("customer" + index + "@localhost", "testing@localhost", "Change Password Link");
+        email.getModel().put("firstName", "John");
+        email.getModel().put("lastName", "Last");
+        email.getModel().put("passwordResetUrl", "http://localhost/reset?token=" + index);
+        return email;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.springbootecommerceapi.benchmark;
+
+import com.example.springbootecommerceapi.config.ServiceMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Cost of timing a service call, a plain call against the same call through a proxy
+with and without ServiceMetricsInterceptor recording into a Prometheus registry.
+mvn -P benchmark test-compile exec:exec -Dbenchmark=InstrumentationOverheadBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class InstrumentationOverheadBenchmark {
+
+    private Calculator plain;
+    private Calculator proxied;
+    private Calculator instrumented;
+
+    @Setup
+    public void setUp() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+
+        plain = new Calculator();
+
+        ProxyFactory proxyFactory = new ProxyFactory(new Calculator());
+        proxyFactory.setProxyTargetClass(true);
+        proxied = (Calculator) proxyFactory.getProxy();
+
+        ProxyFactory instrumentedFactory = new ProxyFactory(new Calculator());
+        instrumentedFactory.setProxyTargetClass(true);
+        instrumentedFactory.addAdvice(new ServiceMetricsInterceptor(beanFactory.getBeanProvider(MeterRegistry.class)));
+        instrumented = (Calculator) instrumentedFactory.getProxy();
+    }
+
+    @Benchmark
+    public long plainCall() {
+        return plain.total(3, 40);
+    }
+
+    @Benchmark
+    public long proxiedCall() {
+        return proxied.total(3, 40);
+    }
+
+    @Benchmark
+    public long instrumentedCall() {
+        return instrumented.total(3, 40);
+    }
+
+    public static class Calculator {
+
+        public long total(int quantity, int price) {
+            return (long) quantity * price;
+        }
+    }
+}
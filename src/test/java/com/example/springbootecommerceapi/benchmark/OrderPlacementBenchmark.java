@@ -0,0 +1,114 @@
+package com.example.springbootecommerceapi.benchmark;
+
+import com.example.springbootecommerceapi.SpringbootEcommerceApiApplication;
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import com.example.springbootecommerceapi.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+OrderService.createOrder end to end, transaction, stock updates and inserts included, against
+the embedded H2 ecommerce database of a full application context. Throughput and sampled
+latency (p99 is in the percentiles) are reported for each order size and catalog size, once
+single threaded and once with 8 threads competing for the same catalog. Allocation rate
+comes from the gc profiler:
+mvn -P benchmark test-compile exec:exec -Dbenchmark="OrderPlacementBenchmark -prof gc"
+
+Insert batching and pooled sequences, measured on the commits before and after that change with
+1000 products, single threaded, 8 x 10s warmup and 5 x 10s measurement:
+  statements for 10 lines    34 before, 13 after (see OrderServiceStatementCountTest)
+  10 lines                   1.51 +- 0.59 ops/ms before, 1.49 +- 0.53 ops/ms after
+  100 lines                  0.151 +- 0.073 ops/ms before, 0.154 +- 0.068 ops/ms after
+Embedded H2 runs in process, a statement saved is no network round trip saved, so throughput
+here does not move. The gain shows against a database server.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class OrderPlacementBenchmark {
+
+    private static final String CUSTOMER = "customer@gmail.com";
+    // large enough that no benchmark run sells a product out
+    private static final int STOCK = 1_000_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Checkout {
+
+        @Param({"1", "10", "100"})
+        int orderLines;
+
+        @Param({"1000", "50000"})
+        int catalogSize;
+
+        ConfigurableApplicationContext context;
+        OrderService orderService;
+        List<Long> catalog;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // arguments, unlike default properties, take precedence over application.yml
+            context = new SpringApplicationBuilder(SpringbootEcommerceApiApplication.class)
+                    .profiles("test")
+                    .run(
+                            "--server.port=0",
+                            "--spring.autoconfigure.exclude="
+                                    + "org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+                            "--spring.jpa.show-sql=false",
+                            "--logging.level.root=WARN");
+            orderService = context.getBean(OrderService.class);
+
+            ProductRepository productRepository = context.getBean(ProductRepository.class);
+            List<ProductEntity> products = new ArrayList<>(catalogSize);
+            for (int i = 0; i < catalogSize; i++) {
+                products.add(new ProductEntity("Benchmark Product " + i, STOCK, "benchmark product", 10 + i % 90));
+            }
+
+            catalog = new ArrayList<>(catalogSize);
+            productRepository.saveAll(products).forEach(product -> catalog.add(product.getProductNumber()));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    // each thread picks its own random run of distinct products
+    @State(Scope.Thread)
+    public static class Cart {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        List<OrderDTO> next(Checkout checkout) {
+            int start = random.nextInt(checkout.catalog.size() - checkout.orderLines + 1);
+            List<OrderDTO> orderItems = new ArrayList<>(checkout.orderLines);
+
+            for (int i = 0; i < checkout.orderLines; i++) {
+                orderItems.add(new OrderDTO(checkout.catalog.get(start + i), 1 + random.nextInt(3)));
+            }
+            return orderItems;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void createOrder(Checkout checkout, Cart cart) {
+        checkout.orderService.createOrder(cart.next(checkout), CUSTOMER);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void createOrderContended(Checkout checkout, Cart cart) {
+        checkout.orderService.createOrder(cart.next(checkout), CUSTOMER);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.springbootecommerceapi.benchmark;
+
+import com.example.springbootecommerceapi.SpringbootEcommerceApiApplication;
+import com.example.springbootecommerceapi.model.ProductPatch;
+import com.example.springbootecommerceapi.model.ProductPatchReport;
+import com.example.springbootecommerceapi.service.ProductImportService;
+import com.example.springbootecommerceapi.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Time to reprice a catalog through ProductService.updateProducts, against the embedded H2
+ecommerce database of a full application context. Every patch sets a new price and moves the
+stock, a shot patches the same products the previous one did.
+mvn -P benchmark test-compile exec:exec -Dbenchmark=ProductBulkUpdateBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ProductBulkUpdateBenchmark {
+
+    @Param({"100000"})
+    int products;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private List<ProductPatch> patches;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(SpringbootEcommerceApiApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.autoconfigure.exclude="
+                                + "org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        productService = context.getBean(ProductService.class);
+
+        StringBuilder catalog = new StringBuilder("productName,productStock,productDescription,productPrice\n");
+        for (int i = 0; i < products; i++) {
+            catalog.append("Repriced Product ").append(i).append(",100,Repriced product number ")
+                    .append(i).append(',').append(1 + i % 500).append(".99\n");
+        }
+        context.getBean(ProductImportService.class)
+                .importCsv(new ByteArrayInputStream(catalog.toString().getBytes(StandardCharsets.UTF_8)));
+
+        List<Long> productNumbers = context.getBean(JdbcTemplate.class).queryForList(
+                "select product_number from product where product_name like 'Repriced Product %'", Long.class);
+        patches = new ArrayList<>(productNumbers.size());
+        for (int i = 0; i < productNumbers.size(); i++) {
+            patches.add(new ProductPatch(productNumbers.get(i), 2f + i % 300, null, i % 2 == 0 ? 1 : -1, null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductPatchReport repriceCatalog() {
+        return productService.updateProducts(patches);
+    }
+}
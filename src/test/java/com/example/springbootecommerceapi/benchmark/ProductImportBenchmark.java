@@ -0,0 +1,96 @@
+package com.example.springbootecommerceapi.benchmark;
+
+import com.example.springbootecommerceapi.SpringbootEcommerceApiApplication;
+import com.example.springbootecommerceapi.model.ProductImportReport;
+import com.example.springbootecommerceapi.service.ProductImportService;
+import com.example.springbootecommerceapi.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/*
+Time to import a whole catalog through ProductImportService, against the embedded H2 ecommerce
+database of a full application context. The imported products are deleted again after every
+shot, outside the measurement, so each shot inserts into the same catalog.
+mvn -P benchmark test-compile exec:exec -Dbenchmark=ProductImportBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class ProductImportBenchmark {
+
+    @Param({"1000000"})
+    int products;
+
+    @Param({"csv", "ndjson"})
+    String format;
+
+    private ConfigurableApplicationContext context;
+    private ProductImportService productImportService;
+    private byte[] catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringbootEcommerceApiApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.autoconfigure.exclude="
+                                + "org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        productImportService = context.getBean(ProductImportService.class);
+
+        StringBuilder content = new StringBuilder(products * 80);
+
+        if (format.equals("csv")) {
+            content.append("productName,productStock,productDescription,productPrice\n");
+            for (int i = 0; i < products; i++) {
+                content.append("Imported Product ").append(i).append(',').append(i % 100)
+                        .append(",\"Imported product number ").append(i).append(", for the benchmark\",")
+                        .append(1 + i % 500).append(".99\n");
+            }
+        } else {
+            for (int i = 0; i < products; i++) {
+                content.append("{\"productName\":\"Imported Product ").append(i)
+                        .append("\",\"productStock\":").append(i % 100)
+                        .append(",\"productDescription\":\"Imported product number ").append(i)
+                        .append(", for the benchmark\",\"productPrice\":").append(1 + i % 500).append(".99}\n");
+            }
+        }
+
+        catalog = content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteImported() {
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> entityManager
+                .createQuery("delete from ProductEntity p where p.productName like 'Imported Product %'")
+                .executeUpdate());
+        context.getBean(ProductService.class).indexProducts();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductImportReport importCatalog() throws IOException {
+        ByteArrayInputStream input = new ByteArrayInputStream(catalog);
+        return format.equals("csv")
+                ? productImportService.importCsv(input)
+                : productImportService.importNdjson(input);
+    }
+}
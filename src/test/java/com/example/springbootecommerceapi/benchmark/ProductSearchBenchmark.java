@@ -0,0 +1,119 @@
+package com.example.springbootecommerceapi.benchmark;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.ProductSearchHit;
+import com.example.springbootecommerceapi.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+Latency distribution of ProductSearchIndex.search over a synthetic catalog. Product text is
+drawn from a skewed vocabulary, so a few terms are in a large share of the catalog like
+"ball" or "black" would be. Queries are taken from product names, as typed so far (last
+term cut short) or with one letter swapped, the report includes p99.
+mvn -P benchmark test-compile exec:exec -Dbenchmark=ProductSearchBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Threads(1)
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    @Param({"1000000"})
+    int catalogSize;
+
+    private ProductSearchIndex productSearchIndex;
+    private String[] vocabulary;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        vocabulary = new String[50_000];
+
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = word(random);
+        }
+
+        productSearchIndex = new ProductSearchIndex();
+        productSearchIndex.rebuild(new Iterator<>() {
+            private long productNumber;
+
+            @Override
+            public boolean hasNext() {
+                return productNumber < catalogSize;
+            }
+
+            @Override
+            public ProductEntity next() {
+                productNumber++;
+                return new ProductEntity(productNumber, text(random, 3) + " " + productNumber, 10,
+                        text(random, 15), 1 + random.nextInt(500));
+            }
+        });
+
+        List<String> sampled = new ArrayList<>();
+
+        for (int i = 0; i < 4096; i++) {
+            String first = vocabulary[skewed(random)];
+            String second = vocabulary[skewed(random)];
+
+            sampled.add(switch (i % 3) {
+                case 0 -> first + " " + second;
+                case 1 -> first + " " + second.substring(0, Math.max(2, second.length() / 2));
+                default -> typo(random, first) + " " + second;
+            });
+        }
+
+        queries = sampled.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public List<ProductSearchHit> search() {
+        String query = queries[next++ & (queries.length - 1)];
+        return productSearchIndex.search(query, 20);
+    }
+
+    private String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < words; i++) {
+            text.append(i == 0 ? "" : " ").append(vocabulary[skewed(random)]);
+        }
+
+        return text.toString();
+    }
+
+    // low indexes are picked far more often, roughly like word frequencies in real catalogs
+    private int skewed(Random random) {
+        return (int) (vocabulary.length * Math.pow(random.nextDouble(), 3));
+    }
+
+    private static String word(Random random) {
+        String consonants = "bcdfghklmnprstvz";
+        String vowels = "aeiou";
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+
+        for (int i = 0; i < syllables; i++) {
+            word.append(consonants.charAt(random.nextInt(consonants.length())));
+            word.append(vowels.charAt(random.nextInt(vowels.length())));
+        }
+
+        return word.toString();
+    }
+
+    private static String typo(Random random, String word) {
+        int position = 1 + random.nextInt(word.length() - 1);
+        return word.substring(0, position) + 'x' + word.substring(position + 1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.springbootecommerceapi.benchmark;
+
+import com.example.springbootecommerceapi.model.ProductSuggestion;
+import com.example.springbootecommerceapi.service.ProductSuggestionTree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+Suggestions per second from a ProductSuggestionTree over a synthetic catalog, for prefixes as
+they are typed one keystroke at a time. The estimated size of the tree per product is printed
+once it is built, next to the budget it is held to.
+mvn -P benchmark test-compile exec:exec -Dbenchmark=ProductSuggestionBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(1)
+@State(Scope.Benchmark)
+public class ProductSuggestionBenchmark {
+
+    private static final String[] WORDS = {"soccer", "ball", "basketball", "running", "shoes", "shirt", "black",
+            "white", "pro", "training", "gloves", "goalkeeper", "kids", "women", "men", "indoor", "outdoor",
+            "jacket", "socks", "bottle", "backpack", "racket", "tennis", "yoga", "mat", "helmet", "bike"};
+
+    @Param({"1000000"})
+    int catalogSize;
+
+    private ProductSuggestionTree tree;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        long[] productNumbers = new long[catalogSize];
+        String[] productNames = new String[catalogSize];
+
+        for (int rank = 0; rank < catalogSize; rank++) {
+            productNumbers[rank] = rank + 1;
+            productNames[rank] = name(random) + " " + Integer.toString(rank, 36);
+        }
+
+        tree = new ProductSuggestionTree(productNumbers, productNames);
+        System.out.printf("%n%d products, %d bytes per product, budget %d%n", catalogSize,
+                tree.estimatedBytes() / catalogSize, ProductSuggestionTree.MEMORY_BUDGET_PER_PRODUCT);
+
+        // every prefix of a name as it is typed, 1 to 12 characters
+        prefixes = new String[4096];
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = name(random);
+            prefixes[i] = name.substring(0, 1 + random.nextInt(Math.min(12, name.length())));
+        }
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> suggest() {
+        return tree.suggest(prefixes[next++ & (prefixes.length - 1)], ProductSuggestionTree.MAX_SUGGESTIONS);
+    }
+
+    private static String name(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.springbootecommerceapi.benchmark;
+
+import com.example.springbootecommerceapi.service.HtmlEmailSenderService;
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.template.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+Templates rendered per second, compiled templates with a reused writer against a
+template lookup and a fresh StringWriter per render.
+mvn -P benchmark test-compile exec:exec -Dbenchmark=TemplateRenderBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class TemplateRenderBenchmark {
+
+    private static final String TEMPLATE = "activate-account-template";
+
+    private Configuration configuration;
+    private HtmlEmailSenderService emailSenderService;
+    private Map<String, Object> model;
+
+    @Setup
+    public void setUp() {
+        configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setTemplateLoader(new ClassTemplateLoader(getClass(), "/templates"));
+        configuration.setDefaultEncoding("UTF-8");
+
+        emailSenderService = new HtmlEmailSenderService(null, configuration, List.of(TEMPLATE));
+        model = Map.of(
+                "firstName", "John",
+                "lastName", "Last",
+                "activationUrl", "http://localhost:8080/api/ecommerce/v1/authentication/activate-account?token=1");
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return emailSenderService.getContentFromTemplate(model, TEMPLATE);
+    }
+
+    @Benchmark
+    public String templateLookup() throws Exception {
+        return FreeMarkerTemplateUtils.processTemplateIntoString(
+                configuration.getTemplate(TEMPLATE + ".flth"), model);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.springbootecommerceapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AsyncConfigurationTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void emailExecutor_whenQueueIsFull_runTaskOnCallerThread() throws Exception {
+        // GIVEN
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) new AsyncConfiguration().emailExecutor(
+                1, 1, 1, Duration.ofSeconds(60), Duration.ofSeconds(5), false);
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> overflowThread = new AtomicReference<>();
+
+        try {
+            executor.execute(() -> await(release));
+            executor.execute(() -> await(release));
+
+            // WHEN
+            executor.execute(() -> overflowThread.set(Thread.currentThread().getName()));
+
+            // THEN
+            assertThat(overflowThread.get()).isEqualTo(Thread.currentThread().getName());
+            assertThat(executor.getThreadPoolExecutor().getQueue()).hasSize(1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void emailExecutor_whenShutDown_drainQueuedTasks() {
+        // GIVEN
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) new AsyncConfiguration().emailExecutor(
+                1, 1, 10, Duration.ofSeconds(60), Duration.ofSeconds(5), false);
+        executor.initialize();
+        CountDownLatch sent = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                sleep(20);
+                sent.countDown();
+            });
+        }
+
+        // WHEN
+        executor.shutdown();
+
+        // THEN
+        assertThat(sent.getCount()).isZero();
+    }
+
+    @Test
+    void emailExecutor_whenIdle_releaseCoreThreads() throws Exception {
+        // GIVEN
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) new AsyncConfiguration().emailExecutor(
+                2, 2, 1, Duration.ofSeconds(1), Duration.ofSeconds(5), false);
+        executor.initialize();
+        CountDownLatch done = new CountDownLatch(2);
+
+        // WHEN
+        executor.execute(done::countDown);
+        executor.execute(done::countDown);
+        done.await(5, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getPoolSize() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // THEN
+        assertThat(executor.getPoolSize()).isZero();
+        executor.shutdown();
+    }
+
+    @Test
+    void emailExecutor_whenVirtualThreadsAreUnavailable_usePlatformPool() {
+        // GIVEN
+        Assumptions.assumeTrue(AsyncConfiguration.virtualThreadFactory() == null);
+
+        // WHEN
+        Executor executor = new AsyncConfiguration().emailExecutor(
+                1, 1, 1, Duration.ofSeconds(60), Duration.ofSeconds(5), true);
+
+        // THEN
+        assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+        assertThat(((ThreadPoolTaskExecutor) executor).getThreadNamePrefix()).isEqualTo("email-");
+    }
+
+    @Test
+    void emailExecutor_whenVirtualThreadsAreAvailable_startThreadPerTask() {
+        // GIVEN
+        Assumptions.assumeTrue(AsyncConfiguration.virtualThreadFactory() != null);
+
+        // WHEN
+        Executor executor = new AsyncConfiguration().emailExecutor(
+                1, 1, 1, Duration.ofSeconds(60), Duration.ofSeconds(5), true);
+
+        // THEN
+        assertThat(executor).isInstanceOf(VirtualThreadEmailExecutor.class);
+    }
+
+    @Test
+    void virtualThreadEmailExecutor_whenAllPermitsAreTaken_runTaskOnCallerThread() throws Exception {
+        // GIVEN
+        VirtualThreadEmailExecutor executor = new VirtualThreadEmailExecutor(Thread::new, 2, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicReference<String> overflowThread = new AtomicReference<>();
+
+        try {
+            executor.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+            executor.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+            started.await(5, TimeUnit.SECONDS);
+
+            // WHEN
+            executor.execute(() -> overflowThread.set(Thread.currentThread().getName()));
+
+            // THEN
+            assertThat(overflowThread.get()).isEqualTo(Thread.currentThread().getName());
+        } finally {
+            release.countDown();
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void virtualThreadEmailExecutor_whenDestroyed_waitForRunningTasksAndRejectNewOnes() throws Exception {
+        // GIVEN
+        VirtualThreadEmailExecutor executor = new VirtualThreadEmailExecutor(Thread::new, 5, Duration.ofSeconds(5));
+        CountDownLatch sent = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                sleep(20);
+                sent.countDown();
+            });
+        }
+
+        // WHEN
+        executor.destroy();
+
+        // THEN
+        assertThat(sent.getCount()).isZero();
+        assertThatThrownBy(() -> executor.execute(() -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void emailExecutor_isMonitored() {
+        // WHEN
+        // THEN
+        assertThat(meterRegistry.find("executor.queued").tag("name", AsyncConfiguration.EMAIL_EXECUTOR).gauge())
+                .isNotNull();
+        assertThat(meterRegistry.find("executor.active").tag("name", AsyncConfiguration.EMAIL_EXECUTOR).gauge())
+                .isNotNull();
+        assertThat(meterRegistry.find("executor.completed").tag("name", AsyncConfiguration.EMAIL_EXECUTOR).functionCounter())
+                .isNotNull();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
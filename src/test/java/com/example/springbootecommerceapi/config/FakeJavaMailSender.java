@@ -0,0 +1,85 @@
+package com.example.springbootecommerceapi.config;
+
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Keeps sent messages in memory instead of talking to an SMTP server. Every send call stands
+for one connection, simulated failures are reported per message like JavaMailSenderImpl does.
+ */
+public class FakeJavaMailSender extends JavaMailSenderImpl {
+
+    private final List<MimeMessage> sentMessages = new CopyOnWriteArrayList<>();
+    private final List<Integer> connections = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresToSimulate = new AtomicInteger();
+    private volatile String failureMessage = "Simulated SMTP failure";
+    private volatile CountDownLatch hang;
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        connections.add(mimeMessages.length);
+        CountDownLatch hang = this.hang;
+
+        if (hang != null) {
+            try {
+                hang.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+
+        for (MimeMessage mimeMessage : mimeMessages) {
+            if (failuresToSimulate.getAndUpdate(failures -> Math.max(failures - 1, 0)) > 0) {
+                failedMessages.put(mimeMessage, new MessagingException(failureMessage));
+                continue;
+            }
+
+            try {
+                mimeMessage.saveChanges();
+            } catch (MessagingException e) {
+                failedMessages.put(mimeMessage, e);
+                continue;
+            }
+            sentMessages.add(mimeMessage);
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    public List<MimeMessage> getSentMessages() {
+        return sentMessages;
+    }
+
+    // number of messages sent over each simulated connection
+    public List<Integer> getConnections() {
+        return connections;
+    }
+
+    public void failNextSends(int failures) {
+        failNextSends(failures, "Simulated SMTP failure");
+    }
+
+    // sends block like on an unresponsive server until the latch is released
+    public void hangSends(CountDownLatch hang) {
+        this.hang = hang;
+    }
+
+    public void failNextSends(int failures, String message) {
+        failureMessage = message;
+        failuresToSimulate.set(failures);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.springbootecommerceapi.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// replaces the SMTP backed sender in every test application context
+@Configuration
+public class FakeMailConfiguration {
+
+    @Bean
+    public FakeJavaMailSender javaMailSender() {
+        return new FakeJavaMailSender();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.springbootecommerceapi.config;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import com.example.springbootecommerceapi.repository.UserRepository;
+import com.example.springbootecommerceapi.service.OrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class HibernateCacheConfigurationTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findById_whenProductRead_serveNextReadFromProductRegion() {
+        // GIVEN
+        long productNumber = productRepository.save(
+                new ProductEntity("Second Level Ball", 10, "second level soccer ball", 40)).getProductNumber();
+        productRepository.findById(productNumber);
+        statistics.clear();
+        RecordingStatementInspector.start();
+
+        // WHEN
+        ProductEntity product = productRepository.findById(productNumber).get();
+
+        // THEN
+        assertThat(RecordingStatementInspector.stop()).isEmpty();
+        assertThat(product.getProductName()).isEqualTo("Second Level Ball");
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfiguration.PRODUCT_REGION)
+                .getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByEmail_whenUserLookedUp_serveNextLookupFromQueryCache() {
+        // GIVEN
+        userRepository.findByEmail("customer@gmail.com");
+        statistics.clear();
+        RecordingStatementInspector.start();
+
+        // WHEN
+        boolean found = userRepository.findByEmail("customer@gmail.com").isPresent();
+
+        // THEN
+        assertThat(RecordingStatementInspector.stop()).isEmpty();
+        assertThat(found).isTrue();
+        assertThat(statistics.getQueryRegionStatistics(HibernateCacheConfiguration.USER_QUERY_REGION)
+                .getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void createOrder_whenProductCached_reserveAgainstCurrentStock() {
+        // GIVEN
+        long productNumber = productRepository.save(
+                new ProductEntity("Stocked Ball", 10, "stocked soccer ball", 40)).getProductNumber();
+        productRepository.findById(productNumber);
+
+        // WHEN
+        orderService.createOrder(List.of(new OrderDTO(productNumber, 3)), "customer@gmail.com");
+        orderService.createOrder(List.of(new OrderDTO(productNumber, 3)), "customer@gmail.com");
+
+        // THEN
+        assertThat(productRepository.findById(productNumber).get().getProductStock()).isEqualTo(4);
+    }
+
+    @Test
+    void createOrder_whenOtherProductCached_keepItInProductRegion() {
+        // GIVEN
+        long ordered = productRepository.save(
+                new ProductEntity("Ordered Region Ball", 10, "ordered soccer ball", 40)).getProductNumber();
+        long untouched = productRepository.save(
+                new ProductEntity("Untouched Region Ball", 10, "untouched soccer ball", 40)).getProductNumber();
+        productRepository.findById(ordered);
+        productRepository.findById(untouched);
+
+        // WHEN
+        orderService.createOrder(List.of(new OrderDTO(ordered, 3)), "customer@gmail.com");
+
+        // THEN
+        statistics.clear();
+        assertThat(productRepository.findById(untouched).get().getProductStock()).isEqualTo(10);
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfiguration.PRODUCT_REGION)
+                .getHitCount()).isEqualTo(1);
+
+        // the ordered product is evicted and read again with its reserved stock
+        assertThat(productRepository.findById(ordered).get().getProductStock()).isEqualTo(7);
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfiguration.PRODUCT_REGION)
+                .getMissCount()).isEqualTo(1);
+    }
+}
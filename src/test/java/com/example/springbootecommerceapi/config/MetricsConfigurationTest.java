@@ -0,0 +1,99 @@
+package com.example.springbootecommerceapi.config;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.exception.ProductException;
+import com.example.springbootecommerceapi.model.ProductFilter;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import com.example.springbootecommerceapi.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class MetricsConfigurationTest {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceMethod_whenSuccessful_recordSuccessTimer() {
+        // GIVEN
+        ProductEntity product = productRepository.save(
+                new ProductEntity("Timed Ball", 10, "timed soccer ball", 40));
+        long before = invocations("getProduct", "success", "none");
+
+        // WHEN
+        productService.getProduct(product.getProductNumber());
+
+        // THEN
+        assertThat(invocations("getProduct", "success", "none")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void serviceMethod_whenExceptionThrown_recordErrorTimerWithExceptionType() {
+        // GIVEN
+        long before = invocations("getProduct", "error", "ProductException");
+
+        // WHEN
+        assertThatThrownBy(() -> productService.getProduct(-1L))
+                .isInstanceOf(ProductException.class);
+
+        // THEN
+        assertThat(invocations("getProduct", "error", "ProductException")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void repositoryMethod_whenCalledThroughService_recordRepositoryTimer() {
+        // WHEN
+        productService.getProducts(new ProductFilter(), null, Sort.Direction.ASC, null, 5);
+
+        // THEN
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "ProductRepository")
+                .timers()).isNotEmpty();
+    }
+
+    @Test
+    void serviceMethod_whenScraped_exposeHistogramBuckets() {
+        // GIVEN
+        PrometheusMeterRegistry prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", prometheusRegistry);
+        ProxyFactory proxyFactory = new ProxyFactory(productService);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new ServiceMetricsInterceptor(beanFactory.getBeanProvider(MeterRegistry.class)));
+        ProductService instrumented = (ProductService) proxyFactory.getProxy();
+
+        // WHEN
+        instrumented.getProducts(new ProductFilter(), null, Sort.Direction.ASC, null, 5);
+
+        // THEN
+        assertThat(prometheusRegistry.scrape())
+                .contains("ecommerce_service_invocations_seconds_bucket{exception=\"none\",method=\"getProducts\"");
+    }
+
+    private long invocations(String method, String outcome, String exception) {
+        Timer timer = meterRegistry.find(ServiceMetricsInterceptor.METRIC)
+                .tag("service", "ProductService")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .timer();
+
+        return timer == null ? 0 : timer.count();
+    }
+}
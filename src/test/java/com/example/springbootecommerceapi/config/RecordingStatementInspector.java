@@ -0,0 +1,37 @@
+package com.example.springbootecommerceapi.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Records the SQL prepared by the calling thread between start and stop. Unlike Hibernate
+statistics, statements of scheduled jobs running at the same time are not counted. Registered
+in the test profile, see application-test.yml.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    public static void start() {
+        RECORDED.set(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> recorded = RECORDED.get();
+        RECORDED.remove();
+        return recorded;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> recorded = RECORDED.get();
+
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+
+        return sql;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.springbootecommerceapi.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SecurityConfigurationTest {
+
+    private final SecurityConfiguration securityConfiguration = new SecurityConfiguration();
+
+    @Test
+    void jwtDecoder_whenKeyShorterThan256Bits_throwIllegalStateException() {
+        // GIVEN
+        String secret = Base64.getEncoder().encodeToString(new byte[31]);
+
+        // WHEN
+        assertThatThrownBy(() -> securityConfiguration.jwtDecoder(secret))
+                // THEN
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("ecommerce.security.token.secret must be at least 256 bits long");
+    }
+
+    @Test
+    void jwtEncoder_whenKeyNotBase64_throwIllegalStateException() {
+        // WHEN
+        assertThatThrownBy(() -> securityConfiguration.jwtEncoder("not a key!"))
+                // THEN
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("ecommerce.security.token.secret is not base64 encoded");
+    }
+
+    @Test
+    void jwtDecoder_when256BitKey_createDecoder() {
+        // GIVEN
+        String secret = Base64.getEncoder().encodeToString(new byte[32]);
+
+        // WHEN
+        // THEN
+        assertThat(securityConfiguration.jwtDecoder(secret)).isNotNull();
+    }
+}
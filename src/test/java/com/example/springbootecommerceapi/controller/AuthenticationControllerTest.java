@@ -2,11 +2,13 @@ package com.example.springbootecommerceapi.controller;
 
 import com.example.springbootecommerceapi.config.SecurityConfiguration;
 import com.example.springbootecommerceapi.entity.UserEntity;
+import com.example.springbootecommerceapi.exception.TokenException;
 import com.example.springbootecommerceapi.model.*;
 import com.example.springbootecommerceapi.repository.ProductRepository;
 import com.example.springbootecommerceapi.repository.UserRepository;
 import com.example.springbootecommerceapi.service.AuthenticationService;
 import com.example.springbootecommerceapi.service.JpaUserDetailsService;
+import com.example.springbootecommerceapi.service.TokenService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,10 +23,12 @@ import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.never;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = {AuthenticationController.class})
@@ -38,6 +42,8 @@ class AuthenticationControllerTest {
     @MockBean
     private AuthenticationService authenticationService;
     @MockBean
+    private TokenService tokenService;
+    @MockBean
     private UserRepository userRepository;
     @MockBean
     private ProductRepository productRepository;
@@ -318,6 +324,56 @@ class AuthenticationControllerTest {
         then(authenticationService).should(never()).changePassword(any(), anyString());
     }
 
+    @Test
+    void login_whenValidCredentials_return200WithTokens() throws Exception {
+        // GIVEN
+        LoginRequest loginRequest = new LoginRequest("customer@gmail.com", "12345678");
+        given(tokenService.login(loginRequest)).willReturn(new TokenResponse("access", "refresh", 900));
+
+        // WHEN
+        mockMvc.perform(post("/api/ecommerce/v1/authentication/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("access"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh"))
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(900));
+
+        // THEN
+        then(tokenService).should().login(loginRequest);
+    }
+
+    @Test
+    void login_whenInvalidCredentials_return401() throws Exception {
+        // GIVEN
+        LoginRequest loginRequest = new LoginRequest("customer@gmail.com", "wrong-password");
+        given(tokenService.login(loginRequest)).willThrow(new TokenException("Invalid email or password"));
+
+        // WHEN
+        mockMvc.perform(post("/api/ecommerce/v1/authentication/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isUnauthorized());
+
+        // THEN
+        then(tokenService).should().login(loginRequest);
+    }
+
+    @Test
+    void refresh_whenRefreshTokenIsGiven_return200WithTokens() throws Exception {
+        // GIVEN
+        given(tokenService.refresh("refresh")).willReturn(new TokenResponse("access2", "refresh2", 900));
+
+        // WHEN
+        mockMvc.perform(post("/api/ecommerce/v1/authentication/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("refresh"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("access2"));
 
+        // THEN
+        then(tokenService).should().refresh("refresh");
+    }
 
-}
\ No newline at end of file
+}
@@ -1,6 +1,9 @@
 package com.example.springbootecommerceapi.controller;
 
 import com.example.springbootecommerceapi.config.SecurityConfiguration;
+import com.example.springbootecommerceapi.model.OrderStatus;
+import com.example.springbootecommerceapi.model.OrderTransitionDTO;
+import com.example.springbootecommerceapi.model.TransitionOutcome;
 import com.example.springbootecommerceapi.repository.ProductRepository;
 import com.example.springbootecommerceapi.repository.UserRepository;
 import com.example.springbootecommerceapi.service.EmployeesService;
@@ -12,14 +15,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.never;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = {EmployeesController.class})
@@ -98,5 +109,56 @@ class EmployeesControllerTest {
         then(employeesService).should(never()).deliverOrder(anyLong());
     }
 
+    @Test
+    void shipOrders_whenJsonList_return200AndOutcomes() throws Exception {
+        // GIVEN
+        List<Long> orderNumbers = List.of(1L, 2L);
+        given(employeesService.shipOrders(orderNumbers)).willReturn(List.of(
+                new OrderTransitionDTO(1L, TransitionOutcome.UPDATED, OrderStatus.SHIPPED),
+                new OrderTransitionDTO(2L, TransitionOutcome.NOT_FOUND, null)));
+
+        // WHEN
+        mockMvc.perform(patch("/api/ecommerce/v1/employees/ship-orders")
+                        .with(user("john.last@gmail.com").password("12345678").roles("EMPLOYEE"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderNumbers)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$[1].outcome").value("NOT_FOUND"));
+
+        // THEN
+        then(employeesService).should().shipOrders(orderNumbers);
+    }
+
+    @Test
+    void shipOrders_whenOrderNumberIsInvalid_return422() throws Exception {
+        // WHEN
+        mockMvc.perform(patch("/api/ecommerce/v1/employees/ship-orders")
+                        .with(user("john.last@gmail.com").password("12345678").roles("EMPLOYEE"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, -2]"))
+                .andExpect(status().isUnprocessableEntity());
+
+        // THEN
+        then(employeesService).should(never()).shipOrders(anyList());
+    }
+
+    @Test
+    void deliverOrders_whenCsv_streamBodyToService() throws Exception {
+        // GIVEN
+        given(employeesService.deliverOrders(any(InputStream.class))).willReturn(List.of(
+                new OrderTransitionDTO(1L, TransitionOutcome.INVALID_TRANSITION, OrderStatus.PROCESSING)));
+
+        // WHEN
+        mockMvc.perform(patch("/api/ecommerce/v1/employees/deliver-orders")
+                        .with(user("john.last@gmail.com").password("12345678").roles("EMPLOYEE"))
+                        .contentType("text/csv")
+                        .content("1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome").value("INVALID_TRANSITION"))
+                .andExpect(jsonPath("$[0].status").value("PROCESSING"));
 
-}
\ No newline at end of file
+        // THEN
+        then(employeesService).should().deliverOrders(any(InputStream.class));
+    }
+}
@@ -2,13 +2,20 @@ package com.example.springbootecommerceapi.controller;
 
 import com.example.springbootecommerceapi.config.SecurityConfiguration;
 import com.example.springbootecommerceapi.entity.*;
+import com.example.springbootecommerceapi.exception.OrderQuantityException;
 import com.example.springbootecommerceapi.model.Gender;
+import com.example.springbootecommerceapi.model.OrderCreatedDTO;
 import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.model.OrderDetailsDTO;
+import com.example.springbootecommerceapi.model.OrderLineDTO;
+import com.example.springbootecommerceapi.model.OrderPage;
+import com.example.springbootecommerceapi.model.OrderStatus;
 import com.example.springbootecommerceapi.model.Role;
 import com.example.springbootecommerceapi.model.UserBuilder;
 import com.example.springbootecommerceapi.repository.ProductRepository;
 import com.example.springbootecommerceapi.repository.UserRepository;
 import com.example.springbootecommerceapi.service.JpaUserDetailsService;
+import com.example.springbootecommerceapi.service.OrderIdempotencyService;
 import com.example.springbootecommerceapi.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -21,6 +28,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,6 +40,7 @@ import static org.mockito.Mockito.never;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -45,6 +54,8 @@ class OrderControllerTest {
     private ProductRepository productRepository;
     @MockBean
     private OrderService orderService;
+    @MockBean
+    private OrderIdempotencyService orderIdempotencyService;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -60,6 +71,7 @@ class OrderControllerTest {
         String userEmail = "john.last@gmail.com";
         List<OrderDTO> orderItems = new ArrayList<>();
         orderItems.add(item);
+        given(orderIdempotencyService.createOrder(orderItems, userEmail, null)).willReturn(new OrderCreatedDTO(5L));
 
         // WHEN
         mockMvc.perform(post("/api/ecommerce/v1/orders")
@@ -67,11 +79,33 @@ class OrderControllerTest {
                 .with(user(userEmail).password("12345678").roles("CUSTOMER"))
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(orderItems)))
-                .andExpect(status().isCreated());
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.orderNumber").value(5));
 
 
         // THEN
-        then(orderService).should().createOrder(orderItems, userEmail);
+        then(orderIdempotencyService).should().createOrder(orderItems, userEmail, null);
+    }
+
+    @Test
+    void createOrder_whenIdempotencyKeyGiven_passKeyAndReturnOrderNumber() throws Exception {
+        // GIVEN
+        String userEmail = "john.last@gmail.com";
+        List<OrderDTO> orderItems = List.of(new OrderDTO(1L, 2));
+        given(orderIdempotencyService.createOrder(orderItems, userEmail, "checkout-42"))
+                .willReturn(new OrderCreatedDTO(5L));
+
+        // WHEN
+        mockMvc.perform(post("/api/ecommerce/v1/orders")
+                        .header("Idempotency-Key", "checkout-42")
+                        .with(user(userEmail).password("12345678").roles("CUSTOMER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderItems)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.orderNumber").value(5));
+
+        // THEN
+        then(orderIdempotencyService).should().createOrder(orderItems, userEmail, "checkout-42");
     }
 
     @Test
@@ -92,7 +126,28 @@ class OrderControllerTest {
 
 
         // THEN
-        then(orderService).should(never()).createOrder(anyList(), anyString());
+        then(orderIdempotencyService).should(never()).createOrder(anyList(), anyString(), any());
+    }
+
+    @Test
+    void createOrder_whenQuantityTooLarge_return400() throws Exception {
+        // GIVEN
+        String userEmail = "john.last@gmail.com";
+        List<OrderDTO> orderItems = List.of(new OrderDTO(1L, Integer.MAX_VALUE), new OrderDTO(1L, 2));
+        given(orderIdempotencyService.createOrder(orderItems, userEmail, null))
+                .willThrow(new OrderQuantityException("Quantity ordered of product 1 is too large"));
+
+        // WHEN
+        mockMvc.perform(post("/api/ecommerce/v1/orders")
+                        .with(csrf())
+                        .with(user(userEmail).password("12345678").roles("CUSTOMER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderItems)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Quantity ordered of product 1 is too large"));
+
+        // THEN
+        then(orderIdempotencyService).should().createOrder(orderItems, userEmail, null);
     }
 
     @Test
@@ -115,68 +170,55 @@ class OrderControllerTest {
 
         OrderEntity order = new OrderEntity(customer);
 
-        given(orderService.getAllOrdersFromCustomer(customer.getEmail())).willReturn(List.of(order));
+        LocalDateTime from = LocalDateTime.of(2022, 1, 1, 0, 0);
+        given(orderService.getCustomerOrders(customer.getEmail(), OrderStatus.PROCESSING, from, null, null, 10))
+                .willReturn(new OrderPage(List.of(order), null));
 
         // WHEN
         MvcResult result = mockMvc.perform(get("/api/ecommerce/v1/orders")
+                .param("status", "PROCESSING")
+                .param("from", "2022-01-01T00:00:00")
+                .param("size", "10")
                 .with(user(customer.getEmail()).password("12345678").roles("CUSTOMER")))
-                .andExpect(status().isOk()).andReturn();
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].version").doesNotExist())
+                .andReturn();
 
-        OrderEntity[] returnedOrder = objectMapper.readValue(result.getResponse().getContentAsString(), OrderEntity[].class);
+        OrderPage returnedOrders = objectMapper.readValue(result.getResponse().getContentAsString(), OrderPage.class);
 
         // THEN
-        then(orderService).should().getAllOrdersFromCustomer(customer.getEmail());
-        assertThat(order.toString()).isEqualTo(returnedOrder[0].toString());
+        then(orderService).should().getCustomerOrders(customer.getEmail(), OrderStatus.PROCESSING, from, null, null, 10);
+        assertThat(order.toString()).isEqualTo(returnedOrders.getOrders().get(0).toString());
     }
 
     @Test
-    void getOrderItems_whenValidOrderNumber_return200AndOrderItems() throws Exception {
+    void getOrderItems_whenValidOrderNumber_return200AndOrderDetails() throws Exception {
         // GIVEN
         long orderNumber = 1L;
         String username = "john.last@gmail.com";
-        ProductEntity product = new ProductEntity(
-                1L, "Soccer Ball", 10,
-                "The official World Cup 2022 soccer ball", 40
-        );
-        UserEntity customer = new UserBuilder()
-                .firstName("John")
-                .lastName("Last")
-                .gender(Gender.MALE)
-                .phone("(323) 456-1234")
-                .email(username)
-                .password("12345678")
-                .street("5678 S 88Th St")
-                .city("Los Angeles")
-                .state("California")
-                .zipCode("90002")
-                .build();
-        customer.setActive(true);
-        customer.setRole(Role.CUSTOMER);
-        customer.setUserNumber(1L);
-
-        // create order
-        OrderEntity orderEntity = new OrderEntity(customer);
-
-        // generate order item associated with above order
-        OrderItemPK orderItemPK = new OrderItemPK(product, orderEntity);
-        OrderItemEntity orderItemEntity = new OrderItemEntity(orderItemPK, 30, 3);
 
+        OrderDetailsDTO orderDetails = new OrderDetailsDTO(
+                orderNumber, LocalDateTime.of(2022, 10, 1, 12, 0), null, null, OrderStatus.PROCESSING);
+        orderDetails.getItems().add(new OrderLineDTO(1L, "Soccer Ball", 30, 3));
 
-        given(orderService.getOrderItems(orderNumber, username)).willReturn(List.of(orderItemEntity));
+        given(orderService.getOrderDetails(orderNumber, username)).willReturn(orderDetails);
 
         // WHEN
         MvcResult result =  mockMvc.perform(get("/api/ecommerce/v1/orders/{orderNumber}", orderNumber)
                 .accept(MediaType.APPLICATION_JSON)
                         .with(user(username).password("12345678").roles("CUSTOMER")))
-                .andExpect(status().isOk()).andReturn();
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].lineTotal").value(90.0))
+                .andExpect(jsonPath("$.orderTotal").value(90.0))
+                .andReturn();
 
-        OrderItemEntity[] orderItemEntities = objectMapper.readValue(
-                result.getResponse().getContentAsString(), OrderItemEntity[].class
+        OrderDetailsDTO returnedOrder = objectMapper.readValue(
+                result.getResponse().getContentAsString(), OrderDetailsDTO.class
         );
 
         // THEN
-        then(orderService).should().getOrderItems(orderNumber, username);
-        assertThat(List.of(orderItemEntity).get(0).toString()).isEqualTo(orderItemEntities[0].toString());
+        then(orderService).should().getOrderDetails(orderNumber, username);
+        assertThat(returnedOrder).isEqualTo(orderDetails);
     }
 
     @Test
@@ -193,7 +235,7 @@ class OrderControllerTest {
 
 
         // THEN
-        then(orderService).should(never()).getOrderItems(anyLong(), anyString());
+        then(orderService).should(never()).getOrderDetails(anyLong(), anyString());
     }
 
     @Test
@@ -7,7 +7,9 @@ import com.example.springbootecommerceapi.model.*;
 import com.example.springbootecommerceapi.repository.ProductRepository;
 import com.example.springbootecommerceapi.repository.UserRepository;
 import com.example.springbootecommerceapi.service.JpaUserDetailsService;
+import com.example.springbootecommerceapi.service.ProductImportService;
 import com.example.springbootecommerceapi.service.ProductService;
+import com.example.springbootecommerceapi.service.ProductSuggestionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -16,12 +18,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,12 +35,12 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.never;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = {ProductController.class})
 @Import(value = {SecurityConfiguration.class, JpaUserDetailsService.class})
@@ -48,33 +53,161 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
     @MockBean
+    private ProductSuggestionService productSuggestionService;
+    @MockBean
+    private ProductImportService productImportService;
+    @MockBean
     private UserRepository userRepository;
     @MockBean
     private ProductRepository productRepository;
 
 
     @Test
-    void getAllProducts_returnListOfProductsAndStatus200() throws Exception {
+    void getAllProducts_returnPageOfProductsAndStatus200() throws Exception {
         // GIVEN
         ProductEntity product = new ProductEntity(
                 1L, "Soccer Ball", 10,
                 "The official World Cup 2022 soccer ball", 40
         );
-        given(productService.getAllProducts()).willReturn(List.of(product));
+        given(productService.getProducts(new ProductFilter(), null, Sort.Direction.ASC, "MQ", 10)).willReturn(new ProductPage(List.of(product), "Mg"));
 
         // WHEN
         MvcResult result = mockMvc.perform(get("/api/ecommerce/v1/products")
+                .param("cursor", "MQ")
+                .param("size", "10")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk()).andReturn();
 
 
         // THEN
-        then(productService).should().getAllProducts();
-        ProductEntity[] response = objectMapper.readValue(
-                result.getResponse().getContentAsString(), ProductEntity[].class);
+        then(productService).should().getProducts(new ProductFilter(), null, Sort.Direction.ASC, "MQ", 10);
+        ProductPage response = objectMapper.readValue(
+                result.getResponse().getContentAsString(), ProductPage.class);
+
+        assertThat(response.getProducts().get(0)).isEqualTo(product);
+        assertThat(response.getNext()).isEqualTo("Mg");
+    }
+
+    @Test
+    void getAllProducts_whenInvalidPageSize_return422() throws Exception {
+        // WHEN
+        mockMvc.perform(get("/api/ecommerce/v1/products").param("size", "0"))
+                .andExpect(status().isUnprocessableEntity());
+
+        // THEN
+        then(productService).should(never()).getProducts(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllProducts_withFiltersAndSort_passThemToService() throws Exception {
+        // GIVEN
+        ProductFilter filter = new ProductFilter(10f, 50f, true, "soc");
+        given(productService.getProducts(filter, ProductSort.PRICE, Sort.Direction.DESC, null, null))
+                .willReturn(new ProductPage(List.of(), null));
+
+        // WHEN
+        mockMvc.perform(get("/api/ecommerce/v1/products")
+                        .param("minPrice", "10")
+                        .param("maxPrice", "50")
+                        .param("inStock", "true")
+                        .param("namePrefix", "soc")
+                        .param("sort", "PRICE")
+                        .param("direction", "DESC")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // THEN
+        then(productService).should().getProducts(filter, ProductSort.PRICE, Sort.Direction.DESC, null, null);
+    }
+
+    @Test
+    void getAllProducts_whenNegativePrice_return422() throws Exception {
+        // WHEN
+        mockMvc.perform(get("/api/ecommerce/v1/products").param("minPrice", "-1"))
+                .andExpect(status().isUnprocessableEntity());
+
+        // THEN
+        then(productService).should(never()).getProducts(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void searchProducts_withoutAuthentication_returnHitsAndStatus200() throws Exception {
+        // GIVEN
+        ProductSearchHit hit = new ProductSearchHit(1L, "Soccer Ball", 40, 2.5f);
+        given(productService.searchProducts("soccer bal", null)).willReturn(List.of(hit));
+
+        // WHEN
+        MvcResult result = mockMvc.perform(get("/api/ecommerce/v1/products/search")
+                        .param("q", "soccer bal")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()).andReturn();
+
+        // THEN
+        ProductSearchHit[] response = objectMapper.readValue(
+                result.getResponse().getContentAsString(), ProductSearchHit[].class);
+        assertThat(response).containsExactly(hit);
+    }
+
+    @Test
+    void searchProducts_whenQueryIsBlank_return422() throws Exception {
+        // WHEN
+        mockMvc.perform(get("/api/ecommerce/v1/products/search").param("q", " "))
+                .andExpect(status().isUnprocessableEntity());
+
+        // THEN
+        then(productService).should(never()).searchProducts(any(), any());
+    }
+
+    @Test
+    void suggestProducts_withoutAuthentication_returnSuggestionsAndStatus200() throws Exception {
+        // GIVEN
+        ProductSuggestion suggestion = new ProductSuggestion(1L, "Soccer Ball");
+        given(productSuggestionService.suggestProducts("socc", 5)).willReturn(List.of(suggestion));
+
+        // WHEN
+        MvcResult result = mockMvc.perform(get("/api/ecommerce/v1/products/suggest")
+                        .param("prefix", "socc")
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()).andReturn();
+
+        // THEN
+        ProductSuggestion[] response = objectMapper.readValue(
+                result.getResponse().getContentAsString(), ProductSuggestion[].class);
+        assertThat(response).containsExactly(suggestion);
+    }
+
+    @Test
+    void exportProducts_whenEmployee_streamNdjsonAndStatus200() throws Exception {
+        // GIVEN
+        willAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write("{\"productNumber\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(productService).exportProducts(any());
+
+        // WHEN
+        MvcResult result = mockMvc.perform(get("/api/ecommerce/v1/products/export")
+                        .with(user("john.last@gmail.com").password("12345678").roles("EMPLOYEE")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"productNumber\":1}\n"));
+    }
+
+    @Test
+    void exportProducts_whenCustomer_return403() throws Exception {
+        // WHEN
+        mockMvc.perform(get("/api/ecommerce/v1/products/export")
+                        .with(user("john.last@gmail.com").password("12345678").roles("CUSTOMER")))
+                .andExpect(status().isForbidden());
 
-//        List<ProductEntity> list = Arrays.asList(response);
-        assertThat(response[0]).isEqualTo(product);
+        // THEN
+        then(productService).should(never()).exportProducts(any());
     }
 
     @Test
@@ -157,6 +290,81 @@ class ProductControllerTest {
         then(productService).should(never()).addProduct(any());
     }
 
+    @Test
+    void importProducts_whenCsv_returnReportAndStatus200() throws Exception {
+        // GIVEN
+        ProductImportReport report = new ProductImportReport(
+                1, 0, 1, List.of(new ProductImportError(3, "productPrice is not a number: free")));
+        given(productImportService.importCsv(any())).willReturn(report);
+
+        // WHEN
+        MvcResult result = mockMvc.perform(post("/api/ecommerce/v1/products/import")
+                        .contentType("text/csv")
+                        .content("productName,productPrice\nSoccer Ball,40\nBasketball,free\n")
+                        .with(csrf())
+                        .with(user("john.last@gmail.com").password("12345678").roles("EMPLOYEE")))
+                .andExpect(status().isOk()).andReturn();
+
+        // THEN
+        then(productImportService).should().importCsv(any());
+        assertThat(objectMapper.readValue(result.getResponse().getContentAsString(), ProductImportReport.class))
+                .isEqualTo(report);
+    }
+
+    @Test
+    void importProducts_whenCustomer_return403() throws Exception {
+        // WHEN
+        mockMvc.perform(post("/api/ecommerce/v1/products/import")
+                        .contentType("application/x-ndjson")
+                        .content("{\"productName\":\"Soccer Ball\",\"productPrice\":40}\n")
+                        .with(csrf())
+                        .with(user("customer@gmail.com").password("12345678").roles("CUSTOMER")))
+                .andExpect(status().isForbidden());
+
+        // THEN
+        then(productImportService).should(never()).importNdjson(any());
+    }
+
+    @Test
+    void updateProducts_whenValidPatches_returnReportAndStatus200() throws Exception {
+        // GIVEN
+        List<ProductPatch> patches = List.of(
+                new ProductPatch(1L, 45f, null, null, null),
+                new ProductPatch(2L, null, null, -3, "Signed by the team"));
+        ProductPatchReport report = new ProductPatchReport(1, 1, 0, 0);
+        given(productService.updateProducts(patches)).willReturn(report);
+
+        // WHEN
+        MvcResult result = mockMvc.perform(patch("/api/ecommerce/v1/products")
+                        .with(csrf())
+                        .with(user("john.last@gmail.com").password("12345678").roles("EMPLOYEE"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patches)))
+                .andExpect(status().isOk()).andReturn();
+
+        // THEN
+        then(productService).should().updateProducts(patches);
+        assertThat(objectMapper.readValue(result.getResponse().getContentAsString(), ProductPatchReport.class))
+                .isEqualTo(report);
+    }
+
+    @Test
+    void updateProducts_whenNegativePrice_return422() throws Exception {
+        // GIVEN
+        List<ProductPatch> patches = List.of(new ProductPatch(1L, -1f, null, null, null));
+
+        // WHEN
+        mockMvc.perform(patch("/api/ecommerce/v1/products")
+                        .with(csrf())
+                        .with(user("john.last@gmail.com").password("12345678").roles("EMPLOYEE"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patches)))
+                .andExpect(status().isUnprocessableEntity());
+
+        // THEN
+        then(productService).should(never()).updateProducts(any());
+    }
+
     @Test
     void removeProduct_whenValidProductNumber_return204() throws Exception {
         // GIVEN
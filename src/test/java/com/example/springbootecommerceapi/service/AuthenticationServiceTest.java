@@ -17,6 +17,8 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -48,6 +50,10 @@ class AuthenticationServiceTest {
     private PasswordEncoder passwordEncoder;
     @Mock
     private PasswordTokenRepository passwordTokenRepository;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache userDetailsCache;
 
     @InjectMocks
     private AuthenticationService authenticationService;
@@ -324,6 +330,7 @@ class AuthenticationServiceTest {
 
         // assume token exists
         given(activationTokenRepository.findByToken(token)).willReturn(Optional.of(activationToken));
+        given(cacheManager.getCache("userDetails")).willReturn(userDetailsCache);
 
         // WHEN
         authenticationService.activateAccount(token);
@@ -332,6 +339,7 @@ class AuthenticationServiceTest {
         then(activationTokenRepository).should().delete(activationToken);
         then(userRepository).should().save(userCaptor.capture());
         assertThat(userCaptor.getValue().isActive()).isEqualTo(true);
+        then(userDetailsCache).should().evict(user.getEmail());
 
     }
 
@@ -377,12 +385,14 @@ class AuthenticationServiceTest {
 
         given(userRepository.findByEmail(user.getEmail())).willReturn(Optional.of(user));
         given(passwordEncoder.matches(passwordDTO.getOldPassword(), user.getPassword())).willReturn(true);
+        given(cacheManager.getCache("userDetails")).willReturn(userDetailsCache);
 
         // WHEN
         authenticationService.updatePassword(passwordDTO);
 
         // THEN
         then(userRepository).should().save(user);
+        then(userDetailsCache).should().evict(user.getEmail());
 
     }
 
@@ -515,6 +525,7 @@ class AuthenticationServiceTest {
 
         // assume token is valid
         given(passwordTokenRepository.findByToken(token)).willReturn(Optional.of(passwordToken));
+        given(cacheManager.getCache("userDetails")).willReturn(userDetailsCache);
 
         // WHEN
         authenticationService.changePassword(forgottenPassword, token);
@@ -522,6 +533,7 @@ class AuthenticationServiceTest {
         // THEN
         then(userRepository).should().save(user);
         then(passwordTokenRepository).should().delete(passwordToken);
+        then(userDetailsCache).should().evict(user.getEmail());
     }
 
     @Test
@@ -0,0 +1,102 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.config.FakeJavaMailSender;
+import com.example.springbootecommerceapi.model.Email;
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.template.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchingEmailSenderTest {
+
+    private static final String TEMPLATE = "password-reset-template";
+
+    private FakeJavaMailSender mailSender;
+    private ExecutorService executor;
+    private BatchingEmailSender batchingEmailSender;
+
+    @BeforeEach
+    void setUp() {
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setTemplateLoader(new ClassTemplateLoader(getClass(), "/templates"));
+
+        mailSender = new FakeJavaMailSender();
+        executor = Executors.newFixedThreadPool(2);
+        batchingEmailSender = new BatchingEmailSender(
+                new HtmlEmailSenderService(mailSender, configuration, List.of(TEMPLATE)),
+                executor,
+                10,
+                Duration.ofMillis(200));
+        batchingEmailSender.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batchingEmailSender.stop();
+        executor.shutdown();
+    }
+
+    @Test
+    void send_whenEmailsArriveWithinWindow_sendThemOverOneConnection() throws Exception {
+        // GIVEN
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 25; i++) {
+            results.add(batchingEmailSender.send(email(i), TEMPLATE));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // THEN
+        assertThat(mailSender.getSentMessages()).hasSize(25);
+        assertThat(mailSender.getConnections()).containsExactly(10, 10, 5);
+    }
+
+    @Test
+    void send_whenOneMessageIsRefused_failOnlyThatEmail() throws Exception {
+        // GIVEN
+        mailSender.failNextSends(1);
+
+        // WHEN
+        CompletableFuture<Void> refused = batchingEmailSender.send(email(0), TEMPLATE);
+        CompletableFuture<Void> accepted = batchingEmailSender.send(email(1), TEMPLATE);
+        CompletableFuture.allOf(refused, accepted).exceptionally(error -> null).get(5, TimeUnit.SECONDS);
+
+        // THEN
+        assertThat(refused).isCompletedExceptionally();
+        assertThat(accepted).isCompleted().isNotCompletedExceptionally();
+        assertThat(mailSender.getConnections()).containsExactly(2);
+    }
+
+    @Test
+    void send_whenTemplateIsUnknown_failOnlyThatEmail() throws Exception {
+        // WHEN
+        CompletableFuture<Void> unknown = batchingEmailSender.send(email(0), "unknown-template");
+        CompletableFuture<Void> known = batchingEmailSender.send(email(1), TEMPLATE);
+        CompletableFuture.allOf(unknown, known).exceptionally(error -> null).get(5, TimeUnit.SECONDS);
+
+        // THEN
+        assertThat(unknown).isCompletedExceptionally();
+        assertThat(known).isCompleted().isNotCompletedExceptionally();
+        assertThat(mailSender.getSentMessages()).hasSize(1);
+    }
+
+    private Email email(int index) {
+        Email email = new Email("customer" + index + "@gmail.com", "testing@gmail.com", "Change Password Link");
+        email.getModel().put("firstName", "John");
+        email.getModel().put("lastName", "Last");
+        email.getModel().put("passwordResetUrl", "http://localhost/reset?token=" + index);
+        return email;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.config.FakeJavaMailSender;
+import com.example.springbootecommerceapi.entity.EmailOutboxEntity;
+import com.example.springbootecommerceapi.entity.UserEntity;
+import com.example.springbootecommerceapi.event.UserRegistrationEvent;
+import com.example.springbootecommerceapi.model.Email;
+import com.example.springbootecommerceapi.model.EmailStatus;
+import com.example.springbootecommerceapi.model.Gender;
+import com.example.springbootecommerceapi.model.UserBuilder;
+import com.example.springbootecommerceapi.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmailOutboxServiceTest {
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+    @Autowired
+    private ApplicationEventPublisher publisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private FakeJavaMailSender mailSender;
+
+    @Test
+    void publishEvent_whenTransactionRollsBack_enqueueNothing() {
+        // GIVEN
+        UserEntity user = user();
+
+        // WHEN
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.publishEvent(new UserRegistrationEvent(user, "http://localhost/activate"));
+            status.setRollbackOnly();
+        });
+
+        // THEN
+        assertThat(outboxRows(user.getEmail())).isEmpty();
+    }
+
+    @Test
+    void dispatch_whenEventIsCommitted_sendRenderedEmailAndMarkSent() throws Exception {
+        // GIVEN
+        UserEntity user = user();
+        transactionTemplate.executeWithoutResult(status ->
+                publisher.publishEvent(new UserRegistrationEvent(user, "http://localhost/activate")));
+
+        // WHEN
+        emailOutboxService.dispatch();
+
+        // THEN
+        List<EmailOutboxEntity> rows = outboxRows(user.getEmail());
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getStatus()).isEqualTo(EmailStatus.SENT);
+        assertThat(rows.get(0).getSentAt()).isNotNull();
+        assertThat(sentTo(user.getEmail())).hasSize(1);
+        assertThat(sentTo(user.getEmail()).get(0).getSubject()).isEqualTo("Activate Your Account");
+    }
+
+    @Test
+    void dispatch_whenSendFails_retryWithBackoff() throws Exception {
+        // GIVEN
+        String recipient = UUID.randomUUID() + "@gmail.com";
+        Email email = new Email(recipient, "testing@gmail.com", "Change Password Link");
+        email.getModel().put("passwordResetUrl", "http://localhost/reset");
+        email.getModel().put("firstName", "John");
+        email.getModel().put("lastName", "Last");
+        emailOutboxService.enqueue(email, "password-reset-template");
+        mailSender.failNextSends(1);
+
+        // WHEN
+        emailOutboxService.dispatch();
+
+        // THEN
+        EmailOutboxEntity failed = outboxRows(recipient).get(0);
+        assertThat(failed.getStatus()).isEqualTo(EmailStatus.PENDING);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        assertThat(failed.getLastError()).isNotNull();
+        assertThat(sentTo(recipient)).isEmpty();
+
+        // WHEN backoff has elapsed
+        failed.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        emailOutboxRepository.save(failed);
+        emailOutboxService.dispatch();
+
+        // THEN
+        EmailOutboxEntity sent = outboxRows(recipient).get(0);
+        assertThat(sent.getStatus()).isEqualTo(EmailStatus.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(2);
+        assertThat(sentTo(recipient)).hasSize(1);
+    }
+
+    @Test
+    void dispatch_whenErrorLongerThanColumn_countAttemptWithTruncatedError() throws Exception {
+        // GIVEN
+        String recipient = UUID.randomUUID() + "@gmail.com";
+        Email email = new Email(recipient, "testing@gmail.com", "Change Password Link");
+        email.getModel().put("passwordResetUrl", "http://localhost/reset");
+        email.getModel().put("firstName", "John");
+        email.getModel().put("lastName", "Last");
+        emailOutboxService.enqueue(email, "password-reset-template");
+        mailSender.failNextSends(1, "550 mailbox unavailable ".repeat(100));
+
+        // WHEN
+        emailOutboxService.dispatch();
+
+        // THEN
+        EmailOutboxEntity failed = outboxRows(recipient).get(0);
+        assertThat(failed.getStatus()).isEqualTo(EmailStatus.PENDING);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).hasSize(EmailOutboxEntity.LAST_ERROR_LENGTH);
+    }
+
+    @Test
+    void dispatch_whenSmtpServerHangs_rescheduleAfterSendTimeout() throws Exception {
+        // GIVEN
+        String recipient = UUID.randomUUID() + "@gmail.com";
+        Email email = new Email(recipient, "testing@gmail.com", "Change Password Link");
+        email.getModel().put("passwordResetUrl", "http://localhost/reset");
+        email.getModel().put("firstName", "John");
+        email.getModel().put("lastName", "Last");
+        emailOutboxService.enqueue(email, "password-reset-template");
+        CountDownLatch hang = new CountDownLatch(1);
+        mailSender.hangSends(hang);
+        ReflectionTestUtils.setField(emailOutboxService, "sendTimeout", Duration.ofMillis(500));
+
+        try {
+            // WHEN
+            emailOutboxService.dispatch();
+
+            // THEN
+            EmailOutboxEntity failed = outboxRows(recipient).get(0);
+            assertThat(failed.getStatus()).isEqualTo(EmailStatus.PENDING);
+            assertThat(failed.getAttempts()).isEqualTo(1);
+            assertThat(failed.getLastError()).isEqualTo("Not sent within PT0.5S");
+        } finally {
+            mailSender.hangSends(null);
+            hang.countDown();
+            ReflectionTestUtils.setField(emailOutboxService, "sendTimeout", Duration.ofMinutes(2));
+        }
+    }
+
+    private UserEntity user() {
+        return new UserBuilder()
+                .firstName("John")
+                .lastName("Last")
+                .gender(Gender.MALE)
+                .phone("(323) 456-1234")
+                .email(UUID.randomUUID() + "@gmail.com")
+                .password("12345678")
+                .street("5678 S 88Th St")
+                .city("Los Angeles")
+                .state("California")
+                .zipCode("90002")
+                .build();
+    }
+
+    private List<EmailOutboxEntity> outboxRows(String recipient) {
+        return emailOutboxRepository.findAll().stream()
+                .filter(row -> row.getRecipient().equals(recipient))
+                .toList();
+    }
+
+    private List<MimeMessage> sentTo(String recipient) throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>();
+        for (MimeMessage message : mailSender.getSentMessages()) {
+            if (message.getRecipients(Message.RecipientType.TO)[0].toString().equals(recipient)) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+}
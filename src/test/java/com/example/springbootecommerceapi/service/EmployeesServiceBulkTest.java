@@ -0,0 +1,170 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.OrderEntity;
+import com.example.springbootecommerceapi.entity.UserEntity;
+import com.example.springbootecommerceapi.exception.OrderException;
+import com.example.springbootecommerceapi.model.OrderStatus;
+import com.example.springbootecommerceapi.model.OrderTransitionDTO;
+import com.example.springbootecommerceapi.model.TransitionOutcome;
+import com.example.springbootecommerceapi.repository.OrderRepository;
+import com.example.springbootecommerceapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+class EmployeesServiceBulkTest {
+
+    @Autowired
+    private EmployeesService employeesService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shipOrders_whenMixedStatuses_reportOutcomePerOrder() {
+        // GIVEN
+        List<Long> orderNumbers = placeOrders(3);
+        OrderEntity delivered = orderRepository.findById(orderNumbers.get(1)).get();
+        delivered.setStatus(OrderStatus.DELIVERED);
+        orderRepository.save(delivered);
+        long missing = Long.MAX_VALUE;
+
+        // WHEN
+        List<OrderTransitionDTO> results = employeesService.shipOrders(
+                List.of(orderNumbers.get(0), orderNumbers.get(1), missing, orderNumbers.get(2)));
+
+        // THEN
+        assertThat(results).containsExactly(
+                new OrderTransitionDTO(orderNumbers.get(0), TransitionOutcome.UPDATED, OrderStatus.SHIPPED),
+                new OrderTransitionDTO(orderNumbers.get(1), TransitionOutcome.INVALID_TRANSITION, OrderStatus.DELIVERED),
+                new OrderTransitionDTO(missing, TransitionOutcome.NOT_FOUND, null),
+                new OrderTransitionDTO(orderNumbers.get(2), TransitionOutcome.UPDATED, OrderStatus.SHIPPED));
+        assertThat(orderRepository.findById(orderNumbers.get(0)).get().getDateShipped()).isNotNull();
+        assertThat(orderRepository.findById(orderNumbers.get(1)).get().getStatus()).isEqualTo(OrderStatus.DELIVERED);
+    }
+
+    @Test
+    void deliverOrders_whenCsvSpansSeveralChunks_deliverShippedOrdersOnly() throws Exception {
+        // GIVEN
+        List<Long> orderNumbers = placeOrders(2500);
+        employeesService.shipOrders(orderNumbers.subList(0, 2000));
+        String csv = orderNumbers.stream().map(String::valueOf).collect(Collectors.joining(",\n"));
+
+        // WHEN
+        List<OrderTransitionDTO> results = employeesService.deliverOrders(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // THEN
+        assertThat(results).hasSize(2500);
+        assertThat(results.subList(0, 2000)).allMatch(result -> result.getOutcome() == TransitionOutcome.UPDATED);
+        assertThat(results.subList(2000, 2500)).allMatch(result ->
+                result.getOutcome() == TransitionOutcome.INVALID_TRANSITION
+                        && result.getStatus() == OrderStatus.PROCESSING);
+        assertThat(orderRepository.findById(orderNumbers.get(1999)).get().getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(orderRepository.findById(orderNumbers.get(2000)).get().getStatus()).isEqualTo(OrderStatus.PROCESSING);
+    }
+
+    @Test
+    void shipOrders_whenCsvHasMalformedNumberAfterFirstChunk_throwOrderExceptionAndShipNothing() {
+        // GIVEN
+        List<Long> orderNumbers = placeOrders(1500);
+        String csv = orderNumbers.stream().map(String::valueOf).collect(Collectors.joining("\n", "", "\n12x\n"));
+
+        // WHEN
+        assertThatThrownBy(() -> employeesService.shipOrders(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(OrderException.class)
+                .hasMessage("Invalid order number on line 1501: 12x");
+
+        // THEN
+        assertThat(orderRepository.findById(orderNumbers.get(0)).get().getStatus()).isEqualTo(OrderStatus.PROCESSING);
+    }
+
+    @Test
+    void shipOrders_whenMiddleChunkFails_reportItFailedAndApplyOtherChunks() {
+        // GIVEN
+        List<Long> orderNumbers = placeOrders(6);
+        OrderRepository failingSecondChunk = mock(OrderRepository.class, delegatesTo(orderRepository));
+        AtomicInteger chunks = new AtomicInteger();
+        willAnswer(invocation -> {
+            if (chunks.incrementAndGet() == 2) {
+                throw new QueryTimeoutException("Simulated lock timeout");
+            }
+            return orderRepository.lockStatuses(invocation.getArgument(0));
+        }).given(failingSecondChunk).lockStatuses(anyCollection());
+        ReflectionTestUtils.setField(employeesService, "orderRepository", failingSecondChunk);
+        ReflectionTestUtils.setField(employeesService, "chunkSize", 2);
+        List<OrderTransitionDTO> results;
+
+        try {
+            // WHEN
+            results = employeesService.shipOrders(orderNumbers);
+        } finally {
+            ReflectionTestUtils.setField(employeesService, "orderRepository", orderRepository);
+            ReflectionTestUtils.setField(employeesService, "chunkSize", 1000);
+        }
+
+        // THEN
+        assertThat(results).extracting(OrderTransitionDTO::getOutcome).containsExactly(
+                TransitionOutcome.UPDATED, TransitionOutcome.UPDATED,
+                TransitionOutcome.FAILED, TransitionOutcome.FAILED,
+                TransitionOutcome.UPDATED, TransitionOutcome.UPDATED);
+        assertThat(orderRepository.findById(orderNumbers.get(2)).get().getStatus()).isEqualTo(OrderStatus.PROCESSING);
+        assertThat(orderRepository.findById(orderNumbers.get(5)).get().getStatus()).isEqualTo(OrderStatus.SHIPPED);
+    }
+
+    @Test
+    void shipOrders_whenRetriedWithNumbersRepeatedAcrossChunks_reportEveryOrderUpdatedOnce() {
+        // GIVEN
+        List<Long> orderNumbers = placeOrders(3);
+        employeesService.shipOrders(orderNumbers.subList(0, 1));
+        List<Long> request = List.of(orderNumbers.get(0), orderNumbers.get(1), orderNumbers.get(2),
+                orderNumbers.get(1), orderNumbers.get(0));
+        ReflectionTestUtils.setField(employeesService, "chunkSize", 2);
+        List<OrderTransitionDTO> results;
+
+        try {
+            // WHEN
+            results = employeesService.shipOrders(request);
+        } finally {
+            ReflectionTestUtils.setField(employeesService, "chunkSize", 1000);
+        }
+
+        // THEN
+        assertThat(results).containsExactly(
+                new OrderTransitionDTO(orderNumbers.get(0), TransitionOutcome.UPDATED, OrderStatus.SHIPPED),
+                new OrderTransitionDTO(orderNumbers.get(1), TransitionOutcome.UPDATED, OrderStatus.SHIPPED),
+                new OrderTransitionDTO(orderNumbers.get(2), TransitionOutcome.UPDATED, OrderStatus.SHIPPED));
+    }
+
+    private List<Long> placeOrders(int count) {
+        UserEntity customer = userRepository.findByEmail("customer@gmail.com").get();
+        List<OrderEntity> orders = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            orders.add(new OrderEntity(customer));
+        }
+
+        List<Long> orderNumbers = new ArrayList<>(count);
+        orderRepository.saveAll(orders).forEach(order -> orderNumbers.add(order.getOrderNumber()));
+        return orderNumbers;
+    }
+}
@@ -1,28 +1,25 @@
 package com.example.springbootecommerceapi.service;
 
-import com.example.springbootecommerceapi.entity.OrderEntity;
-import com.example.springbootecommerceapi.entity.UserEntity;
 import com.example.springbootecommerceapi.exception.OrderException;
-import com.example.springbootecommerceapi.model.Gender;
+import com.example.springbootecommerceapi.exception.OrderTransitionException;
 import com.example.springbootecommerceapi.model.OrderStatus;
-import com.example.springbootecommerceapi.model.Role;
-import com.example.springbootecommerceapi.model.UserBuilder;
 import com.example.springbootecommerceapi.repository.OrderRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.boot.test.mock.mockito.MockBean;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.never;
@@ -35,105 +32,84 @@ class EmployeesServiceTest {
 
     @InjectMocks
     private EmployeesService employeesService;
-    @Captor
-    private ArgumentCaptor<OrderEntity> orderCaptor;
 
     @Test
-    void shipOrder_whenOrderExists_setStatusToShipped() {
+    void shipOrder_whenOrderIsProcessing_shipWithConditionalUpdate() {
         // GIVEN
         long orderNumber = 1L;
-        UserEntity customer = new UserBuilder()
-                .firstName("John")
-                .lastName("Last")
-                .gender(Gender.MALE)
-                .phone("(323) 456-1234")
-                .email("john.last@gmail.com")
-                .password("12345678")
-                .street("5678 S 88Th St")
-                .city("Los Angeles")
-                .state("California")
-                .zipCode("90002")
-                .build();
-        customer.setRole(Role.CUSTOMER);
-        customer.setActive(true);
-        customer.setUserNumber(1L);
-
-        OrderEntity order = new OrderEntity(customer);
-
-        given(orderRepository.findById(orderNumber)).willReturn(Optional.of(order));
+        given(orderRepository.shipOrders(eq(List.of(orderNumber)), eq(Set.of(OrderStatus.PROCESSING)), any()))
+                .willReturn(1);
 
         // WHEN
         employeesService.shipOrder(orderNumber);
 
         // THEN
-        then(orderRepository).should().save(orderCaptor.capture());
-        assertThat(orderCaptor.getValue().getStatus()).isEqualTo(OrderStatus.SHIPPED);
+        then(orderRepository).should(never()).findById(any());
+        then(orderRepository).should(never()).findStatus(orderNumber);
     }
 
     @Test
     void shipOrder_whenOrderDoesNotExists_throwOrderException() {
         // GIVEN
         long orderNumber = 1L;
-
-
-        given(orderRepository.findById(orderNumber)).willReturn(Optional.empty());
+        given(orderRepository.shipOrders(anyList(), anySet(), any())).willReturn(0);
+        given(orderRepository.findStatus(orderNumber)).willReturn(Optional.empty());
 
         // WHEN
         assertThatThrownBy(() -> employeesService.shipOrder(orderNumber))
                 .isInstanceOf(OrderException.class)
                         .hasMessage("Order does not exist");
+    }
 
-        // THEN
-        then(orderRepository).should(never()).save(any());
+    @Test
+    void shipOrder_whenOrderWasCancelled_throwOrderTransitionException() {
+        // GIVEN
+        long orderNumber = 1L;
+        given(orderRepository.shipOrders(anyList(), anySet(), any())).willReturn(0);
+        given(orderRepository.findStatus(orderNumber)).willReturn(Optional.of(OrderStatus.CANCELLED));
+
+        // WHEN
+        assertThatThrownBy(() -> employeesService.shipOrder(orderNumber))
+                .isInstanceOf(OrderTransitionException.class)
+                .hasMessage("Order is CANCELLED and cannot become SHIPPED");
     }
 
     @Test
-    void deliverOrder_whenOrderExists_setStatusToDelivered() {
+    void shipOrder_whenOrderAlreadyShipped_succeed() {
         // GIVEN
         long orderNumber = 1L;
-        UserEntity customer = new UserBuilder()
-                .firstName("John")
-                .lastName("Last")
-                .gender(Gender.MALE)
-                .phone("(323) 456-1234")
-                .email("john.last@gmail.com")
-                .password("12345678")
-                .street("5678 S 88Th St")
-                .city("Los Angeles")
-                .state("California")
-                .zipCode("90002")
-                .build();
-        customer.setRole(Role.CUSTOMER);
-        customer.setActive(true);
-        customer.setUserNumber(1L);
-
-        OrderEntity order = new OrderEntity(customer);
-
-        given(orderRepository.findById(orderNumber)).willReturn(Optional.of(order));
+        given(orderRepository.shipOrders(anyList(), anySet(), any())).willReturn(0);
+        given(orderRepository.findStatus(orderNumber)).willReturn(Optional.of(OrderStatus.SHIPPED));
+
+        // WHEN
+        assertThatCode(() -> employeesService.shipOrder(orderNumber)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void deliverOrder_whenOrderIsShipped_deliverWithConditionalUpdate() {
+        // GIVEN
+        long orderNumber = 1L;
+        given(orderRepository.deliverOrders(eq(List.of(orderNumber)), eq(Set.of(OrderStatus.SHIPPED)), any()))
+                .willReturn(1);
 
         // WHEN
         employeesService.deliverOrder(orderNumber);
 
         // THEN
-        then(orderRepository).should().save(orderCaptor.capture());
-        assertThat(orderCaptor.getValue().getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        then(orderRepository).should(never()).findStatus(orderNumber);
     }
 
     @Test
     void deliverOrder_whenOrderDoesNotExists_throwOrderException() {
         // GIVEN
         long orderNumber = 1L;
-
-
-        given(orderRepository.findById(orderNumber)).willReturn(Optional.empty());
+        given(orderRepository.deliverOrders(anyList(), anySet(), any())).willReturn(0);
+        given(orderRepository.findStatus(orderNumber)).willReturn(Optional.empty());
 
         // WHEN
         assertThatThrownBy(() -> employeesService.deliverOrder(orderNumber))
                 .isInstanceOf(OrderException.class)
                 .hasMessage("Order does not exist");
-
-        // THEN
-        then(orderRepository).should(never()).save(any());
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.example.springbootecommerceapi.service;
+
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.template.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HtmlEmailSenderServiceTest {
+
+    private Configuration configuration;
+
+    @BeforeEach
+    void setUp() {
+        configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setTemplateLoader(new ClassTemplateLoader(getClass(), "/templates"));
+    }
+
+    @Test
+    void getContentFromTemplate_whenRenderedRepeatedly_returnOnlyCurrentModel() {
+        // GIVEN
+        HtmlEmailSenderService emailSenderService = new HtmlEmailSenderService(
+                null, configuration, List.of("password-reset-template"));
+
+        // WHEN
+        String first = emailSenderService.getContentFromTemplate(
+                Map.of("firstName", "John", "lastName", "Last", "passwordResetUrl", "http://first"),
+                "password-reset-template");
+        String second = emailSenderService.getContentFromTemplate(
+                Map.of("firstName", "Jane", "lastName", "Doe", "passwordResetUrl", "http://second"),
+                "password-reset-template");
+
+        // THEN
+        assertThat(first).contains("Dear John Last").contains("http://first");
+        assertThat(second).contains("Dear Jane Doe").contains("http://second").doesNotContain("John");
+    }
+
+    @Test
+    void constructor_whenTemplateIsMissing_failFast() {
+        // WHEN
+        // THEN
+        assertThatThrownBy(() -> new HtmlEmailSenderService(null, configuration, List.of("missing-template")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing-template");
+    }
+
+    @Test
+    void getContentFromTemplate_whenTemplateWasNotLoaded_throwException() {
+        // GIVEN
+        HtmlEmailSenderService emailSenderService = new HtmlEmailSenderService(
+                null, configuration, List.of("password-reset-template"));
+
+        // WHEN
+        // THEN
+        assertThatThrownBy(() -> emailSenderService.getContentFromTemplate(Map.of(), "activate-account-template"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.IdempotencyKeyEntity;
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.exception.IdempotencyException;
+import com.example.springbootecommerceapi.exception.OrderQuantityException;
+import com.example.springbootecommerceapi.model.OrderCreatedDTO;
+import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.repository.IdempotencyKeyRepository;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class OrderIdempotencyServiceTest {
+
+    private static final String CUSTOMER = "customer@gmail.com";
+
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Test
+    void createOrder_whenRetriedWithSameKey_returnOriginalOrderAndReserveStockOnce() {
+        // GIVEN
+        ProductEntity product = productRepository.save(
+                new ProductEntity("Retried Ball", 10, "retried soccer ball", 40));
+        List<OrderDTO> orderItems = List.of(new OrderDTO(product.getProductNumber(), 2));
+        String key = UUID.randomUUID().toString();
+
+        // WHEN
+        OrderCreatedDTO first = orderIdempotencyService.createOrder(orderItems, CUSTOMER, key);
+        OrderCreatedDTO retry = orderIdempotencyService.createOrder(orderItems, CUSTOMER, key);
+
+        // THEN
+        assertThat(retry).isEqualTo(first);
+        assertThat(productRepository.findById(product.getProductNumber()).get().getProductStock()).isEqualTo(8);
+    }
+
+    @Test
+    void createOrder_whenKeyReusedForDifferentOrder_throwIdempotencyException() {
+        // GIVEN
+        ProductEntity product = productRepository.save(
+                new ProductEntity("Reused Key Ball", 10, "reused key soccer ball", 40));
+        String key = UUID.randomUUID().toString();
+        orderIdempotencyService.createOrder(List.of(new OrderDTO(product.getProductNumber(), 1)), CUSTOMER, key);
+
+        // WHEN
+        assertThatThrownBy(() -> orderIdempotencyService.createOrder(
+                List.of(new OrderDTO(product.getProductNumber(), 3)), CUSTOMER, key))
+                .isInstanceOf(IdempotencyException.class);
+
+        // THEN
+        assertThat(productRepository.findById(product.getProductNumber()).get().getProductStock()).isEqualTo(9);
+    }
+
+    @Test
+    void createOrder_whenDuplicatesRaceWithSameKey_placeOneOrder() throws Exception {
+        // GIVEN
+        int duplicates = 16;
+        ProductEntity product = productRepository.save(
+                new ProductEntity("Raced Ball", 100, "raced soccer ball", 40));
+        List<OrderDTO> orderItems = List.of(new OrderDTO(product.getProductNumber(), 1));
+        String key = UUID.randomUUID().toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+
+        for (int i = 0; i < duplicates; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return orderIdempotencyService.createOrder(orderItems, CUSTOMER, key).getOrderNumber();
+                } catch (IdempotencyException e) {
+                    // still in progress, a client would retry
+                    return null;
+                }
+            }));
+        }
+
+        // WHEN
+        start.countDown();
+        Set<Long> orderNumbers = ConcurrentHashMap.newKeySet();
+        for (Future<Long> future : futures) {
+            Long orderNumber = future.get(30, TimeUnit.SECONDS);
+            if (orderNumber != null) {
+                orderNumbers.add(orderNumber);
+            }
+        }
+        executor.shutdown();
+
+        // THEN
+        assertThat(orderNumbers).hasSize(1);
+        assertThat(productRepository.findById(product.getProductNumber()).get().getProductStock()).isEqualTo(99);
+    }
+
+    @Test
+    void createOrder_whenKeyRowCannotBeSaved_propagateFailureInsteadOfInProgress() {
+        // GIVEN
+        ProductEntity product = productRepository.save(
+                new ProductEntity("Oversized Key Ball", 10, "oversized key soccer ball", 40));
+        // longer than the column, reaches the service only when the controller is bypassed
+        String key = "k".repeat(300);
+
+        // WHEN
+        assertThatThrownBy(() -> orderIdempotencyService.createOrder(
+                List.of(new OrderDTO(product.getProductNumber(), 1)), CUSTOMER, key))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        // THEN
+        assertThat(productRepository.findById(product.getProductNumber()).get().getProductStock()).isEqualTo(10);
+    }
+
+    @Test
+    void createOrder_whenQuantitiesOfProductAddUpPastInt_throwOrderQuantityExceptionAndStoreNoKey() {
+        // GIVEN
+        List<OrderDTO> orderItems = List.of(new OrderDTO(1L, Integer.MAX_VALUE), new OrderDTO(1L, 2));
+        String key = UUID.randomUUID().toString();
+
+        // WHEN
+        assertThatThrownBy(() -> orderIdempotencyService.createOrder(orderItems, CUSTOMER, key))
+                .isInstanceOf(OrderQuantityException.class);
+
+        // THEN
+        assertThat(idempotencyKeyRepository.findByCustomerEmailAndIdempotencyKey(CUSTOMER, key)).isEmpty();
+    }
+
+    @Test
+    void purgeExpiredKeys_whenKeyExpired_deleteKey() {
+        // GIVEN
+        IdempotencyKeyEntity expired = idempotencyKeyRepository.save(new IdempotencyKeyEntity(
+                CUSTOMER, UUID.randomUUID().toString(), "hash", LocalDateTime.now().minusMinutes(1)));
+
+        // WHEN
+        orderIdempotencyService.purgeExpiredKeys();
+
+        // THEN
+        assertThat(idempotencyKeyRepository.findById(expired.getKeyNumber())).isEmpty();
+    }
+}
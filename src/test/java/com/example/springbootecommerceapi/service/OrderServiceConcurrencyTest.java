@@ -0,0 +1,186 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.OrderEntity;
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.entity.UserEntity;
+import com.example.springbootecommerceapi.exception.OrderTransitionException;
+import com.example.springbootecommerceapi.exception.ProductOutOfStockException;
+import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.model.OrderStatus;
+import com.example.springbootecommerceapi.repository.OrderRepository;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import com.example.springbootecommerceapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderServiceConcurrencyTest {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private EmployeesService employeesService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void createOrder_whenManyBuyersCompeteForLimitedStock_neverOversell() throws Exception {
+        // GIVEN
+        int buyers = 64;
+        int stock = 20;
+        ProductEntity product = productRepository.save(
+                new ProductEntity("Limited Edition Ball", stock, "only a few available", 50));
+
+        ExecutorService executor = Executors.newFixedThreadPool(buyers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < buyers; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrder(
+                            List.of(new OrderDTO(product.getProductNumber(), 1)), "customer@gmail.com");
+                    placed.incrementAndGet();
+                } catch (ProductOutOfStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // WHEN
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // THEN
+        assertThat(placed.get()).isEqualTo(stock);
+        assertThat(rejected.get()).isEqualTo(buyers - stock);
+        assertThat(productRepository.findById(product.getProductNumber()).get().getProductStock()).isZero();
+    }
+
+    @Test
+    void cancelAndShip_whenRacingOnSameOrder_exactlyOneWins() throws Exception {
+        // GIVEN
+        int orders = 50;
+        UserEntity customer = userRepository.findByEmail("customer@gmail.com").get();
+        List<Long> orderNumbers = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            orderNumbers.add(orderRepository.save(new OrderEntity(customer)).getOrderNumber());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        // WHEN
+        for (Long orderNumber : orderNumbers) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Callable<Void>> racers = List.of(
+                    () -> race(start, () -> orderService.cancelCustomerOrder(orderNumber, "customer@gmail.com"), succeeded, conflicts),
+                    () -> race(start, () -> employeesService.shipOrder(orderNumber), succeeded, conflicts));
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> racer : racers) {
+                futures.add(executor.submit(racer));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        executor.shutdown();
+
+        // THEN
+        assertThat(succeeded.get()).isEqualTo(orders);
+        assertThat(conflicts.get()).isEqualTo(orders);
+        for (Long orderNumber : orderNumbers) {
+            OrderEntity order = orderRepository.findById(orderNumber).get();
+            assertThat(order.getStatus()).isIn(OrderStatus.CANCELLED, OrderStatus.SHIPPED);
+            assertThat(order.getVersion()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void cancelCustomerOrder_whenCheckoutsAndDuplicateCancelsRunConcurrently_restockEachOrderOnce() throws Exception {
+        // GIVEN
+        int orders = 30;
+        int stock = 1000;
+        ProductEntity ball = productRepository.save(new ProductEntity("Restocked Ball", stock, "restocked ball", 40));
+        ProductEntity net = productRepository.save(new ProductEntity("Restocked Net", stock, "restocked net", 60));
+        List<OrderDTO> cancelledLines = List.of(
+                new OrderDTO(ball.getProductNumber(), 2), new OrderDTO(net.getProductNumber(), 3));
+        List<OrderDTO> checkoutLines = List.of(
+                new OrderDTO(net.getProductNumber(), 1), new OrderDTO(ball.getProductNumber(), 1));
+
+        List<Long> toCancel = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            toCancel.add(orderService.createOrder(cancelledLines, "customer@gmail.com"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < orders; i++) {
+            long orderNumber = toCancel.get(i);
+            // every order is cancelled twice, the second cancel must not restock again
+            for (int attempt = 0; attempt < 2; attempt++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    orderService.cancelCustomerOrder(orderNumber, "customer@gmail.com");
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                start.await();
+                orderService.createOrder(checkoutLines, "customer@gmail.com");
+                return null;
+            }));
+        }
+
+        // WHEN
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // THEN
+        assertThat(productRepository.findById(ball.getProductNumber()).get().getProductStock())
+                .isEqualTo(stock - orders);
+        assertThat(productRepository.findById(net.getProductNumber()).get().getProductStock())
+                .isEqualTo(stock - orders);
+        for (Long orderNumber : toCancel) {
+            assertThat(orderRepository.findById(orderNumber).get().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        }
+    }
+
+    private Void race(CountDownLatch start, Runnable transition, AtomicInteger succeeded, AtomicInteger conflicts)
+            throws InterruptedException {
+        start.await();
+        try {
+            transition.run();
+            succeeded.incrementAndGet();
+        } catch (OrderTransitionException e) {
+            conflicts.incrementAndGet();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.config.RecordingStatementInspector;
+import com.example.springbootecommerceapi.entity.OrderEntity;
+import com.example.springbootecommerceapi.entity.UserEntity;
+import com.example.springbootecommerceapi.model.Gender;
+import com.example.springbootecommerceapi.model.OrderPage;
+import com.example.springbootecommerceapi.model.OrderStatus;
+import com.example.springbootecommerceapi.model.Role;
+import com.example.springbootecommerceapi.model.UserBuilder;
+import com.example.springbootecommerceapi.repository.OrderRepository;
+import com.example.springbootecommerceapi.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderServiceHistoryTest {
+
+    private static final String EMAIL = "history.customer@gmail.com";
+    private static final LocalDateTime START = LocalDateTime.of(2022, 1, 1, 12, 0);
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        if (userRepository.existsByEmail(EMAIL)) {
+            return;
+        }
+
+        UserEntity customer = userRepository.save(customer(EMAIL));
+
+        // one order per day, every third one cancelled
+        List<OrderEntity> orders = new ArrayList<>();
+        for (int day = 0; day < 10; day++) {
+            OrderEntity order = new OrderEntity(customer);
+            order.setDatePlaced(START.plusDays(day));
+            order.setStatus(day % 3 == 0 ? OrderStatus.CANCELLED : OrderStatus.PROCESSING);
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    @Test
+    void getCustomerOrders_walkAllPagesNewestFirst() {
+        // GIVEN
+        List<LocalDateTime> seen = new ArrayList<>();
+        String cursor = null;
+
+        // WHEN
+        do {
+            OrderPage page = orderService.getCustomerOrders(EMAIL, null, null, null, cursor, 3);
+            page.getOrders().forEach(order -> seen.add(order.getDatePlaced()));
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        // THEN
+        assertThat(seen).hasSize(10);
+        assertThat(seen.get(0)).isEqualTo(START.plusDays(9));
+        assertThat(seen.get(9)).isEqualTo(START);
+    }
+
+    @Test
+    void getCustomerOrders_whenFilteredByStatusAndDateRange_returnMatchingOrders() {
+        // WHEN
+        OrderPage page = orderService.getCustomerOrders(
+                EMAIL, OrderStatus.CANCELLED, START.plusDays(1), START.plusDays(9), null, 10);
+
+        // THEN
+        assertThat(page.getOrders())
+                .extracting(OrderEntity::getDatePlaced)
+                .containsExactly(START.plusDays(6), START.plusDays(3));
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    void getCustomerOrders_whenOrdersShareDatePlaced_walkEachOnceByOrderNumber() {
+        // GIVEN
+        // another customer, the orders of the shared one are counted by the tests above
+        UserEntity customer = userRepository.save(customer("history.sameday@gmail.com"));
+        LocalDateTime sameDate = START.minusDays(30);
+        List<OrderEntity> sameDay = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            OrderEntity order = new OrderEntity(customer);
+            order.setDatePlaced(sameDate);
+            order.setStatus(OrderStatus.DELIVERED);
+            sameDay.add(order);
+        }
+        List<Long> expected = orderRepository.saveAll(sameDay).stream()
+                .map(OrderEntity::getOrderNumber)
+                .sorted(Comparator.reverseOrder())
+                .toList();
+
+        // WHEN
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderPage page = orderService.getCustomerOrders(
+                    customer.getEmail(), OrderStatus.DELIVERED, null, START, cursor, 2);
+            page.getOrders().forEach(order -> seen.add(order.getOrderNumber()));
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        // THEN
+        assertThat(seen).isEqualTo(expected);
+    }
+
+    @Test
+    void getCustomerOrders_whenNoFilters_queryHoldsNoNullGuards() {
+        // GIVEN
+        OrderPage first = orderService.getCustomerOrders(EMAIL, null, null, null, null, 3);
+
+        // WHEN
+        RecordingStatementInspector.start();
+        List<String> statements;
+        try {
+            orderService.getCustomerOrders(EMAIL, null, null, null, first.getNext(), 3);
+        } finally {
+            statements = RecordingStatementInspector.stop();
+        }
+
+        // THEN
+        assertThat(statements).hasSize(1);
+        assertThat(statements.get(0).toLowerCase(Locale.ROOT))
+                .doesNotContain("is null")
+                .contains("date_placed<=?")
+                .doesNotContain("status=");
+    }
+
+    private static UserEntity customer(String email) {
+        UserEntity customer = new UserBuilder()
+                .firstName("History")
+                .lastName("Last")
+                .gender(Gender.FEMALE)
+                .phone("(323) 456-1234")
+                .email(email)
+                .password("12345678")
+                .street("5678 S 88Th St")
+                .city("Los Angeles")
+                .state("California")
+                .zipCode("90002")
+                .build();
+        customer.setActive(true);
+        customer.setRole(Role.CUSTOMER);
+        return customer;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.config.RecordingStatementInspector;
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.model.OrderDetailsDTO;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import com.example.springbootecommerceapi.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderServiceStatementCountTest {
+
+    private static final int ORDER_LINES = 10;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // collected for the whole test profile, see application-test.yml
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void createOrder_whenManyLines_insertItemsInOneBatch() {
+        // GIVEN
+        List<OrderDTO> orderItems = new ArrayList<>();
+
+        for (int i = 0; i < ORDER_LINES; i++) {
+            ProductEntity product = productRepository.save(
+                    new ProductEntity("Batch Ball " + i, 10, "batched soccer ball", 40));
+            orderItems.add(new OrderDTO(product.getProductNumber(), 1));
+        }
+        // the customer is then read from the query cache
+        userRepository.findByEmail("customer@gmail.com");
+        statistics.clear();
+        RecordingStatementInspector.start();
+
+        // WHEN
+        orderService.createOrder(orderItems, "customer@gmail.com");
+
+        // THEN
+        List<String> statements = RecordingStatementInspector.stop();
+        // the pooled order sequence is called once every 50 orders, whether this order needs it depends on test order
+        statements.removeIf(sql -> sql.startsWith("call next value for"));
+        // one stock update per line, product lookup, order insert and a single batched insert for all
+        // order items, 34 statements before insert batching and pooled sequences
+        assertThat(statements).hasSize(ORDER_LINES + 3);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ORDER_LINES + 1);
+    }
+
+    @Test
+    void getOrderDetails_readHeaderAndLinesInOneStatement() {
+        // GIVEN
+        List<OrderDTO> orderItems = new ArrayList<>();
+
+        for (int i = 0; i < ORDER_LINES; i++) {
+            ProductEntity product = productRepository.save(
+                    new ProductEntity("Detail Ball " + i, 10, "detailed soccer ball", 40));
+            orderItems.add(new OrderDTO(product.getProductNumber(), 2));
+        }
+        orderService.createOrder(orderItems, "customer@gmail.com");
+        long orderNumber = orderService.getCustomerOrders("customer@gmail.com", null, null, null, null, 1)
+                .getOrders().get(0).getOrderNumber();
+        RecordingStatementInspector.start();
+
+        // WHEN
+        OrderDetailsDTO orderDetails = orderService.getOrderDetails(orderNumber, "customer@gmail.com");
+
+        // THEN
+        assertThat(RecordingStatementInspector.stop()).hasSize(1);
+        assertThat(orderDetails.getItems()).hasSize(ORDER_LINES);
+        assertThat(orderDetails.getOrderTotal()).isEqualTo(ORDER_LINES * 2 * 40.0);
+    }
+
+    @Test
+    void cancelCustomerOrder_whenProcessing_cancelAndRestockWithoutLoadingEntities() {
+        // GIVEN
+        long orderNumber = orderService.createOrder(List.of(new OrderDTO(
+                productRepository.save(new ProductEntity("Cancelled Ball", 10, "cancelled soccer ball", 40))
+                        .getProductNumber(), 1)), "customer@gmail.com");
+        RecordingStatementInspector.start();
+
+        // WHEN
+        orderService.cancelCustomerOrder(orderNumber, "customer@gmail.com");
+
+        // THEN
+        // status update, the product numbers to evict from the cache and one set-based restock
+        List<String> statements = RecordingStatementInspector.stop();
+        assertThat(statements).hasSize(3);
+        assertThat(statements).noneMatch(sql -> sql.startsWith("select") && sql.contains(" from product "));
+    }
+}
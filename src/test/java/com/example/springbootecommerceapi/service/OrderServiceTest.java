@@ -1,22 +1,40 @@
 package com.example.springbootecommerceapi.service;
 
 import com.example.springbootecommerceapi.entity.*;
+import com.example.springbootecommerceapi.exception.IdempotencyException;
 import com.example.springbootecommerceapi.exception.OrderException;
+import com.example.springbootecommerceapi.exception.OrderQuantityException;
+import com.example.springbootecommerceapi.exception.OrderTransitionException;
+import com.example.springbootecommerceapi.exception.ProductException;
 import com.example.springbootecommerceapi.exception.ProductOutOfStockException;
 import com.example.springbootecommerceapi.exception.UserException;
 import com.example.springbootecommerceapi.model.*;
+import com.example.springbootecommerceapi.repository.IdempotencyKeyRepository;
 import com.example.springbootecommerceapi.repository.OrderItemRepository;
 import com.example.springbootecommerceapi.repository.OrderRepository;
 import com.example.springbootecommerceapi.repository.ProductRepository;
 import com.example.springbootecommerceapi.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 
 
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -24,6 +42,9 @@ import java.util.Set;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.never;
@@ -39,7 +60,15 @@ class OrderServiceTest {
     @Mock
     private OrderItemRepository orderItemRepository;
     @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Mock
     private OrderItemService orderItemService;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache productCache;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
     @InjectMocks
     private OrderService orderService;
 
@@ -77,16 +106,78 @@ class OrderServiceTest {
 
 
         given(userRepository.findByEmail(email)).willReturn(Optional.of(user));
-        given(productRepository.findAllById(Set.of(1L))).willReturn(List.of(product));
+        given(productRepository.decrementStock(1L, 2)).willReturn(1);
+        given(productRepository.findByProductNumberIn(Set.of(1L))).willReturn(List.of(product));
+        given(cacheManager.getCache("products")).willReturn(productCache);
+        given(orderRepository.save(any(OrderEntity.class))).willAnswer(invocation -> {
+            OrderEntity order = invocation.getArgument(0);
+            order.setOrderNumber(7L);
+            return order;
+        });
 
 
         // WHEN
-        orderService.createOrder(orderDTOs, email);
+        long orderNumber = orderService.createOrder(orderDTOs, email);
 
         // THEN
         ArgumentCaptor<OrderEntity> orderCaptor = ArgumentCaptor.forClass(OrderEntity.class);
         then(orderRepository).should().save(orderCaptor.capture());
         assertThat(orderCaptor.getValue().getCustomer()).isEqualTo(user);
+        assertThat(orderNumber).isEqualTo(7L);
+        then(idempotencyKeyRepository).should(never()).saveAndFlush(any());
+        then(productCache).should().evict(1L);
+        assertThat(meterRegistry.get("ecommerce.orders.placed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void createOrder_whenIdempotencyKeyTaken_throwIdempotencyException() {
+        // GIVEN
+        IdempotencyKeyEntity key = new IdempotencyKeyEntity(
+                "john.last@gmail.com", "key", "hash", LocalDateTime.now().plusDays(1));
+        given(idempotencyKeyRepository.saveAndFlush(key)).willThrow(new DataIntegrityViolationException(
+                "duplicate key", new ConstraintViolationException("duplicate key", new SQLException(),
+                "PUBLIC.IDEMPOTENCYKEYCUSTOMERKEYUNIQUE_INDEX_5")));
+
+        // WHEN
+        assertThatThrownBy(() -> orderService.createOrder(List.of(new OrderDTO(1L, 2)), "john.last@gmail.com", key))
+                .isInstanceOf(IdempotencyException.class)
+                .hasMessage("A request with this Idempotency-Key is still in progress");
+
+        // THEN
+        then(productRepository).should(never()).decrementStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void createOrder_whenIdempotencyKeyViolatesOtherConstraint_propagateViolation() {
+        // GIVEN
+        IdempotencyKeyEntity key = new IdempotencyKeyEntity(
+                "john.last@gmail.com", "key", "hash", LocalDateTime.now().plusDays(1));
+        DataIntegrityViolationException violation = new DataIntegrityViolationException(
+                "value too long", new ConstraintViolationException("value too long", new SQLException(), null));
+        given(idempotencyKeyRepository.saveAndFlush(key)).willThrow(violation);
+
+        // WHEN
+        assertThatThrownBy(() -> orderService.createOrder(List.of(new OrderDTO(1L, 2)), "john.last@gmail.com", key))
+                // THEN
+                .isSameAs(violation);
+    }
+
+    @Test
+    void createOrder_whenQuantitiesOfProductAddUpPastInt_throwOrderQuantityException() {
+        // GIVEN
+        String email = "john.last@gmail.com";
+        List<OrderDTO> orderDTOs = List.of(new OrderDTO(1L, Integer.MAX_VALUE), new OrderDTO(1L, 2));
+
+        given(userRepository.findByEmail(email)).willReturn(Optional.of(new UserEntity()));
+
+        // WHEN
+        assertThatThrownBy(() -> orderService.createOrder(orderDTOs, email))
+                .isInstanceOf(OrderQuantityException.class)
+                .hasMessage("Quantity ordered of product 1 is too large");
+
+        // THEN
+        then(productRepository).should(never()).decrementStock(anyLong(), anyInt());
+        then(orderRepository).should(never()).save(any());
     }
 
     @Test
@@ -143,7 +234,8 @@ class OrderServiceTest {
 
         // list of order items
         given(userRepository.findByEmail(email)).willReturn(Optional.of(user));
-        given(productRepository.findAllById(Set.of(1L))).willReturn(List.of(product));
+        given(productRepository.decrementStock(1L, 20)).willReturn(0);
+        given(productRepository.findByProductNumberIn(Set.of(1L))).willReturn(List.of(product));
 
         // WHEN
         assertThatThrownBy(() -> orderService.createOrder(List.of(orderDTO1), email))
@@ -151,15 +243,17 @@ class OrderServiceTest {
 
         // THEN
         then(orderRepository).should(never()).save(any());
+        assertThat(meterRegistry.get("ecommerce.orders.rejected").tag("reason", "out_of_stock").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("ecommerce.orders.placed").counter().count()).isZero();
     }
 
     @Test
-    void getAllOrders_whenCustomerExists_returnListOfCustomerOrders() {
+    void createOrder_whenProductDoesNotExist_throwProductException() {
         // GIVEN
         String email = "john.last@gmail.com";
 
-        // assume that user exists
-        UserEntity customer = new UserBuilder()
+        UserEntity user = new UserBuilder()
                 .firstName("John")
                 .lastName("Last")
                 .gender(Gender.MALE)
@@ -171,49 +265,34 @@ class OrderServiceTest {
                 .state("California")
                 .zipCode("90002")
                 .build();
-        customer.setRole(Role.CUSTOMER);
-        customer.setActive(true);
-        customer.setUserNumber(1L);
-
-        // assume that customer exists
-        given(userRepository.findByEmail(email)).willReturn(Optional.of(customer));
-
-        // WHEN
-        orderService.getAllOrdersFromCustomer(email);
-
-        // THEN
-        then(orderRepository).should().findByCustomer(customer);
-    }
-
-    @Test
-    void getAllOrders_whenCustomerDoesNotExist_throwUserException() {
-        // GIVEN
-        String email = "john.last@gmail.com";
+        user.setRole(Role.CUSTOMER);
+        user.setActive(true);
+        user.setUserNumber(1L);
 
+        OrderDTO orderDTO1 = new OrderDTO(1L, 2);
 
-        // assume that customer does not exist
-        given(userRepository.findByEmail(email)).willReturn(Optional.empty());
+        // assume product does not exist so no stock could be reserved
+        given(userRepository.findByEmail(email)).willReturn(Optional.of(user));
+        given(productRepository.decrementStock(1L, 2)).willReturn(0);
+        given(productRepository.findByProductNumberIn(Set.of(1L))).willReturn(List.of());
 
         // WHEN
-        assertThatThrownBy(() -> orderService.getAllOrdersFromCustomer(email))
-                .isInstanceOf(UserException.class)
-                        .hasMessage("User does not exist");
-
+        assertThatThrownBy(() -> orderService.createOrder(List.of(orderDTO1), email))
+                .isInstanceOf(ProductException.class)
+                .hasMessage("Product does not exist");
 
         // THEN
-        then(orderRepository).should(never()).findByCustomer(any());
+        then(orderRepository).should(never()).save(any());
     }
 
     @Test
-    void getOrderItems_whenOrderExistsAndBelongsToCustomer_returnOrderItems() {
+    void getCustomerOrders_whenMoreOrdersThanPageSize_returnPageWithNextCursor() {
         // GIVEN
         String email = "john.last@gmail.com";
-        long orderNumber = 1L;
+        ReflectionTestUtils.setField(orderService, "defaultPageSize", 1);
+        ReflectionTestUtils.setField(orderService, "maxPageSize", 5);
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "datePlaced", "orderNumber");
 
-        ProductEntity product = new ProductEntity(
-                1L, "Soccer Ball", 10,
-                "The official World Cup 2022 soccer ball", 40
-        );
         UserEntity customer = new UserBuilder()
                 .firstName("John")
                 .lastName("Last")
@@ -226,25 +305,83 @@ class OrderServiceTest {
                 .state("California")
                 .zipCode("90002")
                 .build();
-        customer.setActive(true);
         customer.setRole(Role.CUSTOMER);
+        customer.setActive(true);
         customer.setUserNumber(1L);
 
-        // create order
-        OrderEntity orderEntity = new OrderEntity(customer);
+        OrderEntity newest = new OrderEntity(customer);
+        newest.setOrderNumber(2L);
+        OrderEntity oldest = new OrderEntity(customer);
+        oldest.setOrderNumber(1L);
+        oldest.setDatePlaced(newest.getDatePlaced().minusDays(1));
+
+        // assume there are more orders than the page size
+        given(orderRepository.findPage(any(), eq(newestFirst), eq(2))).willReturn(List.of(newest, oldest));
+
+        // WHEN
+        OrderPage page = orderService.getCustomerOrders(email, OrderStatus.PROCESSING, null, null, null, null);
+
+        // THEN
+        assertThat(page.getOrders()).isEqualTo(List.of(newest));
+        assertThat(page.getNext()).isNotNull();
+
+        // the cursor is the position of the last order returned
+        assertThat(new String(Base64.getUrlDecoder().decode(page.getNext()), StandardCharsets.UTF_8))
+                .isEqualTo(newest.getDatePlaced() + "|2");
+    }
+
+    @Test
+    void getCustomerOrders_whenInvalidCursor_throwOrderException() {
+        // GIVEN
+        String email = "john.last@gmail.com";
+
+        // WHEN
+        assertThatThrownBy(() -> orderService.getCustomerOrders(email, null, null, null, "not a cursor", null))
+                .isInstanceOf(OrderException.class)
+                .hasMessage("Invalid cursor");
 
-        // generate order item associated with above order
-        OrderItemPK orderItemPK = new OrderItemPK(product, orderEntity);
-        OrderItemEntity orderItemEntity = new OrderItemEntity(orderItemPK, 30, 3);
+        // THEN
+        then(orderRepository).should(never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void getOrderDetails_whenOrderExistsAndBelongsToCustomer_returnOrderWithLines() {
+        // GIVEN
+        String email = "john.last@gmail.com";
+        long orderNumber = 1L;
+        LocalDateTime datePlaced = LocalDateTime.now();
 
-        given(orderItemRepository.getOrderItemsFromOrder(orderNumber, email)).willReturn(List.of(orderItemEntity));
+        // one row per order item, all carrying the same order header
+        given(orderItemRepository.getOrderDetails(orderNumber, email)).willReturn(List.of(
+                new OrderDetailsRow(orderNumber, datePlaced, null, null, OrderStatus.PROCESSING,
+                        1L, "Soccer Ball", 30, 3),
+                new OrderDetailsRow(orderNumber, datePlaced, null, null, OrderStatus.PROCESSING,
+                        2L, "Basketball", 20, 1)));
 
         // WHEN
-        orderService.getOrderItems(orderNumber, email);
+        OrderDetailsDTO orderDetails = orderService.getOrderDetails(orderNumber, email);
 
         // THEN
-        then(orderItemRepository).should().getOrderItemsFromOrder(orderNumber, email);
+        assertThat(orderDetails.getOrderNumber()).isEqualTo(orderNumber);
+        assertThat(orderDetails.getStatus()).isEqualTo(OrderStatus.PROCESSING);
+        assertThat(orderDetails.getItems()).isEqualTo(List.of(
+                new OrderLineDTO(1L, "Soccer Ball", 30, 3),
+                new OrderLineDTO(2L, "Basketball", 20, 1)));
+        assertThat(orderDetails.getOrderTotal()).isEqualTo(110.0);
+    }
 
+    @Test
+    void getOrderDetails_whenOrderDoesNotExistOrIsNotFromGivenCustomer_throwOrderException() {
+        // GIVEN
+        String email = "john.last@gmail.com";
+        long orderNumber = 1L;
+
+        given(orderItemRepository.getOrderDetails(orderNumber, email)).willReturn(List.of());
+
+        // WHEN
+        assertThatThrownBy(() -> orderService.getOrderDetails(orderNumber, email))
+                .isInstanceOf(OrderException.class)
+                .hasMessage("Either order does not exist or does not belong to given customer");
     }
 
     @Test
@@ -252,33 +389,21 @@ class OrderServiceTest {
         // GIVEN
         long orderNumber = 1L;
         String email = "john.last@gmail.com";
-        UserEntity customer = new UserBuilder()
-                .firstName("John")
-                .lastName("Last")
-                .gender(Gender.MALE)
-                .phone("(323) 456-1234")
-                .email(email)
-                .password("12345678")
-                .street("5678 S 88Th St")
-                .city("Los Angeles")
-                .state("California")
-                .zipCode("90002")
-                .build();
-        customer.setRole(Role.CUSTOMER);
-        customer.setActive(true);
-        customer.setUserNumber(1L);
-
-        OrderEntity order = new OrderEntity(customer);
 
         // assume that order belongs to customer and status is processing
-        given(orderRepository.findByOrderNumberAndCustomerEmail(orderNumber, email))
-                .willReturn(Optional.of(order));
+        given(orderRepository.cancelOrder(orderNumber, email, Set.of(OrderStatus.PROCESSING)))
+                .willReturn(1);
+        given(orderItemRepository.findProductNumbers(orderNumber)).willReturn(List.of(3L));
+        given(cacheManager.getCache("products")).willReturn(productCache);
 
         // WHEN
         orderService.cancelCustomerOrder(orderNumber, email);
 
         // THEN
-        then(orderRepository).should().save(order);
+        then(productRepository).should().restockOrder(orderNumber, List.of(3L));
+        then(productCache).should().evict(3L);
+        then(orderRepository).should(never()).findStatus(orderNumber, email);
+        then(orderRepository).should(never()).save(any());
     }
 
     @Test
@@ -286,36 +411,36 @@ class OrderServiceTest {
         // GIVEN
         long orderNumber = 1L;
         String email = "john.last@gmail.com";
-        UserEntity customer = new UserBuilder()
-                .firstName("John")
-                .lastName("Last")
-                .gender(Gender.MALE)
-                .phone("(323) 456-1234")
-                .email(email)
-                .password("12345678")
-                .street("5678 S 88Th St")
-                .city("Los Angeles")
-                .state("California")
-                .zipCode("90002")
-                .build();
-        customer.setRole(Role.CUSTOMER);
-        customer.setActive(true);
-        customer.setUserNumber(1L);
 
-        OrderEntity order = new OrderEntity(customer);
-        order.setStatus(OrderStatus.SHIPPED);
-
-        // assume that order belongs to customer and status is processing
-        given(orderRepository.findByOrderNumberAndCustomerEmail(orderNumber, email))
-                .willReturn(Optional.of(order));
+        // assume that order belongs to customer and has shipped
+        given(orderRepository.cancelOrder(orderNumber, email, Set.of(OrderStatus.PROCESSING)))
+                .willReturn(0);
+        given(orderRepository.findStatus(orderNumber, email)).willReturn(Optional.of(OrderStatus.SHIPPED));
 
         // WHEN
         assertThatThrownBy(() -> orderService.cancelCustomerOrder(orderNumber, email))
-                .isInstanceOf(OrderException.class)
+                .isInstanceOf(OrderTransitionException.class)
                         .hasMessage("Order cannot be cancelled. Is is in transit or has been delivered.");
 
         // THEN
-        then(orderRepository).should(never()).save(any());
+        then(productRepository).should(never()).restockOrder(anyLong(), any());
+    }
+
+    @Test
+    void cancelCustomerOrder_whenAlreadyCancelled_succeed() {
+        // GIVEN
+        long orderNumber = 1L;
+        String email = "john.last@gmail.com";
+
+        given(orderRepository.cancelOrder(orderNumber, email, Set.of(OrderStatus.PROCESSING)))
+                .willReturn(0);
+        given(orderRepository.findStatus(orderNumber, email)).willReturn(Optional.of(OrderStatus.CANCELLED));
+
+        // WHEN
+        orderService.cancelCustomerOrder(orderNumber, email);
+
+        // THEN
+        then(productRepository).should(never()).restockOrder(anyLong(), any());
     }
 
     @Test
@@ -325,19 +450,16 @@ class OrderServiceTest {
         String email = "john.last@gmail.com";
 
 
-        // assume that order belongs to customer and status is processing
-        given(orderRepository.findByOrderNumberAndCustomerEmail(orderNumber, email))
-                .willReturn(Optional.empty());
+        given(orderRepository.cancelOrder(orderNumber, email, Set.of(OrderStatus.PROCESSING)))
+                .willReturn(0);
+        given(orderRepository.findStatus(orderNumber, email)).willReturn(Optional.empty());
 
         // WHEN
         assertThatThrownBy(() -> orderService.cancelCustomerOrder(orderNumber, email))
                 .isInstanceOf(OrderException.class)
                 .hasMessage("Either order does not exist or does not belong to given customer");
-
-        // THEN
-        then(orderRepository).should(never()).save(any());
     }
 
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.exception.ProductException;
+import com.example.springbootecommerceapi.model.ProductImportError;
+import com.example.springbootecommerceapi.model.ProductFilter;
+import com.example.springbootecommerceapi.model.ProductImportReport;
+import com.example.springbootecommerceapi.model.ProductSort;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Test
+    void importCsv_whenNewExistingAndInvalidRows_upsertValidRowsAndReportOthers() throws Exception {
+        // GIVEN
+        productService.addProduct(new ProductEntity("Import Kettle", 1, "old kettle", 10));
+        long kettleNumber = productNumber("Import Kettle");
+        // both caches hold the product before it is imported again
+        productService.getProduct(kettleNumber);
+        assertThat(productRepository.existsByProductName("Import Toaster")).isFalse();
+        String csv = """
+                productName,productPrice,productStock,productDescription
+                Import Kettle,25.5,7,"Steel kettle, 1.7 l"
+                Import Toaster,30,3,"Two slot toaster
+                with ""defrost"" setting"
+                ,10,1,nameless
+                Import Blender,cheap,1,blender
+                Import Mixer,-1,1,mixer
+
+                Import Grill,80,2
+                """;
+
+        // WHEN
+        ProductImportReport report = productImportService.importCsv(stream(csv));
+
+        // THEN
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getUpdated()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getErrors()).containsExactly(
+                new ProductImportError(5, "productName must not be blank"),
+                new ProductImportError(6, "productPrice is not a number: cheap"),
+                new ProductImportError(7, "productPrice must be greater than or equal to 0"),
+                new ProductImportError(9, "Expected 4 fields but found 3"));
+
+        // cached copies are evicted, readers see the imported values
+        ProductEntity kettle = productService.getProduct(kettleNumber);
+        assertThat(kettle.getProductStock()).isEqualTo(7);
+        assertThat(kettle.getProductPrice()).isEqualTo(25.5);
+        assertThat(kettle.getProductDescription()).isEqualTo("Steel kettle, 1.7 l");
+        assertThat(productRepository.findById(kettleNumber).get().getProductStock()).isEqualTo(7);
+        assertThat(productRepository.existsByProductName("Import Toaster")).isTrue();
+
+        long toasterNumber = productNumber("Import Toaster");
+        ProductEntity toaster = productRepository.findById(toasterNumber).get();
+        assertThat(toaster.getProductName()).isEqualTo("Import Toaster");
+        assertThat(toaster.getProductDescription()).isEqualTo("Two slot toaster\nwith \"defrost\" setting");
+        assertThat(productSearchIndex.search("defrost toaster", 5))
+                .anyMatch(hit -> hit.getProductNumber() == toasterNumber);
+    }
+
+    @Test
+    void importNdjson_whenRowsSpanSeveralChunks_importEveryValidRow() throws Exception {
+        // GIVEN
+        String ndjson = IntStream.range(0, 6000)
+                .mapToObj(i -> "{\"productName\":\"Import Lamp " + i + "\",\"productStock\":" + i
+                        + ",\"productDescription\":\"desk lamp\",\"productPrice\":12.5}")
+                .collect(Collectors.joining("\n", "", "\n{\"productName\": broken}\n"));
+
+        // WHEN
+        ProductImportReport report = productImportService.importNdjson(stream(ndjson));
+
+        // THEN
+        assertThat(report.getCreated()).isEqualTo(6000);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors().get(0).getLine()).isEqualTo(6001);
+        assertThat(productRepository.existsByProductName("Import Lamp 5999")).isTrue();
+
+        // importing again updates instead of inserting
+        ProductImportReport again = productImportService.importNdjson(stream(ndjson));
+        assertThat(again.getCreated()).isZero();
+        assertThat(again.getUpdated()).isEqualTo(6000);
+    }
+
+    @Test
+    void importCsv_whenOnlyNamesSupplied_keepStockPriceAndDescriptionOfExistingProducts() throws Exception {
+        // GIVEN
+        productService.addProduct(new ProductEntity("Import Sieve", 9, "fine mesh sieve", 14));
+        productService.addProduct(new ProductEntity("Import Ladle", 3, "steel ladle", 8));
+        long sieveNumber = productNumber("Import Sieve");
+        long ladleNumber = productNumber("Import Ladle");
+
+        // WHEN
+        ProductImportReport names = productImportService.importCsv(stream("productName\nImport Sieve\nImport Ladle\n"));
+        ProductImportReport prices = productImportService.importNdjson(
+                stream("{\"productName\":\"Import Ladle\",\"productPrice\":9.5}\n"));
+
+        // THEN
+        assertThat(names.getUpdated()).isEqualTo(2);
+        assertThat(prices.getUpdated()).isEqualTo(1);
+
+        ProductEntity sieve = productRepository.findById(sieveNumber).get();
+        assertThat(sieve.getProductStock()).isEqualTo(9);
+        assertThat(sieve.getProductPrice()).isEqualTo(14);
+        assertThat(sieve.getProductDescription()).isEqualTo("fine mesh sieve");
+
+        ProductEntity ladle = productRepository.findById(ladleNumber).get();
+        assertThat(ladle.getProductStock()).isEqualTo(3);
+        assertThat(ladle.getProductPrice()).isEqualTo(9.5);
+        assertThat(ladle.getProductDescription()).isEqualTo("steel ladle");
+        assertThat(productSearchIndex.search("steel ladle", 1).get(0).getProductPrice()).isEqualTo(9.5);
+    }
+
+    @Test
+    void importCsv_whenHeaderLacksProductName_throwProductException() {
+        // WHEN
+        assertThatThrownBy(() -> productImportService.importCsv(stream("productPrice,productStock\n10,1\n")))
+                // THEN
+                .isInstanceOf(ProductException.class)
+                .hasMessage("CSV header must name the productName column");
+    }
+
+    private long productNumber(String productName) {
+        ProductFilter filter = new ProductFilter(null, null, false, productName);
+        return productService.getProducts(filter, ProductSort.NAME, Sort.Direction.ASC, null, 1)
+                .getProducts().get(0).getProductNumber();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.ProductSearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex = new ProductSearchIndex();
+        productSearchIndex.rebuild(List.of(
+                new ProductEntity(1L, "Soccer Ball", 10, "The official World Cup 2022 soccer ball", 40),
+                new ProductEntity(2L, "Basketball", 10, "Indoor ball with a deep channel design", 30),
+                new ProductEntity(3L, "Goalkeeper Gloves", 10, "Grip gloves for soccer goalkeepers", 90),
+                new ProductEntity(4L, "Café Table", 10, "Round table for two", 120)
+        ).iterator());
+    }
+
+    @Test
+    void search_whenTermInNameAndDescription_rankNameMatchesFirst() {
+        // WHEN
+        List<ProductSearchHit> hits = productSearchIndex.search("soccer", 10);
+
+        // THEN
+        assertThat(hits).extracting(ProductSearchHit::getProductNumber).containsExactly(1L, 3L);
+        assertThat(hits.get(0).getScore()).isGreaterThan(hits.get(1).getScore());
+    }
+
+    @Test
+    void search_whenSeveralTerms_requireEveryTerm() {
+        // WHEN
+        List<ProductSearchHit> hits = productSearchIndex.search("soccer gloves", 10);
+
+        // THEN
+        assertThat(hits).extracting(ProductSearchHit::getProductNumber).containsExactly(3L);
+    }
+
+    @Test
+    void search_whenTermIsPrefix_matchLongerTerms() {
+        // WHEN
+        List<ProductSearchHit> hits = productSearchIndex.search("bas", 10);
+
+        // THEN
+        assertThat(hits).extracting(ProductSearchHit::getProductNumber).containsExactly(2L);
+    }
+
+    @Test
+    void search_whenTermMisspelled_matchWithinOneTypo() {
+        // WHEN
+        List<ProductSearchHit> hits = productSearchIndex.search("scocer bal", 10);
+
+        // THEN
+        assertThat(hits).extracting(ProductSearchHit::getProductNumber).containsExactly(1L);
+    }
+
+    @Test
+    void search_whenQueryHasAccentsAndCase_foldThem() {
+        // WHEN
+        List<ProductSearchHit> hits = productSearchIndex.search("CAFE", 10);
+
+        // THEN
+        assertThat(hits).extracting(ProductSearchHit::getProductName).containsExactly("Café Table");
+    }
+
+    @Test
+    void search_whenMoreHitsThanLimit_returnBestOnly() {
+        // WHEN
+        List<ProductSearchHit> hits = productSearchIndex.search("ball", 1);
+
+        // THEN
+        assertThat(hits).extracting(ProductSearchHit::getProductNumber).containsExactly(1L);
+    }
+
+    @Test
+    void index_whenProductUpdatedOrRemoved_searchLatestVersionOnly() {
+        // WHEN
+        productSearchIndex.index(new ProductEntity(2L, "Basketball", 10, "Outdoor rubber ball", 25));
+        productSearchIndex.remove(3L);
+
+        // THEN
+        assertThat(productSearchIndex.search("indoor", 10)).isEmpty();
+        assertThat(productSearchIndex.search("outdoor", 10))
+                .containsExactly(new ProductSearchHit(2L, "Basketball", 25,
+                        productSearchIndex.search("outdoor", 10).get(0).getScore()));
+        assertThat(productSearchIndex.search("gloves", 10)).isEmpty();
+        assertThat(productSearchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void index_whenManyUpdates_compactWithoutLosingProducts() {
+        // GIVEN
+        List<ProductEntity> products = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            products.add(new ProductEntity(i, "Widget " + i, 10, "widget number " + i, 1));
+        }
+        productSearchIndex.rebuild(products.iterator());
+
+        // WHEN
+        for (int round = 0; round < 30; round++) {
+            products.forEach(productSearchIndex::index);
+        }
+
+        // THEN
+        assertThat(productSearchIndex.size()).isEqualTo(100);
+        assertThat(productSearchIndex.search("widget", 200)).hasSize(100);
+        assertThat(productSearchIndex.search("widget 42", 10))
+                .extracting(ProductSearchHit::getProductNumber).containsExactly(42L);
+    }
+
+    @Test
+    void search_whenPrefixExpandsToTermsOfUpdatedProducts_skipDeletedDocuments() {
+        // GIVEN
+        List<ProductEntity> products = new ArrayList<>();
+        for (long i = 1; i <= 1000; i++) {
+            products.add(new ProductEntity(i, "Ball " + i, 10, "balloon and ballast", 1));
+        }
+        productSearchIndex.rebuild(products.iterator());
+        // every old version is deleted, too few of them for a compaction
+        products.forEach(productSearchIndex::index);
+
+        // WHEN
+        List<ProductSearchHit> hits = productSearchIndex.search("bal", 2000);
+
+        // THEN
+        assertThat(hits).hasSize(1000);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.exception.ProductException;
+import com.example.springbootecommerceapi.model.ProductFilter;
+import com.example.springbootecommerceapi.model.ProductPatch;
+import com.example.springbootecommerceapi.model.ProductPatchReport;
+import com.example.springbootecommerceapi.model.ProductSearchHit;
+import com.example.springbootecommerceapi.model.ProductSort;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ExtendWith(OutputCaptureExtension.class)
+class ProductServiceBulkUpdateTest {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void updateProducts_whenPartialPatches_applyOnlyGivenFieldsAndReportMissing() {
+        // GIVEN
+        productService.addProduct(new ProductEntity("Repriced Skillet", 10, "cast iron", 40));
+        productService.addProduct(new ProductEntity("Repriced Wok", 5, "carbon steel", 30));
+        productService.addProduct(new ProductEntity("Repriced Steamer", 2, "bamboo", 15));
+        long skillet = productNumber("Repriced Skillet");
+        long wok = productNumber("Repriced Wok");
+        long steamer = productNumber("Repriced Steamer");
+        // both caches hold the products before they are patched
+        productService.getProduct(skillet);
+        productService.getProduct(wok);
+        List<ProductPatch> patches = List.of(
+                new ProductPatch(skillet, 35f, null, null, null),
+                new ProductPatch(wok, null, null, -3, "seasoned carbon steel"),
+                new ProductPatch(wok, null, null, -1, null),
+                new ProductPatch(steamer, null, 8, null, null),
+                new ProductPatch(steamer, null, null, -9, null),
+                new ProductPatch(Long.MAX_VALUE, 1f, null, null, null));
+
+        // WHEN
+        ProductPatchReport report = productService.updateProducts(patches);
+
+        // THEN
+        assertThat(report).isEqualTo(new ProductPatchReport(4, 1, 1, 0));
+
+        ProductEntity skilletAfter = productService.getProduct(skillet);
+        assertThat(skilletAfter.getProductPrice()).isEqualTo(35);
+        assertThat(skilletAfter.getProductStock()).isEqualTo(10);
+        assertThat(skilletAfter.getProductDescription()).isEqualTo("cast iron");
+
+        ProductEntity wokAfter = productService.getProduct(wok);
+        assertThat(wokAfter.getProductPrice()).isEqualTo(30);
+        assertThat(wokAfter.getProductStock()).isEqualTo(1);
+        assertThat(wokAfter.getProductDescription()).isEqualTo("seasoned carbon steel");
+        assertThat(productRepository.findById(wok).get().getProductStock()).isEqualTo(1);
+
+        // the delta that would go below zero is not applied, the absolute stock before it is
+        assertThat(productRepository.findById(steamer).get().getProductStock()).isEqualTo(8);
+
+        List<ProductSearchHit> hits = productService.searchProducts("repriced skillet", 1);
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).getProductPrice()).isEqualTo(35);
+        assertThat(productService.searchProducts("seasoned wok", 1).get(0).getProductNumber()).isEqualTo(wok);
+    }
+
+    @Test
+    void updateProducts_whenMoreThanOneChunk_applyEveryPatch() {
+        // GIVEN
+        List<ProductEntity> candles = new ArrayList<>();
+
+        for (int i = 0; i < 1500; i++) {
+            candles.add(new ProductEntity("Repriced Candle " + i, 1, "wax", 5));
+        }
+
+        List<ProductPatch> patches = new ArrayList<>();
+
+        for (ProductEntity candle : productRepository.saveAll(candles)) {
+            patches.add(new ProductPatch(candle.getProductNumber(), 6f, null, 2, null));
+        }
+
+        // the same product in every chunk, each patch adds to the previous one
+        long last = patches.get(patches.size() - 1).getProductNumber();
+        patches.addAll(Collections.nCopies(1400, new ProductPatch(last, null, null, 1, null)));
+
+        // WHEN
+        ProductPatchReport report = productService.updateProducts(patches);
+
+        // THEN
+        assertThat(report).isEqualTo(new ProductPatchReport(2900, 0, 0, 0));
+        assertThat(productRepository.findById(patches.get(0).getProductNumber()).get().getProductPrice()).isEqualTo(6);
+        assertThat(productRepository.findById(last).get().getProductStock()).isEqualTo(1403);
+    }
+
+    @Test
+    void updateProducts_whenChunkCannotBeSaved_reportItFailedAndApplyOtherChunks(CapturedOutput output) {
+        // GIVEN
+        productService.addProduct(new ProductEntity("Repriced Colander", 4, "steel", 12));
+        productService.addProduct(new ProductEntity("Repriced Whisk", 6, "balloon whisk", 7));
+        long colander = productNumber("Repriced Colander");
+        long whisk = productNumber("Repriced Whisk");
+        productService.getProduct(whisk);
+        List<ProductPatch> patches = List.of(
+                new ProductPatch(colander, 10f, null, null, null),
+                // longer than the column, the chunk of two fails as a whole
+                new ProductPatch(colander, null, null, null, "x".repeat(300)),
+                new ProductPatch(whisk, 8f, null, null, null),
+                new ProductPatch(whisk, null, 9, null, null),
+                new ProductPatch(Long.MAX_VALUE, 1f, null, null, null));
+        ReflectionTestUtils.setField(productService, "bulkChunkSize", 2);
+        ProductPatchReport report;
+
+        try {
+            // WHEN
+            report = productService.updateProducts(patches);
+        } finally {
+            ReflectionTestUtils.setField(productService, "bulkChunkSize", 1000);
+        }
+
+        // THEN
+        assertThat(report).isEqualTo(new ProductPatchReport(2, 1, 0, 2));
+        assertThat(output).contains("Patch of 2 products numbered " + colander + " to " + colander + " failed");
+        assertThat(productRepository.findById(colander).get().getProductPrice()).isEqualTo(12);
+        // chunks after the failed one are applied, cached and indexed
+        assertThat(productService.getProduct(whisk).getProductStock()).isEqualTo(9);
+        assertThat(productService.searchProducts("balloon whisk", 1).get(0).getProductPrice()).isEqualTo(8);
+    }
+
+    @Test
+    void updateProducts_whenStockAndStockDelta_throwProductExceptionBeforeApplyingAny() {
+        // GIVEN
+        productService.addProduct(new ProductEntity("Repriced Kettle", 4, "enamel", 20));
+        long kettle = productNumber("Repriced Kettle");
+        List<ProductPatch> patches = List.of(
+                new ProductPatch(kettle, 25f, null, null, null),
+                new ProductPatch(kettle, null, 3, 1, null));
+
+        // WHEN
+        assertThatThrownBy(() -> productService.updateProducts(patches))
+                .isInstanceOf(ProductException.class)
+                .hasMessage("Stock and stockDelta cannot both be set for product " + kettle);
+
+        // THEN
+        assertThat(productRepository.findById(kettle).get().getProductPrice()).isEqualTo(20);
+    }
+
+    private long productNumber(String name) {
+        return productService.getProducts(filter(name), ProductSort.NAME, Sort.Direction.ASC, null, 1)
+                .getProducts().get(0).getProductNumber();
+    }
+
+    private static ProductFilter filter(String namePrefix) {
+        ProductFilter filter = new ProductFilter();
+        filter.setNamePrefix(namePrefix);
+        return filter;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.model.UpdateProduct;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductServiceCacheTest {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void getProduct_whenCalledTwice_readDatabaseOnce() {
+        // GIVEN
+        ProductEntity product = productRepository.save(
+                new ProductEntity("Cached Ball", 10, "cached soccer ball", 40));
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        // WHEN
+        productService.getProduct(product.getProductNumber());
+        productService.getProduct(product.getProductNumber());
+
+        // THEN
+        assertThat(cacheGets("miss")).isEqualTo(misses + 1);
+        assertThat(cacheGets("hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void getProduct_whenProductUpdated_readFreshValue() {
+        // GIVEN
+        ProductEntity product = productRepository.save(
+                new ProductEntity("Updated Ball", 10, "updated soccer ball", 40));
+        productService.getProduct(product.getProductNumber());
+
+        // WHEN
+        productService.updateProduct(new UpdateProduct("new description", 5, 35), product.getProductNumber());
+
+        // THEN
+        assertThat(productService.getProduct(product.getProductNumber()).getProductStock()).isEqualTo(5);
+    }
+
+    @Test
+    void getProduct_whenOrderPlaced_readFreshStock() {
+        // GIVEN
+        ProductEntity product = productRepository.save(
+                new ProductEntity("Ordered Ball", 10, "ordered soccer ball", 40));
+        productService.getProduct(product.getProductNumber());
+
+        // WHEN
+        orderService.createOrder(List.of(new OrderDTO(product.getProductNumber(), 3)), "customer@gmail.com");
+
+        // THEN
+        assertThat(productService.getProduct(product.getProductNumber()).getProductStock()).isEqualTo(7);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("name", "products")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.ProductFilter;
+import com.example.springbootecommerceapi.model.ProductPage;
+import com.example.springbootecommerceapi.model.ProductSort;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+Filters and sorts of the catalog listing against the embedded database, each query is run
+through EXPLAIN to check H2 seeks on the index meant for it instead of scanning the table.
+ */
+@SpringBootTest
+class ProductServiceQueryPlanTest {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+    }
+
+    @Test
+    void getProducts_whenPriceRange_seekOnPriceIndex() {
+        assertThat(plan(new ProductFilter(10f, 50f, false, null), null))
+                .contains("PRODUCTPRICEINDEX: PRODUCT_PRICE >= ");
+    }
+
+    @Test
+    void getProducts_whenInStock_seekOnStockIndex() {
+        assertThat(plan(new ProductFilter(null, null, true, null), null))
+                .contains("PRODUCTSTOCKINDEX: PRODUCT_STOCK > ");
+    }
+
+    @Test
+    void getProducts_whenNamePrefix_seekOnNameKeyIndex() {
+        assertThat(plan(new ProductFilter(null, null, false, "Soc"), null))
+                .contains("PRODUCTNAMEKEYINDEX: PRODUCT_NAME_KEY >= ");
+    }
+
+    @Test
+    void getProducts_whenSorted_readIndexInOrder() {
+        assertThat(plan(new ProductFilter(), ProductSort.PRICE)).contains("PRODUCTPRICEINDEX").contains("index sorted");
+        assertThat(plan(new ProductFilter(), ProductSort.NAME)).contains("PRODUCTNAMEKEYINDEX").contains("index sorted");
+        assertThat(plan(new ProductFilter(), ProductSort.STOCK)).contains("PRODUCTSTOCKINDEX").contains("index sorted");
+    }
+
+    @Test
+    void getProducts_whenPagingByPrice_visitEveryMatchOnceInOrder() {
+        // GIVEN
+        // equal prices make the product number decide, the cursor has to carry both
+        List<ProductEntity> saved = new ArrayList<>();
+        float[] prices = {25, 10, 25, 40, 25, 10, 5};
+
+        for (int i = 0; i < prices.length; i++) {
+            saved.add(productRepository.save(new ProductEntity("Keyset Lamp " + i, i, "lamp", prices[i])));
+        }
+
+        ProductFilter filter = new ProductFilter(null, null, true, "keyset lamp");
+        List<Long> expected = saved.stream()
+                .filter(product -> product.getProductStock() > 0)
+                .sorted((left, right) -> left.getProductPrice() != right.getProductPrice()
+                        ? Double.compare(right.getProductPrice(), left.getProductPrice())
+                        : Long.compare(right.getProductNumber(), left.getProductNumber()))
+                .map(ProductEntity::getProductNumber)
+                .toList();
+
+        // WHEN
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            ProductPage page = productService.getProducts(filter, ProductSort.PRICE, Sort.Direction.DESC, cursor, 2);
+            page.getProducts().forEach(product -> visited.add(product.getProductNumber()));
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        // THEN
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    // plan of the listing query the service sent for filter and sort
+    private String plan(ProductFilter filter, ProductSort sort) {
+        // switching statistics off drops what was collected before
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        productService.getProducts(filter, sort, Sort.Direction.ASC, null, 5);
+
+        String sql = jdbcTemplate.queryForObject(
+                "select SQL_STATEMENT from INFORMATION_SCHEMA.QUERY_STATISTICS " +
+                        "where lower(SQL_STATEMENT) like 'select%from product%order by%'",
+                String.class);
+
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
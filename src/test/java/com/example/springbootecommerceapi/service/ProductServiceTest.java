@@ -2,44 +2,178 @@ package com.example.springbootecommerceapi.service;
 
 import com.example.springbootecommerceapi.entity.ProductEntity;
 import com.example.springbootecommerceapi.exception.ProductException;
+import com.example.springbootecommerceapi.model.ProductFilter;
+import com.example.springbootecommerceapi.model.ProductPage;
+import com.example.springbootecommerceapi.model.ProductSearchHit;
+import com.example.springbootecommerceapi.model.ProductSort;
 import com.example.springbootecommerceapi.model.UpdateProduct;
 import com.example.springbootecommerceapi.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 
 @ExtendWith(MockitoExtension.class)
 class ProductServiceTest {
 
     @Mock
     private ProductRepository productRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+    @Mock
+    private ProductSuggestionService productSuggestionService;
     @Captor
     private ArgumentCaptor<ProductEntity> productCaptor;
     @InjectMocks
     private ProductService productService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(productService, "maxPageSize", 5);
+    }
+
+    @Test
+    void getProducts_whenMoreProductsThanPageSize_returnPageWithNextCursor() {
+        // GIVEN
+        ProductEntity product1 = new ProductEntity(1L, "Soccer Ball", 10, "soccer ball", 40);
+        ProductEntity product2 = new ProductEntity(2L, "Basketball", 10, "basketball", 30);
+        ProductEntity product3 = new ProductEntity(3L, "Football", 10, "football", 20);
+        Sort byProductNumber = Sort.by(Sort.Direction.ASC, "productNumber");
+
+        // assume there are more rows than the default page size
+        given(productRepository.findPage(any(), eq(byProductNumber), eq(3)))
+                .willReturn(List.of(product1, product2, product3));
+
+        // WHEN
+        ProductPage page = productService.getProducts(new ProductFilter(), null, Sort.Direction.ASC, null, null);
+
+        // THEN
+        assertThat(page.getProducts()).isEqualTo(List.of(product1, product2));
+        assertThat(page.getNext()).isEqualTo(cursor("2"));
+    }
+
     @Test
-    void getAllProducts_returnListOfProducts() {
+    void getProducts_whenSortedByPrice_orderByPriceThenProductNumberAndPutPriceInCursor() {
         // GIVEN
+        ProductEntity product1 = new ProductEntity(7L, "Football", 10, "football", 19.99f);
+        ProductEntity product2 = new ProductEntity(3L, "Basketball", 10, "basketball", 30);
+        ProductEntity product3 = new ProductEntity(1L, "Soccer Ball", 10, "soccer ball", 40);
+        Sort byPrice = Sort.by(Sort.Direction.DESC, "productPrice", "productNumber");
+        given(productRepository.findPage(any(), eq(byPrice), eq(3)))
+                .willReturn(List.of(product3, product2, product1));
 
         // WHEN
-        productService.getAllProducts();
+        ProductPage page = productService.getProducts(
+                new ProductFilter(10f, null, true, null), ProductSort.PRICE, Sort.Direction.DESC, null, null);
 
         // THEN
-        then(productRepository).should().findAll();
+        assertThat(page.getProducts()).isEqualTo(List.of(product3, product2));
+        assertThat(page.getNext()).isEqualTo(cursor("30.0|3"));
+
+        // following page is accepted for the same sort
+        productService.getProducts(
+                new ProductFilter(10f, null, true, null), ProductSort.PRICE, Sort.Direction.DESC, page.getNext(), null);
+        then(productRepository).should(times(2)).findPage(any(), eq(byPrice), eq(3));
+    }
+
+    @Test
+    void getProducts_whenLastPage_returnPageWithoutNextCursor() {
+        // GIVEN
+        ProductEntity product1 = new ProductEntity(1L, "Soccer Ball", 10, "soccer ball", 40);
+
+        // requested size is capped at the max page size
+        given(productRepository.findPage(any(), any(), eq(6))).willReturn(List.of(product1));
+
+        // WHEN
+        ProductPage page = productService.getProducts(new ProductFilter(), null, Sort.Direction.ASC, null, 50);
+
+        // THEN
+        assertThat(page.getProducts()).isEqualTo(List.of(product1));
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    void getProducts_whenInvalidCursor_throwProductException() {
+        // WHEN
+        assertThatThrownBy(() -> productService.getProducts(
+                new ProductFilter(), null, Sort.Direction.ASC, "not a cursor", null))
+                .isInstanceOf(ProductException.class)
+                .hasMessage("Invalid cursor");
+
+        // a product number cursor does not carry the price a price ordered page seeks on
+        assertThatThrownBy(() -> productService.getProducts(
+                new ProductFilter(), ProductSort.PRICE, Sort.Direction.ASC, cursor("2"), null))
+                .isInstanceOf(ProductException.class)
+                .hasMessage("Invalid cursor");
+
+        // THEN
+        then(productRepository).should(never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void searchProducts_whenSizeAboveMaximum_capAtMaxPageSize() {
+        // GIVEN
+        List<ProductSearchHit> hits = List.of(new ProductSearchHit(1L, "Soccer Ball", 40, 1.5f));
+        given(productSearchIndex.search("soccer", 5)).willReturn(hits);
+
+        // WHEN
+        List<ProductSearchHit> result = productService.searchProducts("soccer", 50);
+
+        // THEN
+        assertThat(result).isEqualTo(hits);
+        then(productSearchIndex).should().search("soccer", 5);
+    }
+
+    @Test
+    void exportProducts_writeOneLinePerProductAndDetachIt() throws Exception {
+        // GIVEN
+        ProductEntity product1 = new ProductEntity(1L, "Soccer Ball", 10, "soccer ball", 40);
+        ProductEntity product2 = new ProductEntity(2L, "Basketball", 10, "basketball", 30);
+        given(productRepository.streamAll()).willReturn(Stream.of(product1, product2));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        productService.exportProducts(outputStream);
+
+        // THEN
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length).isEqualTo(2);
+        assertThat(objectMapper.readValue(lines[0], ProductEntity.class)).isEqualTo(product1);
+        assertThat(objectMapper.readValue(lines[1], ProductEntity.class)).isEqualTo(product2);
+        then(entityManager).should().detach(product1);
+        then(entityManager).should().detach(product2);
     }
 
     @Test
@@ -84,6 +218,7 @@ class ProductServiceTest {
 
         // assume product name is unique
         given(productRepository.existsByProductName(product.getProductName())).willReturn(false);
+        given(productRepository.save(product)).willReturn(product);
 
         // WHEN
         productService.addProduct(product);
@@ -91,6 +226,8 @@ class ProductServiceTest {
         // THEN
         then(productRepository).should().existsByProductName(product.getProductName());
         then(productRepository).should().save(product);
+        then(productSearchIndex).should().index(product);
+        then(productSuggestionService).should().catalogChanged();
     }
 
     @Test
@@ -130,6 +267,7 @@ class ProductServiceTest {
         // THEN
         then(productRepository).should().delete(productCaptor.capture());
         assertThat(productCaptor.getValue().getProductNumber()).isEqualTo(productNumber);
+        then(productSearchIndex).should().remove(productNumber);
     }
 
     @Test
@@ -151,6 +289,7 @@ class ProductServiceTest {
 
         // THEN
         then(productRepository).should(never()).delete(any());
+        then(productSearchIndex).should(never()).remove(anyLong());
     }
 
     @Test
@@ -194,4 +333,7 @@ class ProductServiceTest {
         then(productRepository).should(never()).save(any());
     }
 
-}
\ No newline at end of file
+    private static String cursor(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.entity.ProductEntity;
+import com.example.springbootecommerceapi.model.OrderDTO;
+import com.example.springbootecommerceapi.model.ProductSuggestion;
+import com.example.springbootecommerceapi.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductSuggestionServiceTest {
+
+    @Autowired
+    private ProductSuggestionService productSuggestionService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void rebuildIfStale_whenProductAdded_suggestItAfterRebuild() {
+        // GIVEN
+        productService.addProduct(new ProductEntity("Zeppelin Kite", 10, "kite shaped like a zeppelin", 25));
+
+        // WHEN
+        productSuggestionService.rebuildIfStale();
+
+        // THEN
+        assertThat(productSuggestionService.suggestProducts("zeppelin", null))
+                .extracting(ProductSuggestion::getProductName).containsExactly("Zeppelin Kite");
+    }
+
+    @Test
+    void rebuildSuggestions_whenProductsSold_suggestBestSellersFirst() {
+        // GIVEN
+        ProductEntity slow = productRepository.save(new ProductEntity("Quasar Lamp Basic", 10, "lamp", 20));
+        ProductEntity popular = productRepository.save(new ProductEntity("Quasar Lamp Deluxe", 10, "lamp", 60));
+        orderService.createOrder(List.of(new OrderDTO(popular.getProductNumber(), 3)), "customer@gmail.com");
+
+        // WHEN
+        productSuggestionService.rebuildSuggestions();
+
+        // THEN
+        assertThat(productSuggestionService.suggestProducts("quasar l", null))
+                .extracting(ProductSuggestion::getProductNumber)
+                .containsExactly(popular.getProductNumber(), slow.getProductNumber());
+    }
+}
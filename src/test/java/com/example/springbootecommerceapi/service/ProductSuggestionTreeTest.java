@@ -0,0 +1,97 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.model.ProductSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSuggestionTreeTest {
+
+    // ranked best first, the tree never reorders them
+    private final ProductSuggestionTree tree = new ProductSuggestionTree(
+            new long[]{4L, 1L, 2L, 3L, 5L},
+            new String[]{"Soccer Shoes", "Soccer Ball", "Basketball", "Ball Pump Ball", "Café Table"});
+
+    @Test
+    void suggest_whenPrefixOfFirstWord_returnMatchesBestFirst() {
+        // WHEN
+        List<ProductSuggestion> suggestions = tree.suggest("Socc", 10);
+
+        // THEN
+        assertThat(suggestions).containsExactly(
+                new ProductSuggestion(4L, "Soccer Shoes"),
+                new ProductSuggestion(1L, "Soccer Ball"));
+    }
+
+    @Test
+    void suggest_whenPrefixOfLaterWord_returnEachProductOnce() {
+        // WHEN
+        List<ProductSuggestion> suggestions = tree.suggest("ball", 10);
+
+        // THEN
+        assertThat(suggestions).extracting(ProductSuggestion::getProductNumber).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void suggest_whenPrefixEndsInsideEdgeOrSpansWords_matchIt() {
+        // THEN
+        assertThat(tree.suggest("soccer b", 10)).extracting(ProductSuggestion::getProductNumber).containsExactly(1L);
+        assertThat(tree.suggest("bas", 10)).extracting(ProductSuggestion::getProductNumber).containsExactly(2L);
+        assertThat(tree.suggest("CAFE t", 10)).extracting(ProductSuggestion::getProductNumber).containsExactly(5L);
+    }
+
+    @Test
+    void suggest_whenNothingMatches_returnEmptyList() {
+        // THEN
+        assertThat(tree.suggest("socks", 10)).isEmpty();
+        assertThat(tree.suggest("soccer shoes x", 10)).isEmpty();
+        assertThat(tree.suggest("  -- ", 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_whenManyMatches_returnBestRanksUpToLimit() {
+        // GIVEN
+        int products = 500;
+        long[] productNumbers = new long[products];
+        String[] productNames = new String[products];
+        for (int rank = 0; rank < products; rank++) {
+            productNumbers[rank] = 1000 + rank;
+            productNames[rank] = "Ball " + (products - rank);
+        }
+        ProductSuggestionTree ranked = new ProductSuggestionTree(productNumbers, productNames);
+
+        // WHEN
+        List<ProductSuggestion> suggestions = ranked.suggest("ba", 3);
+
+        // THEN
+        assertThat(suggestions).extracting(ProductSuggestion::getProductNumber).containsExactly(1000L, 1001L, 1002L);
+        assertThat(ranked.suggest("ball 4", 10)).hasSize(10).allMatch(s -> s.getProductName().startsWith("Ball 4"));
+    }
+
+    @Test
+    void estimatedBytes_whenCatalogOfTypicalNames_stayWithinBudget() {
+        // GIVEN
+        Random random = new Random(7);
+        String[] words = {"soccer", "ball", "basketball", "running", "shoes", "shirt", "black", "white", "pro",
+                "training", "gloves", "goalkeeper", "kids", "women", "men", "indoor", "outdoor", "size", "pack"};
+        int products = 20_000;
+        long[] productNumbers = new long[products];
+        String[] productNames = new String[products];
+        for (int rank = 0; rank < products; rank++) {
+            productNumbers[rank] = rank + 1;
+            productNames[rank] = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                    + " " + words[random.nextInt(words.length)] + " " + (rank + 1);
+        }
+
+        // WHEN
+        ProductSuggestionTree catalog = new ProductSuggestionTree(productNumbers, productNames);
+
+        // THEN
+        assertThat(catalog.estimatedBytes() / products)
+                .isLessThanOrEqualTo(ProductSuggestionTree.MEMORY_BUDGET_PER_PRODUCT);
+        assertThat(catalog.suggest("soccer ball", 10)).isNotEmpty();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.springbootecommerceapi.service;
+
+import com.example.springbootecommerceapi.exception.TokenException;
+import com.example.springbootecommerceapi.model.LoginRequest;
+import com.example.springbootecommerceapi.model.RefreshTokenRequest;
+import com.example.springbootecommerceapi.model.TokenResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class TokenServiceTest {
+
+    private static final String ORDERS = "/api/ecommerce/v1/orders";
+
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void login_whenValidCredentials_accessTokenAuthenticatesWithoutSession() throws Exception {
+        // GIVEN
+        TokenResponse tokens = login();
+
+        // WHEN
+        mockMvc.perform(get(ORDERS)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(result -> assertThat(result.getRequest().getSession(false)).isNull());
+
+        // THEN
+        assertThat(tokens.getTokenType()).isEqualTo("Bearer");
+        assertThat(tokens.getExpiresIn()).isEqualTo(900);
+    }
+
+    @Test
+    void login_whenInvalidCredentials_throwTokenException() {
+        // WHEN
+        // THEN
+        assertThatThrownBy(() -> tokenService.login(new LoginRequest("customer@gmail.com", "wrong-password")))
+                .isInstanceOf(TokenException.class)
+                .hasMessage("Invalid email or password");
+    }
+
+    @Test
+    void request_whenNoTokenOrRefreshTokenIsGiven_return401() throws Exception {
+        // GIVEN
+        TokenResponse tokens = login();
+
+        // WHEN
+        // THEN
+        mockMvc.perform(get(ORDERS))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get(ORDERS)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.getRefreshToken()))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get(ORDERS)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.getAccessToken() + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refresh_whenRefreshTokenIsGiven_issueWorkingAccessToken() throws Exception {
+        // GIVEN
+        TokenResponse tokens = login();
+
+        // WHEN
+        String response = mockMvc.perform(post("/api/ecommerce/v1/authentication/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(tokens.getRefreshToken()))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        TokenResponse refreshed = objectMapper.readValue(response, TokenResponse.class);
+
+        // THEN
+        mockMvc.perform(get(ORDERS)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshed.getAccessToken()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void refresh_whenAccessTokenIsGiven_throwTokenException() {
+        // GIVEN
+        TokenResponse tokens = tokenService.login(new LoginRequest("customer@gmail.com", "12345678"));
+
+        // WHEN
+        // THEN
+        assertThatThrownBy(() -> tokenService.refresh(tokens.getAccessToken()))
+                .isInstanceOf(TokenException.class)
+                .hasMessage("Invalid refresh token");
+    }
+
+    private TokenResponse login() throws Exception {
+        String response = mockMvc.perform(post("/api/ecommerce/v1/authentication/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("customer@gmail.com", "12345678"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        return objectMapper.readValue(response, TokenResponse.class);
+    }
+}